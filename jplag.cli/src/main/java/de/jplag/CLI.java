@@ -20,6 +20,7 @@ import de.jplag.clustering.ClusteringOptions;
 import de.jplag.clustering.Preprocessing;
 import de.jplag.clustering.algorithm.InterClusterSimilarity;
 import de.jplag.exceptions.ExitException;
+import de.jplag.options.ComparisonAlgorithm;
 import de.jplag.options.JPlagOptions;
 import de.jplag.options.LanguageOption;
 import de.jplag.options.SimilarityMetric;
@@ -123,9 +124,28 @@ public class CLI {
         options.setExclusionFileName(EXCLUDE_FILE.getFrom(namespace));
         options.setMinimumTokenMatch(MIN_TOKEN_MATCH.getFrom(namespace));
         options.setSimilarityThreshold(SIMILARITY_THRESHOLD.getFrom(namespace));
+        options.setSimilarityScreening(SIMILARITY_SCREENING.getFrom(namespace));
         options.setMaximumNumberOfComparisons(SHOWN_COMPARISONS.getFrom(namespace));
         ComparisonMode.fromName(COMPARISON_MODE.getFrom(namespace)).ifPresentOrElse(options::setComparisonMode,
                 () -> logger.warn("Unknown comparison mode, using default mode!"));
+        options.setParallelism(PARALLELISM.getFrom(namespace));
+        options.setParallelTilingThreshold(PARALLEL_TILING.getFrom(namespace));
+        options.setColumnarTokens(COLUMNAR_TOKENS.getFrom(namespace));
+        options.setOffHeapTokens(OFF_HEAP_TOKENS.getFrom(namespace));
+        options.setMinHashBands(MIN_HASH_BANDS.getFrom(namespace));
+        options.setMinHashRows(MIN_HASH_ROWS.getFrom(namespace));
+        options.setWinnowingWindow(WINNOWING_WINDOW.getFrom(namespace));
+        options.setWinnowingFingerprints(WINNOWING_FINGERPRINTS.getFrom(namespace));
+        options.setTokenCacheDirectory(TOKEN_CACHE.getFrom(namespace));
+        options.setTokenCacheSize(TOKEN_CACHE_SIZE.getFrom(namespace));
+        options.setTokenCacheAge(TOKEN_CACHE_AGE.getFrom(namespace));
+        options.setComparisonCacheDirectory(COMPARISON_CACHE.getFrom(namespace));
+        options.setComparisonCacheSize(COMPARISON_CACHE_SIZE.getFrom(namespace));
+        options.setOldCorpusDirectory(OLD_CORPUS.getFrom(namespace));
+        options.setAppendCorpusDirectory(APPEND_CORPUS.getFrom(namespace));
+        options.setTokenStoreFile(TOKEN_STORE.getFrom(namespace));
+        ComparisonAlgorithm.fromName(COMPARISON_ALGORITHM.getFrom(namespace)).ifPresentOrElse(options::setComparisonAlgorithm,
+                () -> logger.warn("Unknown comparison algorithm, using default algorithm!"));
 
         options.setBasicFiltering(SIMPLE_FILTERING.getFrom(namespace));
         options.setSourceAnalysisEnabled(SOURCE_CODE_ANALYSIS.getFrom(namespace));
@@ -2,9 +2,18 @@ package de.jplag;
 
 import static de.jplag.CLI.CLUSTERING_GROUP_NAME;
 import static de.jplag.CLI.CLUSTERING_PREPROCESSING_GROUP_NAME;
+import static de.jplag.options.JPlagOptions.DEFAULT_COMPARISON_ALGORITHM;
+import static de.jplag.options.JPlagOptions.DEFAULT_COMPARISON_CACHE_SIZE;
 import static de.jplag.options.JPlagOptions.DEFAULT_COMPARISON_MODE;
+import static de.jplag.options.JPlagOptions.DEFAULT_MIN_HASH_BANDS;
+import static de.jplag.options.JPlagOptions.DEFAULT_MIN_HASH_ROWS;
+import static de.jplag.options.JPlagOptions.DEFAULT_PARALLEL_TILING_THRESHOLD;
 import static de.jplag.options.JPlagOptions.DEFAULT_SHOWN_COMPARISONS;
 import static de.jplag.options.JPlagOptions.DEFAULT_SIMILARITY_THRESHOLD;
+import static de.jplag.options.JPlagOptions.DEFAULT_TOKEN_CACHE_AGE;
+import static de.jplag.options.JPlagOptions.DEFAULT_TOKEN_CACHE_SIZE;
+import static de.jplag.options.JPlagOptions.DEFAULT_WINNOWING_FINGERPRINTS;
+import static de.jplag.options.JPlagOptions.DEFAULT_WINNOWING_WINDOW;
 import static net.sourceforge.argparse4j.impl.Arguments.append;
 import static net.sourceforge.argparse4j.impl.Arguments.storeTrue;
 
@@ -22,6 +31,7 @@ import net.sourceforge.argparse4j.inf.Namespace;
 import de.jplag.clustering.ClusteringAlgorithm;
 import de.jplag.clustering.ClusteringOptions;
 import de.jplag.clustering.algorithm.InterClusterSimilarity;
+import de.jplag.options.ComparisonAlgorithm;
 import de.jplag.options.LanguageOption;
 import de.jplag.options.SimilarityMetric;
 import de.jplag.strategy.ComparisonMode;
@@ -49,9 +59,27 @@ public enum CommandLineArgument {
     EXCLUDE_FILE("-x", String.class),
     MIN_TOKEN_MATCH("-t", Integer.class),
     SIMILARITY_THRESHOLD(new Builder("-m", Float.class).defaultsTo(DEFAULT_SIMILARITY_THRESHOLD)),
+    SIMILARITY_SCREENING("-screen", Boolean.class),
     SHOWN_COMPARISONS(new Builder("-n", Integer.class).defaultsTo(DEFAULT_SHOWN_COMPARISONS)),
     RESULT_FOLDER(new Builder("-r", String.class).defaultsTo("result")),
     COMPARISON_MODE(new Builder("-c", String.class).defaultsTo(DEFAULT_COMPARISON_MODE.getName()).choices(ComparisonMode.allNames())),
+    PARALLELISM("-parallelism", Integer.class),
+    PARALLEL_TILING(new Builder("-parallel-tiling", Integer.class).defaultsTo(DEFAULT_PARALLEL_TILING_THRESHOLD)),
+    COLUMNAR_TOKENS("-columnar-tokens", Boolean.class),
+    OFF_HEAP_TOKENS("-off-heap-tokens", Boolean.class),
+    MIN_HASH_BANDS(new Builder("-minhash-bands", Integer.class).defaultsTo(DEFAULT_MIN_HASH_BANDS)),
+    MIN_HASH_ROWS(new Builder("-minhash-rows", Integer.class).defaultsTo(DEFAULT_MIN_HASH_ROWS)),
+    WINNOWING_WINDOW(new Builder("-winnowing-window", Integer.class).defaultsTo(DEFAULT_WINNOWING_WINDOW)),
+    WINNOWING_FINGERPRINTS(new Builder("-winnowing-fingerprints", Integer.class).defaultsTo(DEFAULT_WINNOWING_FINGERPRINTS)),
+    TOKEN_CACHE("-token-cache", String.class),
+    TOKEN_CACHE_SIZE(new Builder("-token-cache-size", Integer.class).defaultsTo(DEFAULT_TOKEN_CACHE_SIZE)),
+    TOKEN_CACHE_AGE(new Builder("-token-cache-age", Integer.class).defaultsTo(DEFAULT_TOKEN_CACHE_AGE)),
+    COMPARISON_CACHE("-comparison-cache", String.class),
+    COMPARISON_CACHE_SIZE(new Builder("-comparison-cache-size", Integer.class).defaultsTo(DEFAULT_COMPARISON_CACHE_SIZE)),
+    OLD_CORPUS("-old-corpus", String.class),
+    APPEND_CORPUS("-append-corpus", String.class),
+    TOKEN_STORE("-token-store", String.class),
+    COMPARISON_ALGORITHM(new Builder("-a", String.class).defaultsTo(DEFAULT_COMPARISON_ALGORITHM.getName()).choices(ComparisonAlgorithm.allNames())),
     CLUSTER_ENABLE(new Builder("--cluster-skip", Boolean.class).argumentGroup(CLUSTERING_GROUP_NAME).action(Arguments.storeTrue())),
     CLUSTER_ALGORITHM(
             new Builder("--cluster-alg", ClusteringAlgorithm.class).argumentGroup(CLUSTERING_GROUP_NAME)
@@ -0,0 +1,34 @@
+package de.jplag.cli;
+
+import static com.github.stefanbirkner.systemlambda.SystemLambda.catchSystemExit;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import de.jplag.CommandLineArgument;
+import de.jplag.options.ComparisonAlgorithm;
+import de.jplag.options.JPlagOptions;
+
+class ComparisonAlgorithmTest extends CommandLineInterfaceTest {
+
+    @Test
+    void testDefaultAlgorithm() {
+        buildOptionsFromCLI(CURRENT_DIRECTORY);
+        assertEquals(JPlagOptions.DEFAULT_COMPARISON_ALGORITHM, options.getComparisonAlgorithm());
+    }
+
+    @Test
+    void testInvalidAlgorithm() throws Exception {
+        String argument = buildArgument(CommandLineArgument.COMPARISON_ALGORITHM, "rolling-hash");
+        int statusCode = catchSystemExit(() -> buildOptionsFromCLI(argument, CURRENT_DIRECTORY));
+        assertEquals(1, statusCode);
+    }
+
+    @Test
+    void testSuffixArrayAlgorithm() {
+        ComparisonAlgorithm algorithm = ComparisonAlgorithm.SUFFIX_ARRAY;
+        String argument = buildArgument(CommandLineArgument.COMPARISON_ALGORITHM, algorithm.getName());
+        buildOptionsFromCLI(argument, CURRENT_DIRECTORY);
+        assertEquals(algorithm, options.getComparisonAlgorithm());
+    }
+}
@@ -0,0 +1,28 @@
+package de.jplag.cli;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+import de.jplag.CommandLineArgument;
+import de.jplag.options.JPlagOptions;
+
+class ComparisonCacheTest extends CommandLineInterfaceTest {
+
+    @Test
+    void testCacheDisabledByDefault() {
+        buildOptionsFromCLI(CURRENT_DIRECTORY);
+        assertNull(options.getComparisonCacheDirectory());
+        assertEquals(JPlagOptions.DEFAULT_COMPARISON_CACHE_SIZE, options.getComparisonCacheSize());
+    }
+
+    @Test
+    void testCacheOptions() {
+        String directory = buildArgument(CommandLineArgument.COMPARISON_CACHE, "cache");
+        String size = buildArgument(CommandLineArgument.COMPARISON_CACHE_SIZE, "64");
+        buildOptionsFromCLI(directory, size, CURRENT_DIRECTORY);
+        assertEquals("cache", options.getComparisonCacheDirectory());
+        assertEquals(64, options.getComparisonCacheSize());
+    }
+}
@@ -40,4 +40,57 @@ class ComparisonModeTest extends CommandLineInterfaceTest {
         assertEquals(mode, options.getComparisonMode());
     }
 
+    @Test
+    void testForkJoinMode() {
+        ComparisonMode mode = ComparisonMode.FORK_JOIN;
+        String argument = buildArgument(CommandLineArgument.COMPARISON_MODE, mode.getName());
+        buildOptionsFromCLI(argument, CURRENT_DIRECTORY);
+        assertEquals(mode, options.getComparisonMode());
+    }
+
+    @Test
+    void testPipelinedMode() {
+        ComparisonMode mode = ComparisonMode.PIPELINED;
+        String argument = buildArgument(CommandLineArgument.COMPARISON_MODE, mode.getName());
+        buildOptionsFromCLI(argument, CURRENT_DIRECTORY);
+        assertEquals(mode, options.getComparisonMode());
+    }
+
+    @Test
+    void testMinHashMode() {
+        ComparisonMode mode = ComparisonMode.MINHASH;
+        String argument = buildArgument(CommandLineArgument.COMPARISON_MODE, mode.getName());
+        String bands = buildArgument(CommandLineArgument.MIN_HASH_BANDS, "16");
+        String rows = buildArgument(CommandLineArgument.MIN_HASH_ROWS, "8");
+        buildOptionsFromCLI(argument, bands, rows, CURRENT_DIRECTORY);
+        assertEquals(mode, options.getComparisonMode());
+        assertEquals(16, options.getMinHashBands());
+        assertEquals(8, options.getMinHashRows());
+    }
+
+    @Test
+    void testWinnowingMode() {
+        ComparisonMode mode = ComparisonMode.WINNOWING;
+        String argument = buildArgument(CommandLineArgument.COMPARISON_MODE, mode.getName());
+        String window = buildArgument(CommandLineArgument.WINNOWING_WINDOW, "6");
+        String fingerprints = buildArgument(CommandLineArgument.WINNOWING_FINGERPRINTS, "3");
+        buildOptionsFromCLI(argument, window, fingerprints, CURRENT_DIRECTORY);
+        assertEquals(mode, options.getComparisonMode());
+        assertEquals(6, options.getWinnowingWindow());
+        assertEquals(3, options.getWinnowingFingerprints());
+    }
+
+    @Test
+    void testParallelism() {
+        String argument = buildArgument(CommandLineArgument.PARALLELISM, "3");
+        buildOptionsFromCLI(argument, CURRENT_DIRECTORY);
+        assertEquals(3, options.getParallelism());
+    }
+
+    @Test
+    void testParallelTiling() {
+        String argument = buildArgument(CommandLineArgument.PARALLEL_TILING, "5000");
+        buildOptionsFromCLI(argument, CURRENT_DIRECTORY);
+        assertEquals(5000, options.getParallelTilingThreshold());
+    }
 }
@@ -0,0 +1,27 @@
+package de.jplag.cli;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+import de.jplag.CommandLineArgument;
+
+class CorpusTest extends CommandLineInterfaceTest {
+
+    @Test
+    void testNoCorpusByDefault() {
+        buildOptionsFromCLI(CURRENT_DIRECTORY);
+        assertNull(options.getOldCorpusDirectory());
+        assertNull(options.getAppendCorpusDirectory());
+    }
+
+    @Test
+    void testCorpusDirectories() {
+        String oldCorpus = buildArgument(CommandLineArgument.OLD_CORPUS, "archive");
+        String appendCorpus = buildArgument(CommandLineArgument.APPEND_CORPUS, "archive");
+        buildOptionsFromCLI(oldCorpus, appendCorpus, CURRENT_DIRECTORY);
+        assertEquals("archive", options.getOldCorpusDirectory());
+        assertEquals("archive", options.getAppendCorpusDirectory());
+    }
+}
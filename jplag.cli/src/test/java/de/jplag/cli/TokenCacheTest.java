@@ -0,0 +1,38 @@
+package de.jplag.cli;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+import de.jplag.CommandLineArgument;
+import de.jplag.options.JPlagOptions;
+
+class TokenCacheTest extends CommandLineInterfaceTest {
+
+    @Test
+    void testCacheDisabledByDefault() {
+        buildOptionsFromCLI(CURRENT_DIRECTORY);
+        assertNull(options.getTokenCacheDirectory());
+        assertEquals(JPlagOptions.DEFAULT_TOKEN_CACHE_SIZE, options.getTokenCacheSize());
+        assertEquals(JPlagOptions.DEFAULT_TOKEN_CACHE_AGE, options.getTokenCacheAge());
+    }
+
+    @Test
+    void testCacheOptions() {
+        String directory = buildArgument(CommandLineArgument.TOKEN_CACHE, "cache");
+        String size = buildArgument(CommandLineArgument.TOKEN_CACHE_SIZE, "64");
+        String age = buildArgument(CommandLineArgument.TOKEN_CACHE_AGE, "0");
+        buildOptionsFromCLI(directory, size, age, CURRENT_DIRECTORY);
+        assertEquals("cache", options.getTokenCacheDirectory());
+        assertEquals(64, options.getTokenCacheSize());
+        assertEquals(0, options.getTokenCacheAge());
+    }
+
+    @Test
+    void testNegativeSize() {
+        String size = buildArgument(CommandLineArgument.TOKEN_CACHE_SIZE, "-1");
+        buildOptionsFromCLI(size, CURRENT_DIRECTORY);
+        assertEquals(JPlagOptions.DEFAULT_TOKEN_CACHE_SIZE, options.getTokenCacheSize());
+    }
+}
@@ -0,0 +1,205 @@
+package de.jplag;
+
+import java.nio.IntBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Base class of the storages that keep the properties of the tokens column-wise instead of one object per token. Files
+ * are referenced by their index in the file dictionary of the token list as unsigned 16-bit value, and the textual
+ * representation of the tokens is stored once per token type. Token objects are only created on demand, they are copies
+ * and changing them does not change the stored tokens. Subclasses decide where the columns reside.
+ */
+/* package-private */ abstract class AbstractColumnTokenStorage implements TokenStorage {
+    /* package-private */ static final int MAXIMUM_FILES = 1 << Short.SIZE;
+    protected static final int NO_INDEX = -1;
+
+    protected int size;
+
+    private final List<String> fileNames;
+    private final Map<Integer, String> typeNames = new ConcurrentHashMap<>(); // filled while creating tokens concurrently
+    private final TokenFactory tokenFactory;
+
+    /**
+     * Creates an empty storage.
+     * @param fileNames is the file dictionary of the token list, which is used to create tokens.
+     * @param tokenFactory provides the textual representation of the types of tokens that were added as values, or null if
+     * all tokens are added as objects.
+     */
+    protected AbstractColumnTokenStorage(List<String> fileNames, TokenFactory tokenFactory) {
+        this.fileNames = fileNames;
+        this.tokenFactory = tokenFactory;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void add(Token token, int fileIndex) {
+        if (token.getIndex() != NO_INDEX || hasTokenIndices()) {
+            if (size == capacity()) {
+                grow();
+            }
+            writeTokenIndex(size, token.getIndex());
+        }
+        typeNames.computeIfAbsent(token.getType(), it -> token.toString());
+        add(token.getType(), fileIndex, token.getLine(), token.getColumn(), token.getLength());
+    }
+
+    /**
+     * Appends a token given by its values.
+     * @param type is the token type.
+     * @param fileIndex is the index of the file of the token in the file dictionary of the token list.
+     * @param line is the line of the token.
+     * @param column is the column of the token.
+     * @param length is the length of the token.
+     */
+    void add(int type, int fileIndex, int line, int column, int length) {
+        if (fileIndex >= MAXIMUM_FILES) {
+            throw new IllegalStateException("Cannot store tokens of more than " + MAXIMUM_FILES + " files column-wise!");
+        }
+        if (size == capacity()) {
+            grow();
+        }
+        write(size, type, fileIndex, line, column, length);
+        size++;
+    }
+
+    /**
+     * Sets the textual representation of token types, which is used for tokens that were not added as objects.
+     * @param typeNames maps token types to their textual representation.
+     */
+    protected void putTypeNames(Map<Integer, String> typeNames) {
+        this.typeNames.putAll(typeNames);
+    }
+
+    /**
+     * @return whether tokens can be added as values, which requires a token factory.
+     */
+    boolean hasTokenFactory() {
+        return tokenFactory != null;
+    }
+
+    @Override
+    public Token get(int index) {
+        checkIndex(index);
+        return new ColumnToken(this, index);
+    }
+
+    @Override
+    public int getType(int index) {
+        checkIndex(index);
+        return type(index);
+    }
+
+    @Override
+    public int getFileIndex(int index) {
+        checkIndex(index);
+        return fileIndex(index);
+    }
+
+    @Override
+    public int getLine(int index) {
+        checkIndex(index);
+        return line(index);
+    }
+
+    @Override
+    public int getColumn(int index) {
+        checkIndex(index);
+        return column(index);
+    }
+
+    @Override
+    public int getLength(int index) {
+        checkIndex(index);
+        return length(index);
+    }
+
+    /**
+     * @return a read-only view on the types of the stored tokens, which does not reflect tokens added later.
+     */
+    abstract IntBuffer getTypes();
+
+    /**
+     * @return the number of tokens that fit into the columns without growing them.
+     */
+    protected abstract int capacity();
+
+    /**
+     * Grows the columns, which keeps the stored tokens.
+     */
+    protected abstract void grow();
+
+    /**
+     * Writes the values of a token at the given position, which is smaller than the capacity.
+     */
+    protected abstract void write(int position, int type, int fileIndex, int line, int column, int length);
+
+    /**
+     * @return whether a column for the token indices exists.
+     */
+    protected abstract boolean hasTokenIndices();
+
+    /**
+     * Writes a token index at the given position, which is smaller than the capacity. Creates the column of token indices
+     * if necessary, in which all other positions are {@link #NO_INDEX}.
+     */
+    protected abstract void writeTokenIndex(int position, int tokenIndex);
+
+    protected abstract int tokenIndex(int position);
+
+    protected abstract int type(int position);
+
+    protected abstract int fileIndex(int position);
+
+    protected abstract int line(int position);
+
+    protected abstract int column(int position);
+
+    protected abstract int length(int position);
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) { // the columns are larger than the number of tokens
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + size + " tokens");
+        }
+    }
+
+    /**
+     * Token that is created on demand from the columns. Tokens created for the same position of the same storage are equal.
+     */
+    private static final class ColumnToken extends Token {
+        private final AbstractColumnTokenStorage storage;
+        private final int position;
+
+        ColumnToken(AbstractColumnTokenStorage storage, int position) {
+            super(storage.type(position), storage.fileNames.get(storage.fileIndex(position)), storage.line(position), storage.column(position),
+                    storage.length(position));
+            this.storage = storage;
+            this.position = position;
+        }
+
+        @Override
+        public int getIndex() {
+            return storage.hasTokenIndices() ? storage.tokenIndex(position) : NO_INDEX;
+        }
+
+        @Override
+        protected String type2string() {
+            return storage.typeNames.computeIfAbsent(type, it -> storage.tokenFactory.createToken(it, "", 1, 0, 0).toString());
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof ColumnToken token && token.storage == storage && token.position == position;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(storage) + position;
+        }
+    }
+}
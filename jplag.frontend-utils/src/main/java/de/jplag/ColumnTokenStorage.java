@@ -0,0 +1,107 @@
+package de.jplag;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Stores the properties of the tokens column-wise in primitive arrays instead of one object per token, which takes less
+ * than half of the memory and allows scanning a single property sequentially.
+ */
+/* package-private */ final class ColumnTokenStorage extends AbstractColumnTokenStorage {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int[] types = new int[INITIAL_CAPACITY];
+    private int[] lines = new int[INITIAL_CAPACITY];
+    private int[] columns = new int[INITIAL_CAPACITY];
+    private int[] lengths = new int[INITIAL_CAPACITY];
+    private short[] fileIndices = new short[INITIAL_CAPACITY];
+    private int[] indices; // only used by frontends that assign token indices, see Token#getIndex()
+
+    /**
+     * Creates an empty storage.
+     * @param fileNames is the file dictionary of the token list, which is used to create tokens.
+     * @param tokenFactory provides the textual representation of the types of tokens that were added as values, or null if
+     * all tokens are added as objects.
+     */
+    ColumnTokenStorage(List<String> fileNames, TokenFactory tokenFactory) {
+        super(fileNames, tokenFactory);
+    }
+
+    @Override
+    IntBuffer getTypes() {
+        return IntBuffer.wrap(types, 0, size).slice().asReadOnlyBuffer();
+    }
+
+    @Override
+    protected int capacity() {
+        return types.length;
+    }
+
+    @Override
+    protected void grow() {
+        int capacity = types.length * 2;
+        types = Arrays.copyOf(types, capacity);
+        lines = Arrays.copyOf(lines, capacity);
+        columns = Arrays.copyOf(columns, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        fileIndices = Arrays.copyOf(fileIndices, capacity);
+        if (indices != null) {
+            indices = Arrays.copyOf(indices, capacity);
+            Arrays.fill(indices, size, capacity, NO_INDEX);
+        }
+    }
+
+    @Override
+    protected void write(int position, int type, int fileIndex, int line, int column, int length) {
+        types[position] = type;
+        lines[position] = line;
+        columns[position] = column;
+        lengths[position] = length;
+        fileIndices[position] = (short) fileIndex;
+    }
+
+    @Override
+    protected boolean hasTokenIndices() {
+        return indices != null;
+    }
+
+    @Override
+    protected void writeTokenIndex(int position, int tokenIndex) {
+        if (indices == null) {
+            indices = new int[types.length];
+            Arrays.fill(indices, NO_INDEX);
+        }
+        indices[position] = tokenIndex;
+    }
+
+    @Override
+    protected int tokenIndex(int position) {
+        return indices[position];
+    }
+
+    @Override
+    protected int type(int position) {
+        return types[position];
+    }
+
+    @Override
+    protected int fileIndex(int position) {
+        return Short.toUnsignedInt(fileIndices[position]);
+    }
+
+    @Override
+    protected int line(int position) {
+        return lines[position];
+    }
+
+    @Override
+    protected int column(int position) {
+        return columns[position];
+    }
+
+    @Override
+    protected int length(int position) {
+        return lengths[position];
+    }
+}
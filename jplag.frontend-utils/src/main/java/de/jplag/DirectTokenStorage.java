@@ -0,0 +1,205 @@
+package de.jplag;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores the properties of the tokens column-wise in direct buffers, which reside outside of the Java heap. Thus, the
+ * tokens neither count towards the maximum heap size nor have to be traced by the garbage collector. The memory of a
+ * storage is released when the storage becomes unreachable.
+ * <p>
+ * A storage can also use packed columns, which are the columns of a fixed number of tokens in a single buffer, for
+ * example a memory-mapped file. The packed columns are the types, lines, columns and lengths as 32-bit values, the
+ * optional token indices as 32-bit values, and the file indices as 16-bit values, each in the byte order of the buffer.
+ * </p>
+ */
+/* package-private */ final class DirectTokenStorage extends AbstractColumnTokenStorage {
+    private static final int MINIMUM_CAPACITY = 64;
+
+    private IntBuffer types;
+    private IntBuffer lines;
+    private IntBuffer columns;
+    private IntBuffer lengths;
+    private ShortBuffer fileIndices;
+    private IntBuffer indices; // only used by frontends that assign token indices, see Token#getIndex()
+
+    /**
+     * Creates an empty storage.
+     * @param fileNames is the file dictionary of the token list, which is used to create tokens.
+     * @param tokenFactory provides the textual representation of the types of tokens that were added as values, or null if
+     * all tokens are added as objects.
+     * @param capacity is the expected number of tokens, more tokens let the storage grow.
+     */
+    DirectTokenStorage(List<String> fileNames, TokenFactory tokenFactory, int capacity) {
+        super(fileNames, tokenFactory);
+        int initialCapacity = Math.max(capacity, MINIMUM_CAPACITY);
+        types = allocateInts(initialCapacity);
+        lines = allocateInts(initialCapacity);
+        columns = allocateInts(initialCapacity);
+        lengths = allocateInts(initialCapacity);
+        fileIndices = allocateShorts(initialCapacity);
+    }
+
+    /**
+     * Creates a storage on packed columns, which are not copied. As they have no spare capacity, adding tokens copies them
+     * to new direct buffers first, thus read-only columns are never written.
+     * @param fileNames is the file dictionary of the token list, which is used to create tokens.
+     * @param typeNames maps the token types to their textual representation.
+     * @param packed contains the packed columns from its position on.
+     * @param size is the number of tokens.
+     * @param withTokenIndices determines whether the packed columns contain token indices.
+     */
+    DirectTokenStorage(List<String> fileNames, Map<Integer, String> typeNames, ByteBuffer packed, int size, boolean withTokenIndices) {
+        super(fileNames, null);
+        putTypeNames(typeNames);
+        this.size = size;
+        int offset = packed.position();
+        types = intColumn(packed, offset, size);
+        lines = intColumn(packed, offset += size * Integer.BYTES, size);
+        columns = intColumn(packed, offset += size * Integer.BYTES, size);
+        lengths = intColumn(packed, offset += size * Integer.BYTES, size);
+        if (withTokenIndices) {
+            indices = intColumn(packed, offset += size * Integer.BYTES, size);
+        }
+        fileIndices = packed.slice(offset + size * Integer.BYTES, size * Short.BYTES).order(packed.order()).asShortBuffer();
+    }
+
+    /**
+     * @param size is the number of tokens.
+     * @param withTokenIndices determines whether the token indices are included.
+     * @return the number of bytes of the packed columns.
+     */
+    static long packedSize(int size, boolean withTokenIndices) {
+        return (long) size * ((withTokenIndices ? 5 : 4) * Integer.BYTES + Short.BYTES);
+    }
+
+    /**
+     * Writes the columns of all tokens of a storage packed into a buffer, starting at its position.
+     * @param source is the storage of the tokens.
+     * @param withTokenIndices determines whether the token indices are included.
+     * @param target is the buffer, whose position is moved behind the packed columns.
+     */
+    static void pack(TokenStorage source, boolean withTokenIndices, ByteBuffer target) {
+        int size = source.size();
+        for (int index = 0; index < size; index++) {
+            target.putInt(source.getType(index));
+        }
+        for (int index = 0; index < size; index++) {
+            target.putInt(source.getLine(index));
+        }
+        for (int index = 0; index < size; index++) {
+            target.putInt(source.getColumn(index));
+        }
+        for (int index = 0; index < size; index++) {
+            target.putInt(source.getLength(index));
+        }
+        if (withTokenIndices) {
+            for (int index = 0; index < size; index++) {
+                target.putInt(source.get(index).getIndex());
+            }
+        }
+        for (int index = 0; index < size; index++) {
+            target.putShort((short) source.getFileIndex(index));
+        }
+    }
+
+    @Override
+    IntBuffer getTypes() {
+        return types.slice(0, size).asReadOnlyBuffer();
+    }
+
+    @Override
+    protected int capacity() {
+        return types.capacity();
+    }
+
+    @Override
+    protected void grow() {
+        int capacity = Math.max(types.capacity() * 2, MINIMUM_CAPACITY);
+        types = allocateInts(capacity).put(0, types, 0, size);
+        lines = allocateInts(capacity).put(0, lines, 0, size);
+        columns = allocateInts(capacity).put(0, columns, 0, size);
+        lengths = allocateInts(capacity).put(0, lengths, 0, size);
+        fileIndices = allocateShorts(capacity).put(0, fileIndices, 0, size);
+        if (indices != null) {
+            IntBuffer grown = allocateInts(capacity).put(0, indices, 0, size);
+            fill(grown, size);
+            indices = grown;
+        }
+    }
+
+    @Override
+    protected void write(int position, int type, int fileIndex, int line, int column, int length) {
+        types.put(position, type);
+        lines.put(position, line);
+        columns.put(position, column);
+        lengths.put(position, length);
+        fileIndices.put(position, (short) fileIndex);
+    }
+
+    @Override
+    protected boolean hasTokenIndices() {
+        return indices != null;
+    }
+
+    @Override
+    protected void writeTokenIndex(int position, int tokenIndex) {
+        if (indices == null) {
+            indices = allocateInts(types.capacity());
+            fill(indices, 0);
+        }
+        indices.put(position, tokenIndex);
+    }
+
+    @Override
+    protected int tokenIndex(int position) {
+        return indices.get(position);
+    }
+
+    @Override
+    protected int type(int position) {
+        return types.get(position);
+    }
+
+    @Override
+    protected int fileIndex(int position) {
+        return Short.toUnsignedInt(fileIndices.get(position));
+    }
+
+    @Override
+    protected int line(int position) {
+        return lines.get(position);
+    }
+
+    @Override
+    protected int column(int position) {
+        return columns.get(position);
+    }
+
+    @Override
+    protected int length(int position) {
+        return lengths.get(position);
+    }
+
+    private static IntBuffer intColumn(ByteBuffer packed, int offset, int size) {
+        return packed.slice(offset, size * Integer.BYTES).order(packed.order()).asIntBuffer();
+    }
+
+    private static IntBuffer allocateInts(int capacity) {
+        return ByteBuffer.allocateDirect(capacity * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    private static ShortBuffer allocateShorts(int capacity) {
+        return ByteBuffer.allocateDirect(capacity * Short.BYTES).order(ByteOrder.nativeOrder()).asShortBuffer();
+    }
+
+    private static void fill(IntBuffer buffer, int from) {
+        for (int position = from; position < buffer.capacity(); position++) {
+            buffer.put(position, NO_INDEX);
+        }
+    }
+}
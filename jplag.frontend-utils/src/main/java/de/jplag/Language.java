@@ -59,4 +59,22 @@ public interface Language {
      * Number of defined tokens in the scanner of the language.
      */
     int numberOfTokens();
+
+    /**
+     * Determines whether the token types of a file only depend on its content. Otherwise, the tokens of a file cannot be
+     * reused in another run.
+     */
+    default boolean hasStableTokenTypes() {
+        return true;
+    }
+
+    /**
+     * Lets this instance share the state of another instance of the same run that the token types depend on, which is
+     * required for concurrent parsing if the token types are not stable (see {@link #hasStableTokenTypes()}). Called on
+     * each further instance of a run, before it parses anything.
+     * @param language is the first instance of the language in the same run.
+     */
+    default void shareStateWith(Language language) {
+        // most languages have no such state
+    }
 }
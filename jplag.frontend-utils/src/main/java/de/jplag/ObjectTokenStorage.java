@@ -0,0 +1,60 @@
+package de.jplag;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Stores the token objects created by the frontends as they are, next to the file index of each token.
+ */
+/* package-private */ final class ObjectTokenStorage implements TokenStorage {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final List<Token> tokens = new ArrayList<>();
+    private int[] fileIndices = new int[INITIAL_CAPACITY];
+
+    @Override
+    public int size() {
+        return tokens.size();
+    }
+
+    @Override
+    public void add(Token token, int fileIndex) {
+        if (tokens.size() == fileIndices.length) {
+            fileIndices = Arrays.copyOf(fileIndices, fileIndices.length * 2);
+        }
+        fileIndices[tokens.size()] = fileIndex;
+        tokens.add(token);
+    }
+
+    @Override
+    public Token get(int index) {
+        return tokens.get(index);
+    }
+
+    @Override
+    public int getType(int index) {
+        return tokens.get(index).getType();
+    }
+
+    @Override
+    public int getFileIndex(int index) {
+        return fileIndices[Objects.checkIndex(index, tokens.size())]; // the array is larger than the number of tokens
+    }
+
+    @Override
+    public int getLine(int index) {
+        return tokens.get(index).getLine();
+    }
+
+    @Override
+    public int getColumn(int index) {
+        return tokens.get(index).getColumn();
+    }
+
+    @Override
+    public int getLength(int index) {
+        return tokens.get(index).getLength();
+    }
+}
@@ -0,0 +1,20 @@
+package de.jplag;
+
+/**
+ * Creates the token objects of a frontend, usually a reference to the constructor of its token class. Token lists that
+ * are filled through a {@link TokenSink} use it to create tokens on demand.
+ */
+@FunctionalInterface
+public interface TokenFactory {
+
+    /**
+     * Creates a token.
+     * @param type is the token type.
+     * @param file is the name of the source code file.
+     * @param line is the line index in the source code where the token resides.
+     * @param column is the column index, meaning where the token starts in the line.
+     * @param length is the length of the token in the source code.
+     * @return the token.
+     */
+    Token createToken(int type, String file, int line, int column, int length);
+}
@@ -2,29 +2,67 @@ package de.jplag;
 
 import static java.util.stream.Collectors.toList;
 
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.IntStream;
 
 /**
- * List of tokens. Allows random access to individual tokens. Contains a hash map for token hashes.
+ * List of tokens. Allows random access to individual tokens.
+ * <p>
+ * By default, the list keeps the token objects of the frontend. A column-wise list stores the properties of the tokens
+ * in primitive arrays instead and creates token objects only on demand, see {@link #toColumnar()}. Consumers that only
+ * need single properties, such as the types, should use the property accessors like {@link #getType(int)}, which do not
+ * create token objects. Column-wise lists may also reside outside of the Java heap, see {@link #toOffHeap()}.
+ * </p>
+ * <p>
+ * Each list has a file dictionary, which contains the name of each file of its tokens once. Tokens refer to their file
+ * by its index in the dictionary, see {@link #getFileIndex(int)} and {@link #getFileNames()}.
+ * </p>
+ * <p>
+ * A list created with a {@link TokenFactory} is column-wise from the start and is a {@link TokenSink}, thus frontends
+ * can add their tokens as values without creating token objects.
+ * </p>
  */
-public class TokenList {
-    private final List<Token> tokens;
-    TokenHashMap tokenHashes = null;
-    int hashLength = -1;
+public class TokenList implements TokenSink {
+    private final List<String> fileNames = new ArrayList<>();
+    private final Map<String, Integer> fileIndices = new HashMap<>();
+    private final TokenStorage storage;
 
     /**
      * Creates an empty token list.
      */
     public TokenList() {
-        tokens = new ArrayList<>();
+        this(fileNames -> new ObjectTokenStorage());
+    }
+
+    /**
+     * Creates an empty column-wise token list, which accepts tokens as values.
+     * @param tokenFactory creates the tokens of the frontend, which is used to create tokens on demand.
+     * @see TokenSink
+     */
+    public TokenList(TokenFactory tokenFactory) {
+        this(fileNames -> new ColumnTokenStorage(fileNames, tokenFactory));
+    }
+
+    /**
+     * Creates an empty token list with the given storage.
+     * @param storageFactory creates the storage from the file dictionary.
+     */
+    private TokenList(Function<List<String>, TokenStorage> storageFactory) {
+        storage = storageFactory.apply(Collections.unmodifiableList(fileNames));
     }
 
     /**
      * @return the number of tokens in the list.
      */
     public final int size() {
-        return tokens.size();
+        return storage.size();
     }
 
     /**
@@ -32,16 +70,23 @@ public class TokenList {
      * @param token is the token to add.
      */
     public final void addToken(Token token) {
-        if (tokens.size() > 0) {
-            Token lastToken = tokens.get(tokens.size() - 1);
-            if (lastToken.getFile().equals(token.getFile())) {
-                token.setFile(lastToken.getFile()); // To save memory ...
-            }
-            if (token.getLine() < lastToken.getLine() && (token.getFile().equals(lastToken.getFile()))) {
-                token.setLine(lastToken.getLine()); // just to make sure
-            }
+        int fileIndex = indexOfFile(token.getFile());
+        token.setFile(fileNames.get(fileIndex)); // To save memory ...
+        token.setLine(validLine(token.getLine(), fileIndex));
+        storage.add(token, fileIndex);
+    }
+
+    /**
+     * Adds a token given by its values to a list that was created with a {@link TokenFactory}.
+     * @throws IllegalStateException if the list was not created with a token factory.
+     */
+    @Override
+    public final void addToken(int type, String file, int line, int column, int length) {
+        if (!(storage instanceof AbstractColumnTokenStorage columns) || !columns.hasTokenFactory()) {
+            throw new IllegalStateException("Only token lists created with a token factory accept tokens as values!");
         }
-        tokens.add(token);
+        int fileIndex = indexOfFile(file);
+        columns.add(type, fileIndex, validLine(line > 0 ? line : 1, fileIndex), column, length); // like the token constructor
     }
 
     /**
@@ -49,7 +94,11 @@ public class TokenList {
      * @return all tokens.
      */
     public Iterable<Token> allTokens() {
-        return new ArrayList<>(tokens);
+        if (storage instanceof ObjectTokenStorage) {
+            return IntStream.range(0, storage.size()).mapToObj(storage::get).collect(toList()); // a copy, like before
+        }
+        int size = storage.size();
+        return () -> IntStream.range(0, size).mapToObj(storage::get).iterator(); // creates the tokens while iterating
     }
 
     /**
@@ -59,19 +108,211 @@ public class TokenList {
      * @throws IllegalArgumentException if the index is out of bounds.
      */
     public Token getToken(int index) {
-        if (index < 0 || index >= tokens.size()) {
-            throw new IllegalArgumentException("Cannot access token with index " + index + ", there are only " + tokens.size() + " tokens!");
+        if (index < 0 || index >= storage.size()) {
+            throw new IllegalArgumentException("Cannot access token with index " + index + ", there are only " + storage.size() + " tokens!");
+        }
+        return storage.get(index);
+    }
+
+    /**
+     * @param index is the token index.
+     * @return the type of the token at the given index.
+     * @throws IndexOutOfBoundsException if the index is out of bounds.
+     */
+    public int getType(int index) {
+        return storage.getType(index);
+    }
+
+    /**
+     * @param index is the token index.
+     * @return the name of the file of the token at the given index.
+     * @throws IndexOutOfBoundsException if the index is out of bounds.
+     */
+    public String getFile(int index) {
+        return fileNames.get(storage.getFileIndex(index));
+    }
+
+    /**
+     * @param index is the token index.
+     * @return the index of the file of the token at the given index in the file dictionary.
+     * @throws IndexOutOfBoundsException if the index is out of bounds.
+     */
+    public int getFileIndex(int index) {
+        return storage.getFileIndex(index);
+    }
+
+    /**
+     * @return the file dictionary, which contains the names of the files of the tokens in the order of their first token.
+     */
+    public List<String> getFileNames() {
+        return Collections.unmodifiableList(fileNames);
+    }
+
+    /**
+     * @param index is the token index.
+     * @return the line of the token at the given index.
+     * @throws IndexOutOfBoundsException if the index is out of bounds.
+     */
+    public int getLine(int index) {
+        return storage.getLine(index);
+    }
+
+    /**
+     * @param index is the token index.
+     * @return the column of the token at the given index.
+     * @throws IndexOutOfBoundsException if the index is out of bounds.
+     */
+    public int getColumn(int index) {
+        return storage.getColumn(index);
+    }
+
+    /**
+     * @param index is the token index.
+     * @return the length of the token at the given index.
+     * @throws IndexOutOfBoundsException if the index is out of bounds.
+     */
+    public int getLength(int index) {
+        return storage.getLength(index);
+    }
+
+    /**
+     * Returns the index of a file in the file dictionary, which is added if necessary.
+     */
+    private int indexOfFile(String file) {
+        int size = storage.size();
+        if (size > 0 && fileNames.get(storage.getFileIndex(size - 1)) == file) { // frontends usually pass the same instance
+            return storage.getFileIndex(size - 1);
+        }
+        return fileIndices.computeIfAbsent(file, it -> {
+            fileNames.add(it);
+            return fileNames.size() - 1;
+        });
+    }
+
+    /**
+     * Ensures that the lines of the tokens of a file do not decrease.
+     */
+    private int validLine(int line, int fileIndex) {
+        int size = storage.size();
+        if (size > 0 && storage.getFileIndex(size - 1) == fileIndex) {
+            return Math.max(line, storage.getLine(size - 1)); // just to make sure
+        }
+        return line;
+    }
+
+    /**
+     * Returns a read-only view on the types of all tokens, which allows scanning them without accessing the list per token.
+     * The view does not reflect tokens added later. For column-wise lists, it is backed by the stored types.
+     * @return the view, where the position of a type is the index of its token.
+     */
+    public IntBuffer getTypes() {
+        if (storage instanceof AbstractColumnTokenStorage columns) {
+            return columns.getTypes();
+        }
+        return IntBuffer.wrap(IntStream.range(0, storage.size()).map(storage::getType).toArray()).asReadOnlyBuffer();
+    }
+
+    /**
+     * @return whether the tokens are stored column-wise, either on the heap or off-heap.
+     */
+    public boolean isColumnar() {
+        return storage instanceof AbstractColumnTokenStorage;
+    }
+
+    /**
+     * @return whether the tokens are stored off-heap.
+     */
+    public boolean isOffHeap() {
+        return storage instanceof DirectTokenStorage;
+    }
+
+    /**
+     * Creates a copy of this list that stores the tokens column-wise, which needs considerably less memory. Tokens of the
+     * copy are created on demand, thus changing them does not change the list, and the same token is not identical but only
+     * equal across accesses. Lists with tokens of more than 65536 files cannot be stored column-wise.
+     * @return the column-wise copy, or this list if it is already column-wise or has too many files.
+     */
+    public TokenList toColumnar() {
+        if (isColumnar() || fileNames.size() > AbstractColumnTokenStorage.MAXIMUM_FILES) {
+            return this;
+        }
+        return copyTo(new TokenList(fileNames -> new ColumnTokenStorage(fileNames, null)));
+    }
+
+    /**
+     * Creates a copy of this list that stores the tokens column-wise outside of the Java heap, thus they neither count
+     * towards the maximum heap size nor add to the work of the garbage collector. The memory is released when the copy
+     * becomes unreachable. Otherwise, the copy behaves like a column-wise copy, see {@link #toColumnar()}.
+     * @return the off-heap copy, or this list if it is already off-heap or has too many files.
+     */
+    public TokenList toOffHeap() {
+        if (isOffHeap() || fileNames.size() > AbstractColumnTokenStorage.MAXIMUM_FILES) {
+            return this;
+        }
+        return copyTo(new TokenList(fileNames -> new DirectTokenStorage(fileNames, null, size())));
+    }
+
+    /**
+     * Creates a list on packed columns, such as a memory-mapped file, which are not copied. The list is off-heap.
+     * @param fileNames is the file dictionary of the tokens.
+     * @param typeNames maps the token types to their textual representation.
+     * @param packed contains the packed columns from its position on, see {@link #packColumns(boolean, ByteBuffer)}.
+     * @param size is the number of tokens.
+     * @param withTokenIndices determines whether the packed columns contain token indices.
+     * @return the list.
+     */
+    /* package-private */ static TokenList ofPackedColumns(List<String> fileNames, Map<Integer, String> typeNames, ByteBuffer packed, int size,
+            boolean withTokenIndices) {
+        TokenList tokenList = new TokenList(names -> new DirectTokenStorage(names, typeNames, packed, size, withTokenIndices));
+        for (String file : fileNames) {
+            tokenList.fileIndices.put(file, tokenList.fileNames.size());
+            tokenList.fileNames.add(file);
+        }
+        return tokenList;
+    }
+
+    /**
+     * Writes the properties of all tokens as packed columns.
+     * @param withTokenIndices determines whether the token indices are included.
+     * @param target is the buffer, whose position is moved behind the packed columns.
+     * @see #packedSize(boolean)
+     */
+    /* package-private */ void packColumns(boolean withTokenIndices, ByteBuffer target) {
+        DirectTokenStorage.pack(storage, withTokenIndices, target);
+    }
+
+    /**
+     * @param withTokenIndices determines whether the token indices are included.
+     * @return the number of bytes of the packed columns of all tokens.
+     */
+    /* package-private */ long packedSize(boolean withTokenIndices) {
+        return DirectTokenStorage.packedSize(storage.size(), withTokenIndices);
+    }
+
+    /**
+     * @return whether any token has an index, see {@link Token#getIndex()}.
+     */
+    /* package-private */ boolean hasTokenIndices() {
+        if (storage instanceof AbstractColumnTokenStorage columns) {
+            return columns.hasTokenIndices();
+        }
+        return IntStream.range(0, storage.size()).anyMatch(index -> storage.get(index).getIndex() != AbstractColumnTokenStorage.NO_INDEX);
+    }
+
+    private TokenList copyTo(TokenList copy) {
+        for (int index = 0; index < size(); index++) {
+            copy.addToken(storage.get(index));
         }
-        return tokens.get(index);
+        return copy;
     }
 
     @Override
     public final String toString() {
         try {
-            List<String> tokenStrings = tokens.stream().map(Token::toString).collect(toList());
+            List<String> tokenStrings = IntStream.range(0, size()).mapToObj(storage::get).map(Token::toString).collect(toList());
             return String.join(System.lineSeparator(), tokenStrings);
         } catch (OutOfMemoryError exception) {
-            return "Token list to large for output: " + tokens.size() + " Tokens";
+            return "Token list to large for output: " + size() + " Tokens";
         }
     }
 }
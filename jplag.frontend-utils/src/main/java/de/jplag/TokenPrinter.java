@@ -54,27 +54,32 @@ public final class TokenPrinter {
     }
 
     /**
-     * Creates a string representation of a collection of files line by line and adds the tokens under the lines.
+     * Creates a string representation of a collection of files line by line and adds the tokens under the lines. The files
+     * of the tokens are resolved through the file dictionary of the token list.
      * @param tokens is the set of tokens parsed from the files.
      * @param files are the parsed files.
+     * @param root is the root of the submission, the file names of the tokens are relative to it.
      * @return the string representation.
      */
     public static String printTokens(TokenList tokens, Collection<File> files, File root) {
-        Map<String, List<String>> filesToLines = readFiles(files);
+        List<List<String>> linesPerFile = readFiles(tokens.getFileNames(), files, root);
         StringBuilder builder = new StringBuilder();
         int lineIndex = 0;
         int columnIndex = 1;
-        String file = null; // no file yet
+        int fileIndex = -1; // no file yet
+        List<String> currentFile = null;
         String currentLine = null;
 
-        for (Token token : tokens.allTokens()) {
+        for (int index = 0; index < tokens.size(); index++) {
+            Token token = tokens.getToken(index);
             // New code file:
-            if (!token.getFile().equals(file)) {
-                if (file != null) {
+            if (tokens.getFileIndex(index) != fileIndex) {
+                if (fileIndex != -1) {
                     builder.append(System.lineSeparator());
                 }
-                file = token.getFile();
-                builder.append(file);
+                fileIndex = tokens.getFileIndex(index);
+                currentFile = linesPerFile.get(fileIndex);
+                builder.append(tokens.getFileNames().get(fileIndex));
                 lineIndex = 0;
             }
 
@@ -83,8 +88,7 @@ public final class TokenPrinter {
                 lineIndex = token.getLine();
                 columnIndex = 1;
 
-                String fileName = token.getFile().isEmpty() ? root.getName() : token.getFile();
-                currentLine = filesToLines.get(fileName).get(lineIndex - 1);
+                currentLine = currentFile.get(lineIndex - 1);
 
                 appendCodeLinePrefix(builder, lineIndex);
                 appendCodeLine(builder, currentLine);
@@ -178,10 +182,22 @@ public final class TokenPrinter {
     }
 
     /**
-     * Turns a list of files into a map which maps the file names to a list of the contained lines of that file.
+     * Reads the lines of each file of a file dictionary. The names are resolved against the given files first and against
+     * the root otherwise.
+     * @return the lines of each file, indexed like the file dictionary.
      */
-    private static Map<String, List<String>> readFiles(Collection<File> allFiles) {
-        return allFiles.stream().collect(toMap(File::getName, TokenPrinter::linesFromFile));
+    private static List<List<String>> readFiles(List<String> fileNames, Collection<File> allFiles, File root) {
+        Map<String, File> filesByName = allFiles.stream().collect(toMap(file -> relativeName(file, root), file -> file, (first, second) -> first));
+        return fileNames.stream().map(name -> filesByName.getOrDefault(name, name.isEmpty() ? root : new File(root, name)))
+                .map(TokenPrinter::linesFromFile).collect(toList());
+    }
+
+    /**
+     * Returns the name of a file relative to the submission root, as used by the tokens. If the root is a single file, the
+     * name is empty.
+     */
+    private static String relativeName(File file, File root) {
+        return root.toPath().relativize(file.toPath()).toString();
     }
 
     /**
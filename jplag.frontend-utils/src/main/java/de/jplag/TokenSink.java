@@ -0,0 +1,19 @@
+package de.jplag;
+
+/**
+ * Receiver of the tokens of a frontend, which takes the properties of each token as primitive values. Frontends that
+ * write their tokens into a sink do not create a token object per token. A {@link TokenList} created with a
+ * {@link TokenFactory} is a sink that stores the values column-wise in growable arrays.
+ */
+public interface TokenSink {
+
+    /**
+     * Adds a token.
+     * @param type is the token type.
+     * @param file is the name of the source code file.
+     * @param line is the line index in the source code where the token resides. Values smaller than 1 are replaced by 1.
+     * @param column is the column index, meaning where the token starts in the line.
+     * @param length is the length of the token in the source code.
+     */
+    void addToken(int type, String file, int line, int column, int length);
+}
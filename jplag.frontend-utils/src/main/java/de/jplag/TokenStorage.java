@@ -0,0 +1,56 @@
+package de.jplag;
+
+/**
+ * Backing store of a {@link TokenList}. Next to whole tokens, it grants access to the individual properties of a token,
+ * which allows stores that do not keep token objects to answer them without creating one.
+ */
+/* package-private */ interface TokenStorage {
+
+    /**
+     * @return the number of stored tokens.
+     */
+    int size();
+
+    /**
+     * Appends a token.
+     * @param token is the token to append.
+     * @param fileIndex is the index of the file of the token in the file dictionary of the token list.
+     */
+    void add(Token token, int fileIndex);
+
+    /**
+     * @param index is the token index.
+     * @return the token at the given index, which may be created on demand.
+     */
+    Token get(int index);
+
+    /**
+     * @param index is the token index.
+     * @return the type of the token at the given index.
+     */
+    int getType(int index);
+
+    /**
+     * @param index is the token index.
+     * @return the index of the file of the token at the given index in the file dictionary of the token list.
+     */
+    int getFileIndex(int index);
+
+    /**
+     * @param index is the token index.
+     * @return the line of the token at the given index.
+     */
+    int getLine(int index);
+
+    /**
+     * @param index is the token index.
+     * @return the column of the token at the given index.
+     */
+    int getColumn(int index);
+
+    /**
+     * @param index is the token index.
+     * @return the length of the token at the given index.
+     */
+    int getLength(int index);
+}
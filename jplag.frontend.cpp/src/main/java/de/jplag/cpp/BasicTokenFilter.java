@@ -4,29 +4,36 @@ import java.util.List;
 import java.util.ListIterator;
 
 /**
- * Contains a basic algorithm for detecting tokens contained in unreachable code.
+ * Contains a basic algorithm for detecting tokens contained in unreachable code. A filter instance processes the token
+ * types one after another, thus it can filter the tokens while they are scanned.
  */
 public class BasicTokenFilter {
+    private TokenFilterState state = TokenFilterState.DEFAULT;
 
     /**
      * Applies the filtering on the provided token list.
      * @param tokenList The list that will be filtered. The contents of this parameter will be modified.
      */
     public static void applyTo(List<CPPToken> tokenList) {
-        TokenFilterState stateMachine = TokenFilterState.DEFAULT;
-
+        BasicTokenFilter filter = new BasicTokenFilter();
         ListIterator<CPPToken> iterator = tokenList.listIterator();
         while (iterator.hasNext()) {
-            var tokenType = iterator.next().getType();
-
-            stateMachine = stateMachine.nextState(tokenType);
-
-            if (stateMachine.shouldTokenBeDeleted()) {
+            if (!filter.accept(iterator.next().getType())) {
                 iterator.remove();
             }
         }
     }
 
+    /**
+     * Passes the next token to the filter.
+     * @param tokenType is the type of the next token.
+     * @return true if the token should be kept, false if it is located in dead or unreachable code.
+     */
+    public boolean accept(int tokenType) {
+        state = state.nextState(tokenType);
+        return !state.shouldTokenBeDeleted();
+    }
+
     /**
      * Represents the state of a simple state machine for C++ tokens.
      */
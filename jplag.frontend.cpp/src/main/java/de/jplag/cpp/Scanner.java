@@ -1,7 +1,6 @@
 package de.jplag.cpp;
 
 import java.io.File;
-import java.util.LinkedList;
 
 import de.jplag.AbstractParser;
 import de.jplag.ErrorConsumer;
@@ -11,7 +10,8 @@ import de.jplag.TokenList;
 public class Scanner extends AbstractParser {
     private String currentFile;
 
-    private LinkedList<CPPToken> tokenList;
+    private TokenList tokens;
+    private BasicTokenFilter filter;
     private final SourceAnalysis sourceAnalysis;
 
     private final FrontendOptions options;
@@ -27,7 +27,8 @@ public class Scanner extends AbstractParser {
     /**
      * Creates the parser.
      * @param errorConsumer is the consumer for any occurring errors.
-     * @param options optional {@link FrontendOptions} object containing options for additional steps that might improve plagiarism detection
+     * @param options optional {@link FrontendOptions} object containing options for additional steps that might improve
+     * plagiarism detection
      */
     public Scanner(ErrorConsumer errorConsumer, FrontendOptions options) {
         super(errorConsumer);
@@ -36,7 +37,8 @@ public class Scanner extends AbstractParser {
     }
 
     public TokenList scan(File directory, String[] files) {
-        tokenList = new LinkedList<>();
+        tokens = new TokenList(CPPToken::new);
+        filter = options.isBasicFilteringEnabled() ? new BasicTokenFilter() : null;
 
         if (options.isSourceAnalysisEnabled()) {
             sourceAnalysis.findUnusedVariableLines(directory, files);
@@ -49,18 +51,8 @@ public class Scanner extends AbstractParser {
             if (!CPPScanner.scanFile(directory, currentFile, this)) {
                 errors++;
             }
-            tokenList.add(new CPPToken(CPPTokenConstants.FILE_END, currentFile));
+            addToken(CPPTokenConstants.FILE_END, currentFile, 1, 0, 0);
         }
-
-        if (options.isBasicFilteringEnabled()) {
-            BasicTokenFilter.applyTo(tokenList);
-        }
-
-        var tokens = new TokenList();
-        for (CPPToken cppToken : tokenList) {
-            tokens.addToken(cppToken);
-        }
-
         return tokens;
     }
 
@@ -71,6 +63,15 @@ public class Scanner extends AbstractParser {
             return;
         }
 
-        tokenList.add(new CPPToken(type, currentFile, token.beginLine, token.beginColumn, length));
+        addToken(type, currentFile, token.beginLine, token.beginColumn, length);
+    }
+
+    /**
+     * Adds a token unless the basic filtering detects that it is located in unreachable code.
+     */
+    private void addToken(int type, String file, int line, int column, int length) {
+        if (filter == null || filter.accept(type)) {
+            tokens.addToken(type, file, line, column, length);
+        }
     }
 }
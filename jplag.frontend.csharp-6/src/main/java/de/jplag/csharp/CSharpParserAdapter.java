@@ -41,13 +41,13 @@ public class CSharpParserAdapter extends AbstractParser {
      * @return the list of parsed tokens.
      */
     public TokenList parse(File directory, List<String> fileNames) {
-        tokens = new TokenList();
+        tokens = new TokenList(CSharpToken::new);
         errors = 0;
         for (String fileName : fileNames) {
             if (!parseFile(directory, fileName)) {
                 errors++;
             }
-            tokens.addToken(new CSharpToken(CSharpTokenConstants.FILE_END, fileName, -1, -1, -1));
+            tokens.addToken(CSharpTokenConstants.FILE_END, fileName, -1, -1, -1);
         }
         return tokens;
     }
@@ -79,6 +79,6 @@ public class CSharpParserAdapter extends AbstractParser {
     }
 
     /* package-private */ void addToken(int type, int line, int column, int length) {
-        tokens.addToken(new CSharpToken(type, currentFile, line, column, length));
+        tokens.addToken(type, currentFile, line, column, length);
     }
 }
@@ -21,7 +21,7 @@ public class Parser extends AbstractParser {
     }
 
     public TokenList parse(File directory, String[] files) {
-        tokens = new TokenList();
+        tokens = new TokenList(JavaToken::new);
         errors = 0;
         var pathedFiles = Arrays.stream(files).map(it -> new File(directory, it)).collect(toList());
         errors += new JavacAdapter().parseFiles(directory, pathedFiles, this);
@@ -29,7 +29,7 @@ public class Parser extends AbstractParser {
     }
 
     public void add(int type, String filename, long line, long column, long length) {
-        tokens.addToken(new JavaToken(type, filename, (int) line, (int) column, (int) length));
+        tokens.addToken(type, filename, (int) line, (int) column, (int) length);
     }
 
     public void increaseErrors() {
@@ -21,7 +21,7 @@ import de.jplag.python3.grammar.Python3Parser.File_inputContext;
 
 public class Parser extends AbstractParser {
 
-    private TokenList tokens = new TokenList();
+    private TokenList tokens = new TokenList(Python3Token::new);
     private String currentFile;
 
     /**
@@ -33,14 +33,14 @@ public class Parser extends AbstractParser {
     }
 
     public TokenList parse(File directory, String[] files) {
-        tokens = new TokenList();
+        tokens = new TokenList(Python3Token::new);
         errors = 0;
         for (int i = 0; i < files.length; i++) {
             getErrorConsumer().print(null, "Parsing file " + files[i]);
             if (!parseFile(directory, files[i])) {
                 errors++;
             }
-            tokens.addToken(new Python3Token(Python3TokenConstants.FILE_END, files[i], -1, -1, -1));
+            tokens.addToken(Python3TokenConstants.FILE_END, files[i], -1, -1, -1);
         }
         return tokens;
     }
@@ -79,12 +79,11 @@ public class Parser extends AbstractParser {
     }
 
     public void add(int type, Token token) {
-        tokens.addToken(new Python3Token(type, (currentFile == null ? "null" : currentFile), token.getLine(), token.getCharPositionInLine() + 1,
-                token.getText().length()));
+        tokens.addToken(type, (currentFile == null ? "null" : currentFile), token.getLine(), token.getCharPositionInLine() + 1,
+                token.getText().length());
     }
 
     public void addEnd(int type, Token token) {
-        tokens.addToken(new Python3Token(type, (currentFile == null ? "null" : currentFile), token.getLine(),
-                tokens.getToken(tokens.size() - 1).getColumn() + 1, 0));
+        tokens.addToken(type, (currentFile == null ? "null" : currentFile), token.getLine(), tokens.getColumn(tokens.size() - 1) + 1, 0);
     }
 }
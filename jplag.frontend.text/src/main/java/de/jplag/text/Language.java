@@ -61,6 +61,18 @@ public class Language implements de.jplag.Language {
 
     @Override
     public int numberOfTokens() {
-        return parser.serial;
+        return parser.numberOfSerials();
+    }
+
+    @Override
+    public boolean hasStableTokenTypes() {
+        return false; // serials are assigned in the order in which the words occur
+    }
+
+    @Override
+    public void shareStateWith(de.jplag.Language language) {
+        if (language instanceof Language textLanguage) {
+            parser.shareTableOf(textLanguage.parser); // the serials of a run must not depend on the parsing thread
+        }
     }
 }
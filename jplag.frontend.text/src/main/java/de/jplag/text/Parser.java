@@ -2,7 +2,6 @@ package de.jplag.text;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.util.Hashtable;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,8 +17,7 @@ public class Parser extends AbstractParser {
 
     private static final Logger logger = LoggerFactory.getLogger(Parser.class);
 
-    protected Hashtable<String, Integer> table = new Hashtable<>();
-    protected int serial = 1; // 0 is FILE_END token
+    private WordTable table; // shared by all parsers of a run, see shareTableOf()
 
     private TokenList tokens;
 
@@ -33,6 +31,15 @@ public class Parser extends AbstractParser {
      */
     public Parser(ErrorConsumer errorConsumer) {
         super(errorConsumer);
+        table = new WordTable();
+    }
+
+    /**
+     * Lets this parser use the word table of another parser, thus both assign the same serial (token type) to a word.
+     * @param parser is the other parser.
+     */
+    void shareTableOf(Parser parser) {
+        table = parser.table;
     }
 
     public TokenList parse(File directory, String[] files) {
@@ -55,6 +62,26 @@ public class Parser extends AbstractParser {
         tokens.addToken(new TextToken(token.getText(), currentFile, parserToken.getLine(), parserToken.getColumn(), parserToken.getLength(), this));
     }
 
+    /**
+     * Returns the serial of a word, which is assigned on its first occurrence.
+     * @param text is the lower case word.
+     * @return the serial, which is used as token type.
+     */
+    public int serialOf(String text) {
+        int serial = table.serialOf(text);
+        if (serial == Integer.MAX_VALUE) {
+            outOfSerials();
+        }
+        return serial;
+    }
+
+    /**
+     * @return the number of assigned serials, including the FILE_END token.
+     */
+    public int numberOfSerials() {
+        return table.numberOfSerials();
+    }
+
     public void outOfSerials() {
         if (runOut)
             return;
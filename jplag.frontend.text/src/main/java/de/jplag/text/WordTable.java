@@ -0,0 +1,30 @@
+package de.jplag.text;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread-safe table that assigns the serials (token types) to the words. One table is shared by all parsers of a run,
+ * thus concurrently used parsers assign the same serial to a word.
+ */
+class WordTable {
+    private final Map<String, Integer> table = new ConcurrentHashMap<>();
+    private final AtomicInteger nextSerial = new AtomicInteger(1); // 0 is FILE_END token
+
+    /**
+     * Returns the serial of a word, which is assigned on its first occurrence.
+     * @param text is the lower case word.
+     * @return the serial, or {@link Integer#MAX_VALUE} if all serials are assigned.
+     */
+    int serialOf(String text) {
+        return table.computeIfAbsent(text, word -> nextSerial.getAndUpdate(it -> it == Integer.MAX_VALUE ? it : it + 1));
+    }
+
+    /**
+     * @return the number of assigned serials, including the FILE_END token.
+     */
+    int numberOfSerials() {
+        return nextSerial.get();
+    }
+}
@@ -0,0 +1,200 @@
+package de.jplag;
+
+import de.jplag.experimental.GenericTokenFilter;
+import de.jplag.options.JPlagOptions;
+import de.jplag.options.SimilarityMetric;
+
+/**
+ * Base class for tiling algorithms. Prepares the token sequences and marks of both submissions, so that subclasses only
+ * have to implement the tiling itself. The tokens of the submissions are never modified, thus a submission can be part
+ * of multiple concurrent comparisons.
+ */
+public abstract class AbstractTilingAlgorithm implements TilingAlgorithm {
+
+    protected final JPlagOptions options;
+
+    protected AbstractTilingAlgorithm(JPlagOptions options) {
+        this.options = options;
+    }
+
+    @Override
+    public final JPlagComparison compare(Submission firstSubmission, Submission secondSubmission) {
+        JPlagComparison comparison = swapAndCompare(firstSubmission, secondSubmission, null);
+        comparison.freeze(); // the base code comparisons of the submissions are already final
+        return comparison;
+    }
+
+    @Override
+    public final JPlagComparison compareWithBaseCode(Submission submission, Submission baseCodeSubmission) {
+        return swapAndCompare(submission, baseCodeSubmission, baseCodeSubmission);
+    }
+
+    /**
+     * Covers the common parts of two token sequences with tiles, which are added to the comparison as matches. Marked
+     * tokens must not be part of a tile, and all tokens of a new tile have to be marked.
+     * @param first is the smaller sequence.
+     * @param firstMarks are the marks of the smaller sequence.
+     * @param second is the larger sequence.
+     * @param secondMarks are the marks of the larger sequence.
+     * @param comparison is the comparison to add the matches to.
+     * @param isBaseCodeComparison specifies whether one of the sequences is the base code.
+     */
+    /* package-private */ abstract void tile(TokenSequence first, TokenMarks firstMarks, TokenSequence second, TokenMarks secondMarks,
+            JPlagComparison comparison, boolean isBaseCodeComparison);
+
+    /**
+     * Checks whether the outcome of a comparison regarding the similarity threshold is already decided, meaning the tiling
+     * can stop early. This is the case if even matching all remaining unmarked tokens cannot reach the threshold, as the
+     * comparison is discarded anyway. With {@link JPlagOptions#isSimilarityScreening()}, this is also the case if the
+     * threshold is already reached. Base code comparisons are never decided early, as they have to mark all tokens that
+     * match the base code.
+     * @param comparison is the comparison with the matches found so far.
+     * @param firstMarks are the current marks of the first sequence.
+     * @param firstSize is the size of the first sequence.
+     * @param secondMarks are the current marks of the second sequence.
+     * @param secondSize is the size of the second sequence.
+     * @return true if the tiling can stop.
+     */
+    /* package-private */ final boolean isOutcomeDecided(JPlagComparison comparison, TokenMarks firstMarks, int firstSize, TokenMarks secondMarks,
+            int secondSize) {
+        float threshold = options.getSimilarityThreshold();
+        if (threshold <= 0) {
+            return false;
+        }
+        SimilarityMetric metric = options.getSimilarityMetric();
+        if (options.isSimilarityScreening() && metric.isAboveThreshold(comparison, threshold)) {
+            return true;
+        }
+        int remainingTokens = Math.min(firstSize - firstMarks.countMarked(), secondSize - secondMarks.countMarked());
+        int attainableTokens = comparison.getNumberOfMatchedTokens() + remainingTokens;
+        return SimilarityUpperBound.withMatchedTokens(comparison.getFirstSubmission(), comparison.getSecondSubmission(), metric,
+                attainableTokens) < threshold;
+    }
+
+    private JPlagComparison swapAndCompare(Submission firstSubmission, Submission secondSubmission, Submission baseCodeSubmission) {
+        Submission smallerSubmission, largerSubmission;
+        if (firstSubmission.getTokenList().size() > secondSubmission.getTokenList().size()) {
+            smallerSubmission = secondSubmission;
+            largerSubmission = firstSubmission;
+        } else {
+            smallerSubmission = firstSubmission;
+            largerSubmission = secondSubmission;
+        }
+        return compare(smallerSubmission, largerSubmission, baseCodeSubmission);
+    }
+
+    /**
+     * Compares two submissions. FILE_END is used as pivot
+     * @param firstSubmission is the submission with the smaller sequence.
+     * @param secondSubmission is the submission with the larger sequence.
+     * @param baseCodeSubmission is the one of the submissions that is the base code, or null if this is no base code
+     * comparison.
+     * @return the comparison results.
+     */
+    private JPlagComparison compare(Submission firstSubmission, Submission secondSubmission, Submission baseCodeSubmission) {
+        // first and second refer to the list of tokens of the first and second submission:
+        TokenList first = firstSubmission.getTokenList();
+        TokenList second = secondSubmission.getTokenList();
+        int minimumTokenMatch = options.getMinimumTokenMatch(); // minimal required token match
+        boolean isBaseCodeComparison = baseCodeSubmission != null;
+
+        TokenSequence firstSequence;
+        TokenSequence secondSequence;
+        int[] firstPositions = null; // positions in the unfiltered token lists, only required if the lists are filtered
+        int[] secondPositions = null;
+        if (options.isGenericFilteringEnabled()) {
+            GenericTokenFilter tokenFilter = new GenericTokenFilter(first, second, options.getExperimentalOptions());
+            tokenFilter.filter();
+
+            first = tokenFilter.getFirst();
+            second = tokenFilter.getSecond();
+            firstSequence = new TokenSequence(first, minimumTokenMatch);
+            secondSequence = new TokenSequence(second, minimumTokenMatch);
+            firstPositions = originalPositions(first, firstSubmission.getTokenList());
+            secondPositions = originalPositions(second, secondSubmission.getTokenList());
+        } else {
+            firstSequence = firstSubmission.getTokenSequence(minimumTokenMatch);
+            secondSequence = secondSubmission.getTokenSequence(minimumTokenMatch);
+        }
+
+        // Initialize:
+        JPlagComparison comparison = new JPlagComparison(firstSubmission, secondSubmission);
+
+        if (first.size() <= minimumTokenMatch || second.size() <= minimumTokenMatch) { // <= because of pivots!
+            return comparison;
+        }
+
+        TokenMarks firstMarks = initialMarks(firstSequence, firstSubmission, firstPositions, isBaseCodeComparison);
+        TokenMarks secondMarks = initialMarks(secondSequence, secondSubmission, secondPositions, isBaseCodeComparison);
+
+        tile(firstSequence, firstMarks, secondSequence, secondMarks, comparison, isBaseCodeComparison);
+
+        if (isBaseCodeComparison) {
+            if (firstSubmission == baseCodeSubmission) {
+                secondSubmission.setBaseCodeMarks(unfilteredMarks(secondMarks, secondPositions, secondSubmission));
+            } else {
+                firstSubmission.setBaseCodeMarks(unfilteredMarks(firstMarks, firstPositions, firstSubmission));
+            }
+        }
+        return comparison;
+    }
+
+    /**
+     * Disable finding a match at separator tokens and basecode matches for non-basecode comparisons.
+     * @param sequence is the token sequence of the submission.
+     * @param submission is the submission.
+     * @param originalPositions maps the tokens to their unfiltered positions, or null if the tokens are not filtered.
+     * @param isBaseCodeComparison Whether the base code matches should be enabled for matching.
+     * @return the marks for the comparison.
+     */
+    private TokenMarks initialMarks(TokenSequence sequence, Submission submission, int[] originalPositions, boolean isBaseCodeComparison) {
+        TokenMarks marks = sequence.initialMarks();
+        TokenMarks baseCodeMarks = submission.getBaseCodeMarks();
+        if (isBaseCodeComparison || !options.hasBaseCode() || baseCodeMarks == null) {
+            return marks;
+        }
+        if (originalPositions == null) {
+            marks.markAll(baseCodeMarks);
+        } else {
+            for (int index = 0; index < originalPositions.length; index++) {
+                if (baseCodeMarks.isMarked(originalPositions[index])) {
+                    marks.mark(index);
+                }
+            }
+        }
+        return marks;
+    }
+
+    /**
+     * Converts marks of a possibly filtered token list to marks of the unfiltered token list of the submission.
+     */
+    private TokenMarks unfilteredMarks(TokenMarks marks, int[] originalPositions, Submission submission) {
+        if (originalPositions == null) {
+            return marks;
+        }
+        TokenMarks unfilteredMarks = new TokenMarks(submission.getNumberOfTokens());
+        for (int index = 0; index < originalPositions.length; index++) {
+            if (marks.isMarked(index)) {
+                unfilteredMarks.mark(originalPositions[index]);
+            }
+        }
+        return unfilteredMarks;
+    }
+
+    /**
+     * Maps the tokens of a filtered token list to their positions in the unfiltered token list. As filtering only removes
+     * tokens, the order of the remaining tokens is preserved.
+     */
+    private int[] originalPositions(TokenList filteredTokens, TokenList tokens) {
+        int[] positions = new int[filteredTokens.size()];
+        int position = 0;
+        int index = 0;
+        for (Token token : filteredTokens.allTokens()) {
+            while (!tokens.getToken(position).equals(token)) { // column-wise lists create equal instead of identical tokens
+                position++;
+            }
+            positions[index++] = position;
+        }
+        return positions;
+    }
+}
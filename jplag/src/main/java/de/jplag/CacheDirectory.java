@@ -0,0 +1,309 @@
+package de.jplag;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Directory of a persistent cache, which stores each entry in a file named by the hash of its key. Entries are written
+ * atomically, thus concurrent runs never read partial entries. Entries that were not used for a configurable age or
+ * exceed the size limit are evicted, least recently used first.
+ */
+/* package-private */ final class CacheDirectory {
+    private static final Logger logger = LoggerFactory.getLogger(CacheDirectory.class);
+
+    private static final long BYTES_PER_MEGABYTE = 1024L * 1024L;
+    private static final String VERSION_RESOURCE = "version.properties";
+    private static final String JPLAG_VERSION = loadVersion();
+
+    private final Path directory;
+    private final String entrySuffix;
+    private final String description;
+    private final long maximumSize;
+    private final long maximumAge;
+
+    /**
+     * Writes the content of an entry.
+     */
+    @FunctionalInterface
+    interface EntryWriter {
+        void write(DataOutputStream output) throws IOException;
+    }
+
+    /**
+     * Creates a cache directory, which is created on demand.
+     * @param directory is the cache directory.
+     * @param entrySuffix is the file suffix of the entries.
+     * @param description is the name of the cache in log messages.
+     * @param maximumSizeInMegabytes is the size limit of all entries.
+     * @param maximumAgeInDays is the time after which unused entries are evicted, or zero for no limit.
+     */
+    CacheDirectory(File directory, String entrySuffix, String description, int maximumSizeInMegabytes, int maximumAgeInDays) {
+        this.directory = directory.toPath();
+        this.entrySuffix = entrySuffix;
+        this.description = description;
+        maximumSize = maximumSizeInMegabytes * BYTES_PER_MEGABYTE;
+        maximumAge = TimeUnit.DAYS.toMillis(maximumAgeInDays);
+    }
+
+    /**
+     * Determines the entry of a key. Entries are distributed over subdirectories by the first two hash digits.
+     * @param key is the key, which is hashed.
+     * @return the path of the entry, which may not exist.
+     */
+    Path entryOf(String key) {
+        return entryOfHash(hash(key.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Determines the entry of a hash.
+     * @param hash is the hexadecimal hash of the key.
+     * @return the path of the entry, which may not exist.
+     */
+    Path entryOfHash(String hash) {
+        return directory.resolve(hash.substring(0, 2)).resolve(hash + entrySuffix);
+    }
+
+    /**
+     * Marks an entry as recently used, which delays its eviction.
+     * @param entry is the used entry.
+     */
+    void markAsUsed(Path entry) {
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException exception) {
+            // removed concurrently, the entry was read anyway
+        }
+    }
+
+    /**
+     * Writes an entry to a temporary file first, which then replaces the entry. Failures are logged, as a missing entry
+     * only costs performance.
+     * @param entry is the entry to write.
+     * @param writer writes the content of the entry.
+     */
+    void write(Path entry, EntryWriter writer) {
+        try {
+            writeAtomically(entry, writer);
+        } catch (IOException exception) {
+            logger.warn("Could not write " + description + " entry " + entry + ": " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Writes a file to a temporary file in the same directory first, which then replaces the file.
+     * @param file is the file to write, whose parent directories are created if necessary.
+     * @param writer writes the content of the file.
+     * @throws IOException if writing fails, the file is unchanged then.
+     */
+    static void writeAtomically(Path file, EntryWriter writer) throws IOException {
+        Path temporary = writeTemporary(file, writer);
+        try {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Writes a file like {@link #writeAtomically(Path, EntryWriter)}, but never replaces an existing file, for example one
+     * that another process created meanwhile. The file is published as a hard link, which fails atomically if the file
+     * exists. File systems without hard links fall back to checking for the file before moving it.
+     * @param file is the file to write, whose parent directories are created if necessary.
+     * @param writer writes the content of the file.
+     * @return whether the file was written.
+     * @throws IOException if writing fails, the file is unchanged then.
+     */
+    static boolean writeAtomicallyIfAbsent(Path file, EntryWriter writer) throws IOException {
+        Path temporary = writeTemporary(file, writer);
+        try {
+            Files.createLink(file, temporary);
+            return true;
+        } catch (FileAlreadyExistsException exception) {
+            return false;
+        } catch (UnsupportedOperationException | IOException exception) {
+            if (Files.exists(file)) {
+                return false;
+            }
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Writes the content of a file to a new temporary file in the same directory.
+     */
+    private static Path writeTemporary(Path file, EntryWriter writer) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temporary = Files.createTempFile(file.getParent(), "entry", ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            writer.write(output);
+        } catch (IOException | RuntimeException exception) {
+            Files.deleteIfExists(temporary);
+            throw exception;
+        }
+        return temporary;
+    }
+
+    /**
+     * Removes the entries that were not used within the maximum age. Afterwards, the least recently used entries are
+     * removed until the cache does not exceed its size limit.
+     */
+    void evict() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<Path> entries;
+        try (Stream<Path> files = Files.walk(directory)) {
+            entries = files.filter(it -> it.toString().endsWith(entrySuffix)).toList();
+        } catch (IOException exception) {
+            logger.warn("Could not read " + description + " directory: " + exception.getMessage());
+            return;
+        }
+        Map<Path, BasicFileAttributes> attributes = new HashMap<>();
+        for (Path entry : entries) {
+            try {
+                attributes.put(entry, Files.readAttributes(entry, BasicFileAttributes.class));
+            } catch (IOException exception) {
+                // removed concurrently
+            }
+        }
+        List<Path> leastRecentlyUsedFirst = new ArrayList<>(attributes.keySet());
+        leastRecentlyUsedFirst.sort(Comparator.comparing(it -> attributes.get(it).lastModifiedTime()));
+        long totalSize = attributes.values().stream().mapToLong(BasicFileAttributes::size).sum();
+        long oldestAllowed = maximumAge > 0 ? System.currentTimeMillis() - maximumAge : Long.MIN_VALUE;
+        for (Path entry : leastRecentlyUsedFirst) {
+            BasicFileAttributes entryAttributes = attributes.get(entry);
+            if (totalSize <= maximumSize && entryAttributes.lastModifiedTime().toMillis() >= oldestAllowed) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(entry);
+                totalSize -= entryAttributes.size();
+            } catch (IOException exception) {
+                logger.warn("Could not evict " + description + " entry " + entry + ": " + exception.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Identifies the versions that persisted tokens and comparisons depend on, thus entries of other versions are never
+     * reused. The frontends are released together with JPlag, thus the JPlag version covers them. As snapshot builds share
+     * a version, the fingerprint also contains the number of token types if they are stable.
+     * @param language is the language whose tokens are persisted.
+     * @return the fingerprint.
+     */
+    static String versionOf(Language language) {
+        String version = "jplag=" + JPLAG_VERSION + "|frontend=" + language.getClass().getName();
+        return language.hasStableTokenTypes() ? version + "|tokens=" + language.numberOfTokens() : version;
+    }
+
+    /**
+     * Reads the JPlag version from the resource that is filtered during the build.
+     */
+    private static String loadVersion() {
+        Properties properties = new Properties();
+        try (InputStream input = CacheDirectory.class.getResourceAsStream(VERSION_RESOURCE)) {
+            if (input != null) {
+                properties.load(input);
+            }
+        } catch (IOException exception) {
+            logger.warn("Could not read the JPlag version: " + exception.getMessage());
+        }
+        return properties.getProperty("version", "unknown");
+    }
+
+    /**
+     * Creates a SHA-256 hash, which is available on every Java platform.
+     * @param bytes are the bytes to hash.
+     * @return the hash in hexadecimal notation.
+     */
+    static String hash(byte[] bytes) {
+        return toHex(createDigest().digest(bytes));
+    }
+
+    /**
+     * @return a new SHA-256 digest for incremental hashing.
+     */
+    static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 is not supported", exception);
+        }
+    }
+
+    /**
+     * @param bytes are the bytes to convert.
+     * @return the bytes in hexadecimal notation.
+     */
+    static String toHex(byte[] bytes) {
+        StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (byte value : bytes) {
+            builder.append(Character.forDigit((value >> 4) & 0xF, 16)).append(Character.forDigit(value & 0xF, 16));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Writes a signed value in a variable-length encoding, where small absolute values (including -1, which frontends use
+     * for missing positions) take a single byte.
+     * @param output is the stream to write to.
+     * @param value is the value to write.
+     * @throws IOException if writing fails.
+     */
+    static void writeVarInt(OutputStream output, int value) throws IOException {
+        int zigZag = (value << 1) ^ (value >> 31);
+        while ((zigZag & ~0x7F) != 0) {
+            output.write((zigZag & 0x7F) | 0x80);
+            zigZag >>>= 7;
+        }
+        output.write(zigZag);
+    }
+
+    /**
+     * Reads a value written by {@link #writeVarInt(OutputStream, int)}.
+     * @param input is the stream to read from.
+     * @return the read value.
+     * @throws IOException if reading fails or the value is malformed.
+     */
+    static int readVarInt(InputStream input) throws IOException {
+        int zigZag = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            int current = input.read();
+            if (current < 0) {
+                throw new IOException("Unexpected end of entry");
+            }
+            zigZag |= (current & 0x7F) << shift;
+            if ((current & 0x80) == 0) {
+                return (zigZag >>> 1) ^ -(zigZag & 1);
+            }
+        }
+        throw new IOException("Malformed variable-length value");
+    }
+}
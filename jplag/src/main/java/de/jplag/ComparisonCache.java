@@ -0,0 +1,209 @@
+package de.jplag;
+
+import static de.jplag.CacheDirectory.readVarInt;
+import static de.jplag.CacheDirectory.writeVarInt;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.jplag.experimental.ExperimentalOptions;
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Persistent on-disk cache for the results of comparisons, which allows skipping the tiling of submission pairs that
+ * were already compared in an earlier run. Entries are addressed by a hash over the token streams of both submissions,
+ * the token stream of the base code, and all options that influence the matches, thus changed submissions or options
+ * never hit stale entries. Each entry stores the matches of one comparison, the similarities are derived from them.
+ * <p>
+ * Comparisons are only cached for languages with stable token types, as the token streams of other languages are not
+ * comparable across runs.
+ * </p>
+ */
+public class ComparisonCache {
+    private static final Logger logger = LoggerFactory.getLogger(ComparisonCache.class);
+
+    private static final int MAGIC = 0x4A504C43; // "JPLC"
+    private static final int FORMAT_VERSION = 2;
+    private static final String ENTRY_SUFFIX = ".matches";
+    private static final String NO_BASE_CODE = "none";
+
+    private final CacheDirectory directory;
+    private final String optionsFingerprint;
+    private final String version;
+    private final boolean enabled;
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    /**
+     * Creates a cache in a directory, which is created if necessary.
+     * @param directory is the cache directory.
+     * @param maximumSizeInMegabytes is the size limit of all entries.
+     * @param options are the options of the comparisons, which have to contain the language.
+     */
+    public ComparisonCache(File directory, int maximumSizeInMegabytes, JPlagOptions options) {
+        this.directory = new CacheDirectory(directory, ENTRY_SUFFIX, "comparison cache", maximumSizeInMegabytes, 0);
+        optionsFingerprint = fingerprintOf(options);
+        version = CacheDirectory.versionOf(options.getLanguage());
+        enabled = options.getLanguage().hasStableTokenTypes();
+        hits = new LongAdder();
+        misses = new LongAdder();
+    }
+
+    /**
+     * Loads the result of a comparison of two submissions, whose base code comparisons must be final.
+     * @param firstSubmission is the first submission.
+     * @param secondSubmission is the second submission.
+     * @return the cached comparison with its matches, or nothing if the comparison was not cached.
+     */
+    public Optional<JPlagComparison> load(Submission firstSubmission, Submission secondSubmission) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Path entry = entryOf(firstSubmission, secondSubmission);
+        Optional<JPlagComparison> comparison = load(entry, firstSubmission, secondSubmission);
+        if (comparison.isPresent()) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return comparison;
+    }
+
+    /**
+     * Stores the result of a comparison of two submissions.
+     * @param firstSubmission is the first submission, as passed to the tiling algorithm.
+     * @param secondSubmission is the second submission, as passed to the tiling algorithm.
+     * @param comparison is the result of the comparison, whose submissions may be swapped.
+     */
+    public void store(Submission firstSubmission, Submission secondSubmission, JPlagComparison comparison) {
+        if (!enabled) {
+            return;
+        }
+        boolean swapped = comparison.getFirstSubmission() != firstSubmission;
+        directory.write(entryOf(firstSubmission, secondSubmission), output -> {
+            output.writeInt(MAGIC);
+            output.writeInt(FORMAT_VERSION);
+            output.writeUTF(version);
+            output.writeBoolean(swapped);
+            writeVarInt(output, comparison.getMatches().size());
+            for (Match match : comparison.getMatches()) {
+                writeVarInt(output, match.getStartOfFirst());
+                writeVarInt(output, match.getStartOfSecond());
+                writeVarInt(output, match.getLength());
+            }
+        });
+    }
+
+    /**
+     * @return the number of comparisons that were loaded from the cache.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of comparisons that had to be computed.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Removes the least recently used entries until the cache does not exceed its size limit.
+     */
+    public void evict() {
+        directory.evict();
+    }
+
+    /**
+     * Restores a comparison from an entry and marks the entry as recently used. Entries whose matches do not fit the
+     * submissions are ignored.
+     */
+    private Optional<JPlagComparison> load(Path entry, Submission firstSubmission, Submission secondSubmission) {
+        if (!Files.exists(entry)) {
+            return Optional.empty();
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(entry)))) {
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION || !input.readUTF().equals(version)) {
+                return Optional.empty();
+            }
+            boolean swapped = input.readBoolean();
+            Submission first = swapped ? secondSubmission : firstSubmission;
+            Submission second = swapped ? firstSubmission : secondSubmission;
+            JPlagComparison comparison = new JPlagComparison(first, second);
+            int numberOfMatches = readVarInt(input);
+            for (int i = 0; i < numberOfMatches; i++) {
+                int startOfFirst = readVarInt(input);
+                int startOfSecond = readVarInt(input);
+                int length = readVarInt(input);
+                if (!fits(startOfFirst, length, first) || !fits(startOfSecond, length, second)) {
+                    return Optional.empty();
+                }
+                comparison.addMatch(startOfFirst, startOfSecond, length);
+            }
+            comparison.freeze();
+            directory.markAsUsed(entry);
+            return Optional.of(comparison);
+        } catch (IOException | RuntimeException exception) {
+            logger.warn("Ignoring unreadable comparison cache entry " + entry + ": " + exception.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static boolean fits(int start, int length, Submission submission) {
+        return start >= 0 && length > 0 && start + length <= submission.getNumberOfTokens();
+    }
+
+    /**
+     * Determines the entry of a comparison, which depends on the versions of JPlag and the frontend. The order of the
+     * submissions is part of the key, as the tiling algorithm orders equally long submissions by their position.
+     */
+    private Path entryOf(Submission firstSubmission, Submission secondSubmission) {
+        return directory.entryOf(String.join("|", optionsFingerprint, version, firstSubmission.getTokenStreamHash(),
+                secondSubmission.getTokenStreamHash(), baseCodeHashOf(firstSubmission), baseCodeHashOf(secondSubmission)));
+    }
+
+    /**
+     * Determines the hash of the base code a submission was compared with, which decides the tokens excluded from the
+     * comparison.
+     */
+    private static String baseCodeHashOf(Submission submission) {
+        if (!submission.hasBaseCodeMatches()) {
+            return NO_BASE_CODE;
+        }
+        JPlagComparison baseCodeComparison = submission.getBaseCodeComparison();
+        Submission baseCode = baseCodeComparison.getFirstSubmission() == submission ? baseCodeComparison.getSecondSubmission()
+                : baseCodeComparison.getFirstSubmission();
+        return baseCode.getTokenStreamHash();
+    }
+
+    /**
+     * Creates a fingerprint of all options that influence the matches. This includes the similarity threshold, as
+     * comparisons below the threshold may stop early.
+     */
+    private static String fingerprintOf(JPlagOptions options) {
+        StringBuilder fingerprint = new StringBuilder();
+        fingerprint.append(FORMAT_VERSION).append('|').append(options.getLanguage().getName());
+        fingerprint.append("|algorithm=").append(options.getComparisonAlgorithm());
+        fingerprint.append("|minimumTokenMatch=").append(options.getMinimumTokenMatch());
+        fingerprint.append("|threshold=").append(options.getSimilarityThreshold()).append(',').append(options.getSimilarityMetric());
+        fingerprint.append("|screening=").append(options.isSimilarityScreening());
+        if (options.isGenericFilteringEnabled()) {
+            ExperimentalOptions experimentalOptions = options.getExperimentalOptions();
+            fingerprint.append("|filter=").append(experimentalOptions.getGenericWindowLength()).append(',')
+                    .append(experimentalOptions.getGenericMaxInsertionLength()).append(',').append(experimentalOptions.getGenericMaxIterations())
+                    .append(',').append(experimentalOptions.getGenericWindowIncrement()).append(',')
+                    .append(experimentalOptions.getGenericWindowPadding());
+        }
+        return fingerprint.toString();
+    }
+}
@@ -0,0 +1,310 @@
+package de.jplag;
+
+import static de.jplag.CacheDirectory.readVarInt;
+import static de.jplag.CacheDirectory.writeVarInt;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import de.jplag.exceptions.CorpusException;
+
+/**
+ * Persistent store of parsed prior submissions, which replaces walking and parsing the directories of old submissions
+ * in each run. The corpus is a directory with an index and one token file per distinct token stream:
+ * <ul>
+ * <li>The index contains the metadata of the corpus (language, frontend options, and versions) and of each submission
+ * (name, original location, files, the hash of its token file, and the hash of its token types).</li>
+ * <li>Token files store the token streams in a compact binary form. They are addressed by the hash of their content,
+ * thus equal submissions share a token file.</li>
+ * </ul>
+ * Submissions are identified by their original location, thus submissions of different root directories may have the
+ * same name. Such names are disambiguated when loading. Loaded submissions are old submissions that already carry their
+ * tokens and the hash of their token types. Their files are only read when a report shows them.
+ */
+public class Corpus {
+    private static final int INDEX_MAGIC = 0x4A504349; // "JPCI"
+    private static final int TOKENS_MAGIC = 0x4A504354; // "JPCT"
+    private static final int FORMAT_VERSION = 2;
+    private static final String INDEX_FILE = "corpus.index";
+    private static final String LOCK_FILE = "corpus.lock";
+    private static final Object APPEND_LOCK = new Object(); // file locks are held by the whole process
+    private static final String TOKEN_DIRECTORY = "tokens";
+    private static final String TOKENS_SUFFIX = ".tokens";
+
+    private final File directory;
+    private final Path index;
+    private final CacheDirectory tokenFiles;
+    private final Language language;
+    private final String optionsFingerprint;
+    private final String version;
+
+    /**
+     * Metadata of a submission in the corpus, which is identified by its root.
+     */
+    private record Entry(String name, String root, List<String> files, String tokenHash, String tokenStreamHash) {
+    }
+
+    /**
+     * Opens a corpus, which does not have to exist yet.
+     * @param directory is the directory of the corpus.
+     * @param language is the language of the submissions.
+     * @param frontendOptions are the options of the frontend, which influence the tokens.
+     */
+    public Corpus(File directory, Language language, FrontendOptions frontendOptions) {
+        this.directory = directory;
+        this.language = language;
+        index = directory.toPath().resolve(INDEX_FILE);
+        tokenFiles = new CacheDirectory(new File(directory, TOKEN_DIRECTORY), TOKENS_SUFFIX, "corpus", Integer.MAX_VALUE, 0);
+        optionsFingerprint = "filter=" + frontendOptions.isBasicFilteringEnabled() + "|analysis=" + frontendOptions.isSourceAnalysisEnabled();
+        version = CacheDirectory.versionOf(language);
+    }
+
+    /**
+     * Loads all submissions of the corpus as old submissions with their tokens.
+     * @param errorCollector is the interface for error reporting of the submissions.
+     * @return the loaded submissions in the order they were appended. Submissions whose names are not unique are named by
+     * their original location.
+     * @throws CorpusException if the corpus does not exist, cannot be read, or was built with another language or version.
+     */
+    public List<Submission> load(ErrorCollector errorCollector) throws CorpusException {
+        if (!Files.exists(index)) {
+            throw new CorpusException("Corpus \"" + directory + "\" does not exist!");
+        }
+        List<Submission> submissions = new ArrayList<>();
+        Map<String, TokenList> tokenLists = new HashMap<>(); // equal submissions share their tokens
+        Collection<Entry> entries = readIndex().values();
+        Map<String, Long> numberOfEntriesPerName = entries.stream().collect(Collectors.groupingBy(Entry::name, Collectors.counting()));
+        for (Entry entry : entries) {
+            List<File> files = entry.files().stream().map(File::new).toList();
+            String name = numberOfEntriesPerName.get(entry.name()) > 1 ? entry.root() : entry.name();
+            Submission submission = new Submission(name, new File(entry.root()), false, files, language, errorCollector);
+            TokenList tokenList = tokenLists.get(entry.tokenHash());
+            if (tokenList == null) {
+                tokenList = readTokens(entry.tokenHash());
+                tokenLists.put(entry.tokenHash(), tokenList);
+            }
+            submission.setTokenList(tokenList, entry.tokenStreamHash());
+            submissions.add(submission);
+        }
+        return submissions;
+    }
+
+    /**
+     * Checks that the tokens of the language can be stored, which requires token types that are stable across runs.
+     * @throws CorpusException if they cannot be stored.
+     */
+    public void checkStorable() throws CorpusException {
+        if (!language.hasStableTokenTypes()) {
+            throw new CorpusException("The tokens of language " + language.getName() + " cannot be stored in a corpus!");
+        }
+    }
+
+    /**
+     * Appends parsed submissions to the corpus, which is created if it does not exist yet. A submission replaces an earlier
+     * submission of the same location. Submissions without tokens are skipped. Runs that append to the same corpus are
+     * serialized by a lock file, thus none of them loses the entries of another.
+     * @param submissions are the submissions to append.
+     * @return the number of appended submissions.
+     * @throws CorpusException if the corpus cannot be locked or written, or was built with another language or version.
+     */
+    public int append(Collection<Submission> submissions) throws CorpusException {
+        checkStorable();
+        try {
+            Files.createDirectories(directory.toPath());
+        } catch (IOException exception) {
+            throw new CorpusException("Cannot write corpus \"" + directory + "\": " + exception.getMessage(), exception);
+        }
+        synchronized (APPEND_LOCK) {
+            try (FileChannel channel = FileChannel.open(directory.toPath().resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                    FileLock lock = channel.lock()) {
+                return appendLocked(submissions);
+            } catch (IOException exception) {
+                throw new CorpusException("Cannot lock corpus \"" + directory + "\": " + exception.getMessage(), exception);
+            }
+        }
+    }
+
+    /**
+     * Reads the index, adds the submissions to it, and writes it back. Requires the lock of the corpus.
+     */
+    private int appendLocked(Collection<Submission> submissions) throws CorpusException {
+        Map<String, Entry> entries = Files.exists(index) ? readIndex() : new LinkedHashMap<>();
+        int appended = 0;
+        for (Submission submission : submissions) {
+            if (submission.getTokenList() == null) {
+                continue;
+            }
+            String tokenHash = writeTokens(submission.getTokenList());
+            List<String> files = submission.getFiles().stream().map(File::getAbsolutePath).toList();
+            String root = submission.getRoot().getAbsolutePath();
+            entries.remove(root); // keeps the order of appending
+            entries.put(root, new Entry(submission.getName(), root, files, tokenHash, submission.getTokenStreamHash()));
+            appended++;
+        }
+        writeIndex(entries);
+        return appended;
+    }
+
+    /**
+     * Reads the entries of the index, keyed by their root.
+     */
+    private Map<String, Entry> readIndex() throws CorpusException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(index)))) {
+            if (input.readInt() != INDEX_MAGIC || input.readInt() != FORMAT_VERSION) {
+                throw new CorpusException("Corpus \"" + directory + "\" has an unsupported format!");
+            }
+            String languageName = input.readUTF();
+            String fingerprint = input.readUTF();
+            String corpusVersion = input.readUTF();
+            if (!languageName.equals(language.getName()) || !fingerprint.equals(optionsFingerprint)) {
+                throw new CorpusException("Corpus \"" + directory + "\" was built for " + languageName + " (" + fingerprint + ") instead of "
+                        + language.getName() + " (" + optionsFingerprint + ")!");
+            } else if (!corpusVersion.equals(version)) {
+                throw new CorpusException("Corpus \"" + directory + "\" was built with " + corpusVersion + " instead of " + version + "!");
+            }
+            Map<String, Entry> entries = new LinkedHashMap<>();
+            int numberOfEntries = readVarInt(input);
+            for (int i = 0; i < numberOfEntries; i++) {
+                String name = input.readUTF();
+                String root = input.readUTF();
+                int numberOfFiles = readVarInt(input);
+                List<String> files = new ArrayList<>(numberOfFiles);
+                for (int j = 0; j < numberOfFiles; j++) {
+                    files.add(input.readUTF());
+                }
+                entries.put(root, new Entry(name, root, files, input.readUTF(), input.readUTF()));
+            }
+            return entries;
+        } catch (IOException exception) {
+            throw new CorpusException("Cannot read corpus \"" + directory + "\": " + exception.getMessage(), exception);
+        }
+    }
+
+    private void writeIndex(Map<String, Entry> entries) throws CorpusException {
+        try {
+            CacheDirectory.writeAtomically(index, output -> {
+                output.writeInt(INDEX_MAGIC);
+                output.writeInt(FORMAT_VERSION);
+                output.writeUTF(language.getName());
+                output.writeUTF(optionsFingerprint);
+                output.writeUTF(version);
+                writeVarInt(output, entries.size());
+                for (Entry entry : entries.values()) {
+                    output.writeUTF(entry.name());
+                    output.writeUTF(entry.root());
+                    writeVarInt(output, entry.files().size());
+                    for (String file : entry.files()) {
+                        output.writeUTF(file);
+                    }
+                    output.writeUTF(entry.tokenHash());
+                    output.writeUTF(entry.tokenStreamHash());
+                }
+            });
+        } catch (IOException exception) {
+            throw new CorpusException("Cannot write corpus \"" + directory + "\": " + exception.getMessage(), exception);
+        }
+    }
+
+    /**
+     * Reads the token file with the given hash.
+     */
+    private TokenList readTokens(String tokenHash) throws CorpusException {
+        Path tokenFile = tokenFiles.entryOfHash(tokenHash);
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(tokenFile)))) {
+            if (input.readInt() != TOKENS_MAGIC || input.readInt() != FORMAT_VERSION || !input.readUTF().equals(version)) {
+                throw new CorpusException("Token file \"" + tokenFile + "\" has an unsupported format!");
+            }
+            String[] fileNames = new String[readVarInt(input)];
+            for (int i = 0; i < fileNames.length; i++) {
+                fileNames[i] = input.readUTF();
+            }
+            Map<Integer, String> typeNames = new HashMap<>();
+            int numberOfTypes = readVarInt(input);
+            for (int i = 0; i < numberOfTypes; i++) {
+                typeNames.put(readVarInt(input), input.readUTF());
+            }
+            int numberOfTokens = readVarInt(input);
+            TokenList tokenList = new TokenList();
+            int line = 0;
+            for (int i = 0; i < numberOfTokens; i++) {
+                int type = readVarInt(input);
+                String file = fileNames[readVarInt(input)];
+                line += readVarInt(input);
+                int column = readVarInt(input);
+                int length = readVarInt(input);
+                int tokenIndex = readVarInt(input);
+                tokenList.addToken(new StoredToken(type, file, line, column, length, tokenIndex, typeNames.get(type)));
+            }
+            return tokenList;
+        } catch (IOException exception) {
+            throw new CorpusException("Cannot read token file \"" + tokenFile + "\": " + exception.getMessage(), exception);
+        }
+    }
+
+    /**
+     * Writes a token list to the token file addressed by the hash of its content, unless the file already exists.
+     * @return the hash of the token file.
+     */
+    private String writeTokens(TokenList tokenList) throws CorpusException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeInt(TOKENS_MAGIC);
+            output.writeInt(FORMAT_VERSION);
+            output.writeUTF(version);
+            Map<Integer, String> typeNames = new LinkedHashMap<>();
+            for (Token token : tokenList.allTokens()) {
+                typeNames.putIfAbsent(token.getType(), token.toString());
+            }
+            writeVarInt(output, tokenList.getFileNames().size());
+            for (String file : tokenList.getFileNames()) {
+                output.writeUTF(file);
+            }
+            writeVarInt(output, typeNames.size());
+            for (Map.Entry<Integer, String> typeName : typeNames.entrySet()) {
+                writeVarInt(output, typeName.getKey());
+                output.writeUTF(typeName.getValue());
+            }
+            writeVarInt(output, tokenList.size());
+            int line = 0;
+            for (int index = 0; index < tokenList.size(); index++) {
+                Token token = tokenList.getToken(index);
+                writeVarInt(output, token.getType());
+                writeVarInt(output, tokenList.getFileIndex(index));
+                writeVarInt(output, token.getLine() - line);
+                writeVarInt(output, token.getColumn());
+                writeVarInt(output, token.getLength());
+                writeVarInt(output, token.getIndex());
+                line = token.getLine();
+            }
+        } catch (IOException exception) {
+            throw new IllegalStateException(exception); // cannot happen for in-memory streams
+        }
+        byte[] content = bytes.toByteArray();
+        String tokenHash = CacheDirectory.hash(content);
+        Path tokenFile = tokenFiles.entryOfHash(tokenHash);
+        if (!Files.exists(tokenFile)) {
+            try {
+                CacheDirectory.writeAtomically(tokenFile, output -> output.write(content));
+            } catch (IOException exception) {
+                throw new CorpusException("Cannot write token file \"" + tokenFile + "\": " + exception.getMessage(), exception);
+            }
+        }
+        return tokenHash;
+    }
+}
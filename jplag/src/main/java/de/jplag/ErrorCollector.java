@@ -3,6 +3,7 @@ package de.jplag;
 import static de.jplag.options.Verbosity.LONG;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -12,25 +13,31 @@ import de.jplag.options.JPlagOptions;
 import de.jplag.options.Verbosity;
 
 /**
- * Error collector class that collects errors but also allows printing the collected errors.
+ * Error collector class that collects errors but also allows printing the collected errors. The collector is
+ * thread-safe, the name of the currently processed submission is tracked per thread, thus multiple submissions can be
+ * parsed concurrently.
  * @author Timur Saglam
  */
 public class ErrorCollector implements ErrorConsumer {
     // TODO DF We should replace *all* usages of the ErrorConsumer by a suitable logger
     private final Logger logger = LoggerFactory.getLogger("JPlag");
-    private final List<String> collectedErrors; // List of errors that occurred during the execution of the errorConsumer.
+    private static final String UNKNOWN_SUBMISSION = "<Unknown submission>";
+
+    private final List<CollectedError> collectedErrors; // List of errors that occurred during the execution of the errorConsumer.
     private final JPlagOptions options;
-    private String currentSubmissionName;
+    private final ThreadLocal<String> currentSubmissionName;
 
     public ErrorCollector(JPlagOptions options) {
         this.options = options;
         collectedErrors = new ArrayList<>();
-        currentSubmissionName = "<Unknown submission>";
+        currentSubmissionName = ThreadLocal.withInitial(() -> UNKNOWN_SUBMISSION);
     }
 
     @Override
     public void addError(String errorMessage) {
-        collectedErrors.add("[" + currentSubmissionName + "] " + errorMessage);
+        synchronized (collectedErrors) {
+            collectedErrors.add(new CollectedError(currentSubmissionName.get(), errorMessage));
+        }
         print(null, "\t" + errorMessage);
     }
 
@@ -49,13 +56,19 @@ public class ErrorCollector implements ErrorConsumer {
     }
 
     /**
-     * Print all collected errors messages in a list-like fashion.
+     * Print all collected errors messages in a list-like fashion. The errors are grouped by submission, as the errors of
+     * concurrently parsed submissions are collected interleaved.
      */
     public void printCollectedErrors() {
+        List<CollectedError> errors;
+        synchronized (collectedErrors) {
+            errors = new ArrayList<>(collectedErrors);
+        }
+        errors.sort(Comparator.comparing(CollectedError::submissionName)); // stable, keeps the order per submission
         StringBuilder errorReport = new StringBuilder();
         logger.error("The following errors occured: ");
-        for (String message : collectedErrors) {
-            errorReport.append(message);
+        for (CollectedError error : errors) {
+            errorReport.append('[').append(error.submissionName()).append("] ").append(error.message());
             errorReport.append('\n');
         }
 
@@ -63,17 +76,22 @@ public class ErrorCollector implements ErrorConsumer {
     }
 
     /**
-     * Updates the name of the currently processed submission.
+     * Updates the name of the submission that is currently processed by the calling thread.
      * @param currentSubmissionName is the name.
      */
     public void setCurrentSubmissionName(String currentSubmissionName) {
-        this.currentSubmissionName = currentSubmissionName;
+        this.currentSubmissionName.set(currentSubmissionName);
     }
 
     /**
      * @return true if there is at least one error.
      */
     public boolean hasErrors() {
-        return !collectedErrors.isEmpty();
+        synchronized (collectedErrors) {
+            return !collectedErrors.isEmpty();
+        }
+    }
+
+    private record CollectedError(String submissionName, String message) {
     }
 }
@@ -1,243 +1,307 @@
 package de.jplag;
 
-import static de.jplag.TokenConstants.FILE_END;
-import static de.jplag.TokenConstants.SEPARATOR_TOKEN;
-
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
-import de.jplag.experimental.GenericTokenFilter;
 import de.jplag.options.JPlagOptions;
 
 /**
  * This class implements the Greedy String Tiling algorithm as introduced by Michael Wise. However, it is very specific
- * to the classes {@link TokenList}, {@link Token}, and {@link Match}. While this class was reworked, it still contains
- * some quirks from the initial version.
+ * to the classes {@link TokenList}, {@link TokenSequence}, {@link Token}, and {@link Match}. While this class was
+ * reworked, it still contains some quirks from the initial version.
+ * <p>
+ * For large comparisons, the positions of the first sequence can be scanned in parallel chunks in each iteration, see
+ * {@link JPlagOptions#getParallelTilingThreshold()}. The chunks are merged in the order of their positions, thus the
+ * resulting matches do not depend on the scheduling. The chunks run in the pool of a parallel comparison strategy, or
+ * otherwise in the common pool.
+ * </p>
  * @see <a href=
  * "https://www.researchgate.net/publication/262763983_String_Similarity_via_Greedy_String_Tiling_and_Running_Karp-Rabin_Matching">
  * String Similarity via Greedy String Tiling and Running Karp−Rabin Matching </a>
  */
-public class GreedyStringTiling {
+public class GreedyStringTiling extends AbstractTilingAlgorithm {
+
+    private static final int TASKS_PER_THREAD = 16; // splits the positions finer than the parallelism to balance uneven chunks
 
-    private final JPlagOptions options;
+    private final LongAdder bucketCollisions; // candidates of the hash index with a different hash
+    private final LongAdder hashCollisions; // candidates with an equal hash but different token types
 
     public GreedyStringTiling(JPlagOptions options) {
-        this.options = options;
+        super(options);
+        bucketCollisions = new LongAdder();
+        hashCollisions = new LongAdder();
     }
 
     /**
-     * Creating hashes in linear time. The hash-code will be written in every Token for the next &lt;hashLength&gt; token
-     * (includes the Token itself).
-     * @param tokenList contains the tokens.
-     * @param hashLength is the hash length (condition: 1 &lt; hashLength &lt; 26)
-     * @param makeTable determines if a simple hash table is created in the structure.
+     * @return the number of candidate positions of all comparisons so far that were rejected because their window hash
+     * differed, meaning they only shared a bucket of the hash index.
      */
-    public void createHashes(TokenList tokenList, int hashLength, boolean makeTable) {
-        // Here the upper boundary of the hash length is set.
-        // It is determined by the number of bits of the 'int' data type and the number of tokens.
-        if (hashLength < 1) {
-            hashLength = 1;
-        }
-        hashLength = (hashLength < 26 ? hashLength : 25);
+    public long getBucketCollisions() {
+        return bucketCollisions.sum();
+    }
 
-        if (tokenList.size() < hashLength) {
-            return;
-        }
+    /**
+     * @return the number of candidate positions of all comparisons so far that had an equal window hash but different token
+     * types, meaning they were false positives of the hash function.
+     */
+    public long getHashCollisions() {
+        return hashCollisions.sum();
+    }
+
+    @Override
+    /* package-private */ void tile(TokenSequence firstSequence, TokenMarks firstMarks, TokenSequence secondSequence, TokenMarks secondMarks,
+            JPlagComparison comparison, boolean isBaseCodeComparison) {
+        int minimumTokenMatch = options.getMinimumTokenMatch(); // minimal required token match
+        int parallelThreshold = options.getParallelTilingThreshold();
+        boolean isParallel = parallelThreshold > 0 && firstSequence.size() >= parallelThreshold && secondSequence.size() >= parallelThreshold;
+        Scan scan = new Scan(firstSequence, firstMarks, secondSequence, secondMarks, minimumTokenMatch);
 
-        int modulo = ((1 << 6) - 1);   // Modulo 64!
-
-        int loops = tokenList.size() - hashLength;
-        tokenList.tokenHashes = (makeTable ? new TokenHashMap(3 * loops) : null);
-        int hash = 0;
-        int hashedLength = 0;
-        for (int i = 0; i < hashLength; i++) {
-            hash = (2 * hash) + (tokenList.getToken(i).type & modulo);
-            hashedLength++;
-            if (tokenList.getToken(i).isMarked()) {
-                hashedLength = 0;
+        List<Match> matches = new ArrayList<>();
+        MatchIntervals matchIntervals = new MatchIntervals(); // indexes the matches of the current iteration
+
+        // start the black magic:
+        int maxMatch;
+        do {
+            matches.clear();
+            matchIntervals.clear();
+            if (isParallel) {
+                maxMatch = scanInParallel(scan, minimumTokenMatch, matches, matchIntervals);
+            } else {
+                Candidates candidates = new Candidates(minimumTokenMatch);
+                scan.scan(0, firstSequence.size(), candidates, matchIntervals, null);
+                matches.addAll(candidates.matches);
+                maxMatch = candidates.length;
             }
-        }
-        int factor = (hashLength != 1 ? (2 << (hashLength - 2)) : 1);
-
-        if (makeTable) {
-            for (int i = 0; i < loops; i++) {
-                if (hashedLength >= hashLength) {
-                    tokenList.getToken(i).setHash(hash);
-                    tokenList.tokenHashes.put(hash, i);   // add into hashtable
-                } else {
-                    tokenList.getToken(i).setHash(-1);
-                }
-                hash -= factor * (tokenList.getToken(i).type & modulo);
-                hash = (2 * hash) + (tokenList.getToken(i + hashLength).type & modulo);
-                if (tokenList.getToken(i + hashLength).isMarked()) {
-                    hashedLength = 0;
-                } else {
-                    hashedLength++;
-                }
+            for (int i = matches.size() - 1; i >= 0; i--) {
+                Match match = matches.get(i);
+                comparison.addMatch(match.getStartOfFirst(), match.getStartOfSecond(), match.getLength());
+                firstMarks.mark(match.getStartOfFirst(), match.getLength()); // mark all Tokens!
+                secondMarks.mark(match.getStartOfSecond(), match.getLength());
             }
-        } else {
-            for (int i = 0; i < loops; i++) {
-                tokenList.getToken(i).setHash((hashedLength >= hashLength) ? hash : -1);
-                hash -= factor * (tokenList.getToken(i).type & modulo);
-                hash = (2 * hash) + (tokenList.getToken(i + hashLength).type & modulo);
-                if (tokenList.getToken(i + hashLength).isMarked()) {
-                    hashedLength = 0;
-                } else {
-                    hashedLength++;
-                }
+
+            if (!isBaseCodeComparison && isOutcomeDecided(comparison, firstMarks, firstSequence.size(), secondMarks, secondSequence.size())) {
+                break; // the remaining tiles cannot change whether the comparison reaches the similarity threshold
             }
-        }
-        tokenList.hashLength = hashLength;
+        } while (maxMatch != minimumTokenMatch);
+        bucketCollisions.add(scan.bucketCollisions.sum());
+        hashCollisions.add(scan.hashCollisions.sum());
     }
 
-    public final JPlagComparison compare(Submission firstSubmission, Submission secondSubmission) {
-        return swapAndCompare(firstSubmission, secondSubmission, false);
-    }
+    /**
+     * Scans chunks of the positions of the first sequence in parallel and merges their candidates. Only the chunks with the
+     * longest candidates contribute, in the order of their positions, thus the merged matches are the same as the ones of a
+     * sequential scan. Each chunk already drops the matches that overlap its own earlier matches. If one of its remaining
+     * matches overlaps a match of an earlier chunk, the chunk may have dropped a match that the sequential scan keeps, thus
+     * its positions with candidates are scanned again against the merged matches.
+     * @return the length of the merged matches.
+     */
+    private int scanInParallel(Scan scan, int minimumTokenMatch, List<Match> matches, MatchIntervals matchIntervals) {
+        int numberOfChunks = Math.max(1, Math.min(scan.firstTypes.length, options.getParallelism() * TASKS_PER_THREAD));
+        int chunkSize = (scan.firstTypes.length + numberOfChunks - 1) / numberOfChunks;
+        Candidates[] chunks = new Candidates[numberOfChunks];
+        AtomicInteger sharedLength = new AtomicInteger(minimumTokenMatch);
+        ScanTask task = new ScanTask(scan, chunks, 0, numberOfChunks, chunkSize, minimumTokenMatch, sharedLength);
+        if (ForkJoinTask.inForkJoinPool()) {
+            task.invoke(); // nested in a parallel comparison strategy, which shares its workers
+        } else {
+            ForkJoinPool.commonPool().invoke(task); // shared by the JVM, thus there is no pool to shut down
+        }
 
-    public final JPlagComparison compareWithBaseCode(Submission firstSubmission, Submission secondSubmission) {
-        return swapAndCompare(firstSubmission, secondSubmission, true);
+        int maxMatch = Arrays.stream(chunks).mapToInt(it -> it.length).max().orElse(minimumTokenMatch);
+        for (Candidates chunk : chunks) {
+            if (chunk.length != maxMatch) {
+                continue;
+            }
+            if (chunk.matches.stream().noneMatch(it -> matchIntervals.overlaps(it.getStartOfFirst(), it.getStartOfSecond(), it.getLength()))) {
+                chunk.matches.forEach(matchIntervals::add);
+                matches.addAll(chunk.matches);
+            } else {
+                Candidates replay = new Candidates(maxMatch);
+                for (int i = 0; i < chunk.numberOfPositions; i++) {
+                    scan.scanPosition(chunk.positions[i], maxMatch, replay, matchIntervals, null);
+                }
+                matches.addAll(replay.matches);
+            }
+        }
+        return maxMatch;
     }
 
-    private JPlagComparison swapAndCompare(Submission firstSubmission, Submission secondSubmission, boolean isBaseCodeComparison) {
-        Submission smallerSubmission, largerSubmission;
-        if (firstSubmission.getTokenList().size() > secondSubmission.getTokenList().size()) {
-            smallerSubmission = secondSubmission;
-            largerSubmission = firstSubmission;
-        } else {
-            smallerSubmission = firstSubmission;
-            largerSubmission = secondSubmission;
-        }
-        // if hashtable exists in first but not in second structure: flip around!
-        if (largerSubmission.getTokenList().tokenHashes == null && smallerSubmission.getTokenList().tokenHashes != null) {
-            Submission swap = smallerSubmission;
-            smallerSubmission = largerSubmission;
-            largerSubmission = swap;
+    private static void addMatchIfNotOverlapping(List<Match> matches, MatchIntervals matchIntervals, int startA, int startB, int length) {
+        if (matchIntervals.overlaps(startA, startB, length)) {
+            return; // no overlaps allowed!
         }
-        return compare(smallerSubmission, largerSubmission, isBaseCodeComparison);
+        Match match = new Match(startA, startB, length);
+        matches.add(match);
+        matchIntervals.add(match);
     }
 
     /**
-     * Compares two submissions. FILE_END is used as pivot
-     * @param firstSubmission is the submission with the smaller sequence.
-     * @param secondSubmission is the submission with the larger sequence.
-     * @param isBaseCodeComparison specifies whether one of the submissions is the base code.
-     * @return the comparison results.
+     * The longest matches found by a scan over a range of positions of the first sequence, which all have the same length.
      */
-    private JPlagComparison compare(Submission firstSubmission, Submission secondSubmission, boolean isBaseCodeComparison) {
-        // first and second refer to the list of tokens of the first and second submission:
-        TokenList first = firstSubmission.getTokenList();
-        TokenList second = secondSubmission.getTokenList();
+    private static final class Candidates {
+        private final List<Match> matches = new ArrayList<>();
+        private int length;
+        private int[] positions = new int[16]; // positions with a match of the length, only recorded by parallel scans
+        private int numberOfPositions;
+        private long bucketCollisions;
+        private long hashCollisions;
 
-        if (options.isGenericFilteringEnabled()) {
-            GenericTokenFilter tokenFilter = new GenericTokenFilter(first, second, options.getExperimentalOptions());
-            tokenFilter.filter();
-
-            first = tokenFilter.getFirst();
-            second = tokenFilter.getSecond();
+        Candidates(int minimumTokenMatch) {
+            length = minimumTokenMatch;
         }
 
-        // Initialize:
-        JPlagComparison comparison = new JPlagComparison(firstSubmission, secondSubmission);
-        int minimumTokenMatch = options.getMinimumTokenMatch(); // minimal required token match
-
-        if (first.size() <= minimumTokenMatch || second.size() <= minimumTokenMatch) { // <= because of pivots!
-            return comparison;
+        void addPosition(int position) {
+            if (numberOfPositions > 0 && positions[numberOfPositions - 1] == position) {
+                return;
+            }
+            if (numberOfPositions == positions.length) {
+                positions = Arrays.copyOf(positions, numberOfPositions * 2);
+            }
+            positions[numberOfPositions++] = position;
         }
+    }
 
-        markTokens(first, isBaseCodeComparison);
-        markTokens(second, isBaseCodeComparison);
+    /**
+     * One iteration of the tiling over two sequences with their current marks, which finds the longest unmarked matches.
+     */
+    private static final class Scan {
+        private final int[] firstTypes;
+        private final long[] firstHashes;
+        private final TokenMarks firstMarks;
+        private final int[] secondTypes;
+        private final long[] secondHashes;
+        private final TokenMarks secondMarks;
+        private final TokenHashIndex secondHashIndex;
+        private final int minimumTokenMatch;
+        private final LongAdder bucketCollisions = new LongAdder();
+        private final LongAdder hashCollisions = new LongAdder();
 
-        // create hashes:
-        if (first.hashLength != minimumTokenMatch) {
-            createHashes(first, minimumTokenMatch, isBaseCodeComparison); // don't make table if it is not a base code comparison
-        }
-        if (second.hashLength != minimumTokenMatch || second.tokenHashes == null) {
-            createHashes(second, minimumTokenMatch, true);
+        Scan(TokenSequence firstSequence, TokenMarks firstMarks, TokenSequence secondSequence, TokenMarks secondMarks, int minimumTokenMatch) {
+            firstTypes = firstSequence.types();
+            firstHashes = firstSequence.hashes();
+            this.firstMarks = firstMarks;
+            secondTypes = secondSequence.types();
+            secondHashes = secondSequence.hashes();
+            this.secondMarks = secondMarks;
+            secondHashIndex = secondSequence.hashIndex();
+            this.minimumTokenMatch = minimumTokenMatch;
         }
 
-        List<Match> matches = new ArrayList<>();
+        /**
+         * Finds the longest matches that start at the given positions of the first sequence, in the order of their positions.
+         * @param from is the first position.
+         * @param to is the position after the last one.
+         * @param candidates collects the longest matches, a longer match replaces all shorter ones.
+         * @param matchIntervals skips matches that overlap with earlier ones of the same length.
+         * @param sharedLength is the length of the longest match of all concurrent scans if not null, which skips shorter
+         * matches. The positions with matches are then recorded in the candidates.
+         */
+        void scan(int from, int to, Candidates candidates, MatchIntervals matchIntervals, AtomicInteger sharedLength) {
+            for (int x = from; x < to; x++) {
+                int maxMatch = sharedLength == null ? candidates.length : Math.max(candidates.length, sharedLength.get());
+                if (x >= firstTypes.length - maxMatch) {
+                    break;
+                }
+                scanPosition(x, maxMatch, candidates, matchIntervals, sharedLength);
+            }
+            bucketCollisions.add(candidates.bucketCollisions);
+            hashCollisions.add(candidates.hashCollisions);
+        }
 
-        // start the black magic:
-        int maxMatch;
-        do {
-            maxMatch = minimumTokenMatch;
-            matches.clear();
-            for (int x = 0; x < first.size() - maxMatch; x++) {
-                List<Integer> hashedTokens = second.tokenHashes.get(first.getToken(x).getHash());
-                if (first.getToken(x).isMarked() || first.getToken(x).getHash() == -1) {
+        /**
+         * Finds the matches of at least the given length that start at a position of the first sequence.
+         * @see #scan(int, int, Candidates, MatchIntervals, AtomicInteger)
+         */
+        void scanPosition(int x, int maxMatch, Candidates candidates, MatchIntervals matchIntervals, AtomicInteger sharedLength) {
+            if (firstHashes[x] == TokenSequence.NO_HASH || firstMarks.isMarked(x)) {
+                return;
+            }
+            int bucket = secondHashIndex.bucketOf(firstHashes[x]);
+            inner: for (int candidate = secondHashIndex.bucketStart(bucket); candidate < secondHashIndex.bucketEnd(bucket); candidate++) {
+                int y = secondHashIndex.getPosition(candidate);
+                if (secondMarks.isMarked(y) || maxMatch >= secondTypes.length - y) { // >= because of pivots!
+                    continue;
+                }
+                if (secondHashes[y] != firstHashes[x]) {
+                    candidates.bucketCollisions++;
                     continue;
                 }
-                inner: for (Integer y : hashedTokens) {
-                    if (second.getToken(y).isMarked() || maxMatch >= second.size() - y) { // >= because of pivots!
-                        continue;
-                    }
 
-                    int j, hx, hy;
-                    for (j = maxMatch - 1; j >= 0; j--) { // begins comparison from behind
-                        if (first.getToken(hx = x + j).type != second.getToken(hy = y + j).type || first.getToken(hx).isMarked()
-                                || second.getToken(hy).isMarked()) {
-                            continue inner;
+                int j, hx, hy;
+                for (j = maxMatch - 1; j >= 0; j--) { // begins comparison from behind
+                    if (firstTypes[hx = x + j] != secondTypes[hy = y + j] || firstMarks.isMarked(hx) || secondMarks.isMarked(hy)) {
+                        if (j < minimumTokenMatch && firstTypes[hx] != secondTypes[hy]) {
+                            candidates.hashCollisions++;
                         }
+                        continue inner;
                     }
+                }
 
-                    // expand match
-                    j = maxMatch;
-                    while (first.getToken(hx = x + j).type == second.getToken(hy = y + j).type && !first.getToken(hx).isMarked()
-                            && !second.getToken(hy).isMarked()) {
-                        j++;
-                    }
+                // expand match
+                j = maxMatch;
+                while (firstTypes[hx = x + j] == secondTypes[hy = y + j] && !firstMarks.isMarked(hx) && !secondMarks.isMarked(hy)) {
+                    j++;
+                }
 
-                    if (j > maxMatch && !isBaseCodeComparison || j != maxMatch && isBaseCodeComparison) {  // new biggest match? -> delete current
-                                                                                                           // smaller
-                        matches.clear();
-                        maxMatch = j;
+                if (j > candidates.length) { // new biggest match? -> delete current smaller
+                    candidates.matches.clear();
+                    candidates.numberOfPositions = 0;
+                    matchIntervals.clear();
+                    candidates.length = j;
+                    maxMatch = j;
+                    if (sharedLength != null) {
+                        sharedLength.accumulateAndGet(j, Math::max);
                     }
-                    addMatchIfNotOverlapping(matches, x, y, j);
                 }
-            }
-            for (int i = matches.size() - 1; i >= 0; i--) {
-                int x = matches.get(i).getStartOfFirst();  // Beginning of/in sequence A
-                int y = matches.get(i).getStartOfSecond();  // Beginning of/in sequence B
-                comparison.addMatch(x, y, matches.get(i).getLength());
-                // in order that "Match" will be newly build (because reusing)
-                for (int j = matches.get(i).getLength(); j > 0; j--) {
-                    first.getToken(x).setMarked(true); // mark all Tokens!
-                    second.getToken(y).setMarked(true);
-                    if (isBaseCodeComparison) {
-                        first.getToken(x).setBasecode(true);
-                        second.getToken(y).setBasecode(true);
-                    }
-                    x++;
-                    y++;
+                if (sharedLength != null) {
+                    candidates.addPosition(x);
                 }
-            }
-
-        } while (maxMatch != minimumTokenMatch);
-
-        return comparison;
-    }
-
-    private void addMatchIfNotOverlapping(List<Match> matches, int startA, int startB, int length) {
-        for (int i = matches.size() - 1; i >= 0; i--) { // starting at the end is better(?)
-            if (matches.get(i).overlap(startA, startB, length)) {
-                return; // no overlaps allowed!
+                addMatchIfNotOverlapping(candidates.matches, matchIntervals, x, y, j);
             }
         }
-        matches.add(new Match(startA, startB, length));
     }
 
     /**
-     * Disable finding a match at separator tokens and basecode matches for non-basecode comparisons.
-     * @param tokenList Tokens to mark.
-     * @param isBaseCodeComparison Whether the {@link Token#basecode} matches should be enabled for matching.
+     * Scans a range of chunks of the first sequence, either directly or by splitting it into two halves.
      */
-    private void markTokens(TokenList tokenList, boolean isBaseCodeComparison) {
-        for (Token token : tokenList.allTokens()) {
-            if (isBaseCodeComparison) {
-                token.setMarked(token.type == FILE_END || token.type == SEPARATOR_TOKEN);
-            } else {
-                token.setMarked(token.type == FILE_END || token.type == SEPARATOR_TOKEN || (token.isBasecode() && options.hasBaseCode()));
+    private static final class ScanTask extends RecursiveAction {
+        private static final long serialVersionUID = -3184729017364615282L; // generated
+
+        private final transient Scan scan;
+        private final transient Candidates[] chunks;
+        private final int start;
+        private final int end;
+        private final int chunkSize;
+        private final int minimumTokenMatch;
+        private final transient AtomicInteger sharedLength;
+
+        ScanTask(Scan scan, Candidates[] chunks, int start, int end, int chunkSize, int minimumTokenMatch, AtomicInteger sharedLength) {
+            this.scan = scan;
+            this.chunks = chunks;
+            this.start = start;
+            this.end = end;
+            this.chunkSize = chunkSize;
+            this.minimumTokenMatch = minimumTokenMatch;
+            this.sharedLength = sharedLength;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start == 1) {
+                chunks[start] = new Candidates(minimumTokenMatch);
+                int from = start * chunkSize;
+                scan.scan(from, Math.min(from + chunkSize, scan.firstTypes.length), chunks[start], new MatchIntervals(), sharedLength);
+                return;
             }
+            int middle = (start + end) >>> 1;
+            invokeAll(new ScanTask(scan, chunks, start, middle, chunkSize, minimumTokenMatch, sharedLength),
+                    new ScanTask(scan, chunks, middle, end, chunkSize, minimumTokenMatch, sharedLength));
         }
     }
 }
@@ -3,6 +3,7 @@ package de.jplag;
 import static de.jplag.options.Verbosity.LONG;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
@@ -10,6 +11,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.util.Collections;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -18,12 +20,18 @@ import org.slf4j.LoggerFactory;
 import de.jplag.clustering.ClusteringFactory;
 import de.jplag.exceptions.ExitException;
 import de.jplag.exceptions.SubmissionException;
+import de.jplag.exceptions.TokenStoreException;
 import de.jplag.options.JPlagOptions;
 import de.jplag.options.LanguageOption;
+import de.jplag.strategy.CandidateComparisonStrategy;
 import de.jplag.strategy.ComparisonMode;
 import de.jplag.strategy.ComparisonStrategy;
+import de.jplag.strategy.ForkJoinComparisonStrategy;
+import de.jplag.strategy.MinHashComparisonStrategy;
 import de.jplag.strategy.NormalComparisonStrategy;
 import de.jplag.strategy.ParallelComparisonStrategy;
+import de.jplag.strategy.PipelinedComparisonStrategy;
+import de.jplag.strategy.WinnowingComparisonStrategy;
 
 /**
  * This class coordinates the whole errorConsumer flow.
@@ -33,9 +41,10 @@ public class JPlag {
 
     private final JPlagOptions options;
 
+    private final Supplier<Language> languageFactory; // Creates additional frontend instances for concurrent parsing.
     private final Language language;
     private final ComparisonStrategy comparisonStrategy;
-    private final GreedyStringTiling coreAlgorithm; // Contains the comparison logic.
+    private final TilingAlgorithm coreAlgorithm; // Contains the comparison logic.
     private final ErrorCollector errorCollector;
     private final Set<String> excludedFileNames;
 
@@ -46,8 +55,14 @@ public class JPlag {
     public JPlag(JPlagOptions options) {
         this.options = options;
         errorCollector = new ErrorCollector(options);
-        coreAlgorithm = new GreedyStringTiling(options);
-        language = initializeLanguage();
+        coreAlgorithm = options.getComparisonAlgorithm().create(options);
+        Supplier<Language> frontendFactory = createLanguageFactory();
+        language = initializeLanguage(frontendFactory.get());
+        languageFactory = () -> {
+            Language instance = frontendFactory.get();
+            instance.shareStateWith(language); // e.g. the token types, which must not differ between the instances of a run
+            return instance;
+        };
         comparisonStrategy = initializeComparisonStrategy(options.getComparisonMode());
         excludedFileNames = Optional.ofNullable(this.options.getExclusionFileName()).map(this::readExclusionFile).orElse(Collections.emptySet());
         options.setExcludedFiles(excludedFileNames); // store for report
@@ -79,13 +94,19 @@ public class JPlag {
      * @throws ExitException if the JPlag exits preemptively.
      */
     public JPlagResult run() throws ExitException {
+        checkStorableTokens();
 
         // Parse and validate submissions.
-        SubmissionSetBuilder builder = new SubmissionSetBuilder(language, options, errorCollector, excludedFileNames);
-        SubmissionSet submissionSet = builder.buildSubmissionSet();
+        SubmissionSetBuilder builder = new SubmissionSetBuilder(language, languageFactory, options, errorCollector, excludedFileNames);
+        SubmissionSet submissionSet;
+        if (comparisonStrategy instanceof PipelinedComparisonStrategy pipelinedStrategy) {
+            submissionSet = builder.buildSubmissionSet(pipelinedStrategy.startPipeline()); // compares while parsing
+        } else {
+            submissionSet = builder.buildSubmissionSet();
+        }
 
-        if (submissionSet.hasBaseCode()) {
-            coreAlgorithm.createHashes(submissionSet.getBaseCode().getTokenList(), options.getMinimumTokenMatch(), true);
+        if (options.getTokenStoreFile() != null) {
+            writeTokenStore(submissionSet); // before comparing, thus concurrent runs can use the store as soon as possible
         }
 
         int submissionCount = submissionSet.numberOfSubmissions();
@@ -96,6 +117,25 @@ public class JPlag {
         // Compare valid submissions.
         JPlagResult result = comparisonStrategy.compareSubmissions(submissionSet);
         errorCollector.print("\nTotal time for comparing submissions: " + TimeUtil.formatDuration(result.getDuration()), null);
+        errorCollector.print(null, "Comparisons skipped below the similarity threshold: " + comparisonStrategy.getNumberOfSkippedComparisons());
+        if (comparisonStrategy instanceof CandidateComparisonStrategy candidateStrategy) {
+            errorCollector.print(null, "Candidates: " + candidateStrategy.getNumberOfCandidates() + " of " + candidateStrategy.getNumberOfTuples()
+                    + " submission tuples compared");
+        }
+        comparisonStrategy.getComparisonCache().ifPresent(it -> {
+            errorCollector.print(null, "Comparison cache: " + it.getHits() + " comparisons loaded, " + it.getMisses() + " comparisons computed");
+            it.evict();
+        });
+        if (coreAlgorithm instanceof GreedyStringTiling greedyStringTiling) {
+            errorCollector.print(null, "Rejected hash candidates: " + greedyStringTiling.getBucketCollisions() + " bucket collisions, "
+                    + greedyStringTiling.getHashCollisions() + " hash collisions");
+        }
+
+        if (options.getAppendCorpusDirectory() != null) {
+            Corpus corpus = createAppendCorpus();
+            int appended = corpus.append(submissionSet.getSubmissions());
+            errorCollector.print(null, "Appended " + appended + " submissions to corpus " + options.getAppendCorpusDirectory());
+        }
 
         result.setClusteringResult(ClusteringFactory.getClusterings(result.getComparisons(), options.getClusteringOptions()));
 
@@ -115,14 +155,63 @@ public class JPlag {
         return result;
     }
 
+    /**
+     * Checks before any submission is parsed that the tokens can be stored if the options ask for it.
+     */
+    private void checkStorableTokens() throws ExitException {
+        if (options.getTokenStoreFile() != null) {
+            createTokenStore().checkStorable();
+        }
+        if (options.getAppendCorpusDirectory() != null) {
+            createAppendCorpus().checkStorable();
+        }
+    }
+
+    /**
+     * Writes the tokens of the parsed submissions to the token store, unless it exists, as another run may have created it
+     * while this run parsed the submissions.
+     */
+    private void writeTokenStore(SubmissionSet submissionSet) throws TokenStoreException {
+        TokenStore tokenStore = createTokenStore();
+        if (!tokenStore.exists()) {
+            tokenStore.write(submissionSet.getSubmissions()).ifPresent(written -> errorCollector.print(null,
+                    "Wrote the tokens of " + written + " submissions to token store " + options.getTokenStoreFile()));
+        }
+    }
+
+    private TokenStore createTokenStore() {
+        return new TokenStore(new File(options.getTokenStoreFile()), language, options.getFrontendOptions());
+    }
+
+    private Corpus createAppendCorpus() {
+        return new Corpus(new File(options.getAppendCorpusDirectory()), language, options.getFrontendOptions());
+    }
+
     private ComparisonStrategy initializeComparisonStrategy(final ComparisonMode comparisonMode) {
         return switch (comparisonMode) {
             case NORMAL -> new NormalComparisonStrategy(options, coreAlgorithm);
             case PARALLEL -> new ParallelComparisonStrategy(options, coreAlgorithm);
+            case FORK_JOIN -> new ForkJoinComparisonStrategy(options, coreAlgorithm);
+            case PIPELINED -> new PipelinedComparisonStrategy(options, coreAlgorithm);
+            case MINHASH -> new MinHashComparisonStrategy(options, coreAlgorithm);
+            case WINNOWING -> new WinnowingComparisonStrategy(options, coreAlgorithm);
         };
     }
 
-    private Language initializeLanguage() {
+    private Language initializeLanguage(Language language) {
+        this.options.setLanguage(language);
+        this.options.setLanguageDefaults(language);
+        logger.info("Initialized language " + language.getName());
+        return language;
+    }
+
+    /**
+     * Resolves the constructor of the configured language frontend once, the returned factory creates a new frontend
+     * instance on each call. Frontends keep mutable parsing state, thus each parsing thread needs its own instance. Further
+     * instances must share the state of the first instance that their token types depend on, see
+     * {@link Language#shareStateWith(Language)}.
+     */
+    private Supplier<Language> createLanguageFactory() {
         LanguageOption languageOption = this.options.getLanguageOption();
 
         try {
@@ -139,18 +228,21 @@ public class JPlag {
                 constructorParams = new Object[]{errorCollector};
                 logger.info("got constructor without FrontendOptions");
             }
-
-            Language language = (Language) constructor.newInstance(constructorParams);
-
-            this.options.setLanguage(language);
-            this.options.setLanguageDefaults(language);
-            logger.info("Initialized language " + language.getName());
-            return language;
-        } catch (NoSuchMethodException | SecurityException | ClassNotFoundException | InstantiationException | IllegalAccessException
-                | IllegalArgumentException | InvocationTargetException e) {
+            Constructor<?> languageConstructor = constructor;
+            Object[] languageConstructorParams = constructorParams;
+            return () -> instantiateLanguage(languageConstructor, languageConstructorParams);
+        } catch (NoSuchMethodException | SecurityException | ClassNotFoundException e) {
             e.printStackTrace();
             throw new IllegalStateException("Language instantiation failed:" + e.getMessage());
         }
+    }
 
+    private static Language instantiateLanguage(Constructor<?> constructor, Object[] constructorParams) {
+        try {
+            return (Language) constructor.newInstance(constructorParams);
+        } catch (InstantiationException | IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+            e.printStackTrace();
+            throw new IllegalStateException("Language instantiation failed:" + e.getMessage());
+        }
     }
 }
@@ -15,6 +15,13 @@ public class JPlagComparison implements Comparator<JPlagComparison> { // FIXME T
     private final Submission secondSubmission;
 
     private final List<Match> matches;
+    private MatchIntervals matchIntervals; // created for tiling only, see addMatch() and freeze()
+    private int numberOfMatchedTokens;
+
+    private boolean frozen; // whether the similarities are cached, as no matches will be added anymore
+    private float similarity;
+    private float similarityOfFirst;
+    private float similarityOfSecond;
 
     private boolean suspicious = false;
 
@@ -24,6 +31,45 @@ public class JPlagComparison implements Comparator<JPlagComparison> { // FIXME T
         matches = new ArrayList<>();
     }
 
+    /**
+     * Creates a comparison without matches, which only knows the number of matched tokens.
+     */
+    private JPlagComparison(Submission firstSubmission, Submission secondSubmission, int numberOfMatchedTokens, boolean suspicious) {
+        this.firstSubmission = firstSubmission;
+        this.secondSubmission = secondSubmission;
+        matches = List.of();
+        this.numberOfMatchedTokens = numberOfMatchedTokens;
+        this.suspicious = suspicious;
+    }
+
+    /**
+     * Caches the similarities of this comparison, which requires that no more matches are added and that the base code
+     * comparisons of both submissions do not change anymore. Adding a match discards the cached similarities. As tiling is
+     * finished, this also releases the interval index over the matches.
+     */
+    /* package-private */ final void freeze() {
+        matchIntervals = null;
+        frozen = false;
+        similarity = similarity();
+        similarityOfFirst = similarityOfFirst();
+        similarityOfSecond = similarityOfSecond();
+        frozen = true;
+    }
+
+    /**
+     * Creates a lightweight copy of this comparison that does not retain the matches. All similarities of the copy are
+     * equal to the similarities of this comparison, but {@link #getMatches()} is empty. No matches can be added to the
+     * copy.
+     * @return the copy without matches.
+     */
+    public JPlagComparison withoutMatches() {
+        JPlagComparison comparison = new JPlagComparison(firstSubmission, secondSubmission, numberOfMatchedTokens, suspicious);
+        if (frozen) {
+            comparison.freeze();
+        }
+        return comparison;
+    }
+
     public boolean isSuspicious() {
         return suspicious;
     }
@@ -37,12 +83,18 @@ public class JPlagComparison implements Comparator<JPlagComparison> { // FIXME T
      * @see Match#Match(int, int, int)
      */
     /* package-private */ final void addMatch(int startOfFirst, int startOfSecond, int length) {
-        for (Match match : matches) {
-            if (match.overlap(startOfFirst, startOfSecond, length)) {
-                return;
-            }
+        if (matchIntervals == null) {
+            matchIntervals = new MatchIntervals();
+            matches.forEach(matchIntervals::add); // only if matches are added after freezing
+        }
+        if (matchIntervals.overlaps(startOfFirst, startOfSecond, length)) {
+            return;
         }
-        matches.add(new Match(startOfFirst, startOfSecond, length));
+        Match match = new Match(startOfFirst, startOfSecond, length);
+        matches.add(match);
+        matchIntervals.add(match);
+        numberOfMatchedTokens += length;
+        frozen = false;
     }
 
     @Override
@@ -57,7 +109,7 @@ public class JPlagComparison implements Comparator<JPlagComparison> { // FIXME T
         }
         return (compare(this, (JPlagComparison) other) == 0);
     }
-    
+
     /**
      * @return the base code matches of the first submission.
      */
@@ -83,12 +135,6 @@ public class JPlagComparison implements Comparator<JPlagComparison> { // FIXME T
      * Get the total number of matched tokens for this comparison.
      */
     public final int getNumberOfMatchedTokens() {
-        int numberOfMatchedTokens = 0;
-
-        for (Match match : matches) {
-            numberOfMatchedTokens += match.getLength();
-        }
-
         return numberOfMatchedTokens;
     }
 
@@ -124,6 +170,9 @@ public class JPlagComparison implements Comparator<JPlagComparison> { // FIXME T
      * @return Similarity in percent (what percentage of tokens across both submissions are matched).
      */
     public final float similarity() {
+        if (frozen) {
+            return similarity;
+        }
         boolean subtractBaseCode = firstSubmission.hasBaseCodeMatches() && secondSubmission.hasBaseCodeMatches();
         float sa = firstSubmission.getSimilarityDivisor(subtractBaseCode);
         float sb = secondSubmission.getSimilarityDivisor(subtractBaseCode);
@@ -135,6 +184,9 @@ public class JPlagComparison implements Comparator<JPlagComparison> { // FIXME T
      * second).
      */
     public final float similarityOfFirst() {
+        if (frozen) {
+            return similarityOfFirst;
+        }
         int divisor = firstSubmission.getSimilarityDivisor(true);
         return (divisor == 0 ? 0f : (getNumberOfMatchedTokens() * 100 / (float) divisor));
     }
@@ -144,6 +196,9 @@ public class JPlagComparison implements Comparator<JPlagComparison> { // FIXME T
      * first).
      */
     public final float similarityOfSecond() {
+        if (frozen) {
+            return similarityOfSecond;
+        }
         int divisor = secondSubmission.getSimilarityDivisor(true);
         return (divisor == 0 ? 0f : (getNumberOfMatchedTokens() * 100 / (float) divisor));
     }
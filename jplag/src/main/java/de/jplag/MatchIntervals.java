@@ -0,0 +1,48 @@
+package de.jplag;
+
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+/**
+ * Interval index over the token ranges of non-overlapping matches, which allows checking whether a new match overlaps
+ * with any of the indexed matches in logarithmic time. As the indexed matches do not overlap, their ranges in each of
+ * the two sequences are disjoint, thus an overlap can only occur with the range that starts last before the end of the
+ * new range.
+ */
+/* package-private */ final class MatchIntervals {
+    private final TreeMap<Integer, Match> matchesByFirstStart = new TreeMap<>();
+    private final TreeMap<Integer, Match> matchesBySecondStart = new TreeMap<>();
+
+    /**
+     * Checks if a match would overlap with any of the indexed matches, see {@link Match#overlap(int, int, int)}.
+     * @param startOfFirst is the starting token index in the first submission.
+     * @param startOfSecond is the starting token index in the second submission.
+     * @param length is the number of tokens.
+     * @return true if it does.
+     */
+    boolean overlaps(int startOfFirst, int startOfSecond, int length) {
+        Entry<Integer, Match> first = matchesByFirstStart.floorEntry(startOfFirst + length - 1);
+        if (first != null && first.getKey() + first.getValue().getLength() > startOfFirst) {
+            return true;
+        }
+        Entry<Integer, Match> second = matchesBySecondStart.floorEntry(startOfSecond + length - 1);
+        return second != null && second.getKey() + second.getValue().getLength() > startOfSecond;
+    }
+
+    /**
+     * Indexes a match, which must not overlap with any of the indexed matches.
+     * @param match is the match to index.
+     */
+    void add(Match match) {
+        matchesByFirstStart.put(match.getStartOfFirst(), match);
+        matchesBySecondStart.put(match.getStartOfSecond(), match);
+    }
+
+    /**
+     * Removes all indexed matches.
+     */
+    void clear() {
+        matchesByFirstStart.clear();
+        matchesBySecondStart.clear();
+    }
+}
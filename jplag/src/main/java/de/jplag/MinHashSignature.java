@@ -0,0 +1,143 @@
+package de.jplag;
+
+import static de.jplag.TokenConstants.FILE_END;
+import static de.jplag.TokenConstants.SEPARATOR_TOKEN;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * MinHash signature of a submission, which allows estimating the Jaccard similarity of the shingle sets of two
+ * submissions without comparing them. A shingle is a sequence of consecutive token types of a fixed length, thus two
+ * submissions that share a match of at least this length share a shingle. Shingles that contain pivot tokens or tokens
+ * matching the base code are ignored, as matches never contain them.
+ * <p>
+ * Each value of the signature is the minimum of a different hash function over all shingles. Two signatures agree in a
+ * value with a probability equal to the Jaccard similarity of the shingle sets.
+ * </p>
+ */
+public final class MinHashSignature {
+    private static final long SHINGLE_MULTIPLIER = 0x9E3779B97F4A7C15L; // odd, thus the rolling hash is invertible
+    private static final long SEED = 0x4A506C6167L; // fixed, signatures of different runs are comparable
+
+    private final long[] values;
+
+    private MinHashSignature(long[] values) {
+        this.values = values;
+    }
+
+    /**
+     * Calculates the signature of a submission, whose base code comparison must be final.
+     * @param submission is the submission.
+     * @param shingleLength is the number of tokens per shingle.
+     * @param numberOfHashes is the number of values of the signature.
+     * @return the signature, where all values are {@link Long#MAX_VALUE} if the submission has no shingle.
+     */
+    public static MinHashSignature of(Submission submission, int shingleLength, int numberOfHashes) {
+        long[] seeds = createSeeds(numberOfHashes);
+        long[] values = new long[numberOfHashes];
+        Arrays.fill(values, Long.MAX_VALUE);
+
+        TokenMarks baseCodeMarks = submission.getBaseCodeMarks();
+        long removalFactor = power(SHINGLE_MULTIPLIER, shingleLength - 1);
+        int[] window = new int[shingleLength]; // types of the current shingle, as a ring buffer
+        long shingleHash = 0;
+        int validTokens = 0; // number of consecutive tokens that may be part of a match
+        TokenList tokenList = submission.getTokenList();
+        for (int index = 0; index < tokenList.size(); index++) {
+            int type = tokenList.getType(index);
+            boolean isMatchable = type >= 0 && type != FILE_END && type != SEPARATOR_TOKEN;
+            if (!isMatchable || (baseCodeMarks != null && baseCodeMarks.isMarked(index))) {
+                validTokens = 0;
+                shingleHash = 0;
+            } else {
+                int slot = index % shingleLength;
+                if (validTokens >= shingleLength) {
+                    shingleHash -= window[slot] * removalFactor;
+                }
+                shingleHash = shingleHash * SHINGLE_MULTIPLIER + type;
+                window[slot] = type;
+                validTokens++;
+                if (validTokens >= shingleLength) {
+                    for (int i = 0; i < numberOfHashes; i++) {
+                        values[i] = Math.min(values[i], mix(shingleHash ^ seeds[i]));
+                    }
+                }
+            }
+        }
+        return new MinHashSignature(values);
+    }
+
+    /**
+     * @return the number of values.
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * @return whether the submission has no shingle, thus it cannot have matches with other submissions.
+     */
+    public boolean isEmpty() {
+        return Arrays.stream(values).allMatch(it -> it == Long.MAX_VALUE);
+    }
+
+    /**
+     * Combines a range of values into a single hash, which is used to assign the signature to buckets.
+     * @param start is the index of the first value.
+     * @param length is the number of values.
+     * @return the hash of the range, equal ranges have equal hashes.
+     */
+    public long hashOfRange(int start, int length) {
+        long hash = length;
+        for (int i = start; i < start + length; i++) {
+            hash = mix(hash * SHINGLE_MULTIPLIER + values[i]);
+        }
+        return hash;
+    }
+
+    /**
+     * Estimates the Jaccard similarity of the shingle sets of two submissions.
+     * @param other is the signature of the other submission, which must have the same size.
+     * @return the fraction of equal values.
+     */
+    public double estimateSimilarity(MinHashSignature other) {
+        int equalValues = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == other.values[i]) {
+                equalValues++;
+            }
+        }
+        return equalValues / (double) values.length;
+    }
+
+    private static long[] createSeeds(int numberOfHashes) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        long[] seeds = new long[numberOfHashes];
+        for (int i = 0; i < numberOfHashes; i++) {
+            seeds[i] = random.nextLong();
+        }
+        return seeds;
+    }
+
+    private static long power(long base, int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= base;
+        }
+        return result;
+    }
+
+    /**
+     * Finalization step of MurmurHash3, which turns the seeded shingle hashes into independent hash values.
+     */
+    private static long mix(long value) {
+        long mixed = value;
+        mixed ^= mixed >>> 33;
+        mixed *= 0xFF51AFD7ED558CCDL;
+        mixed ^= mixed >>> 33;
+        mixed *= 0xC4CEB9FE1A85EC53L;
+        mixed ^= mixed >>> 33;
+        return mixed;
+    }
+}
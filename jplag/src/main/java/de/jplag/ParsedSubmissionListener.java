@@ -0,0 +1,24 @@
+package de.jplag;
+
+/**
+ * Listener that is notified by a {@link SubmissionSet} as soon as a submission is parsed, which allows processing the
+ * submissions while the remaining ones are still parsed. The methods are called from the parsing threads.
+ */
+public interface ParsedSubmissionListener {
+
+    /**
+     * Called once the base code is parsed, which happens before any other submission is parsed.
+     * @param baseCode is the parsed base code submission.
+     */
+    default void baseCodeParsed(Submission baseCode) {
+        // no processing by default
+    }
+
+    /**
+     * Called for each submission that was parsed successfully. Invalid submissions are not reported.
+     * @param submission is the parsed submission.
+     * @param index is the position of the submission among all submissions of the set, which defines the order of the
+     * submissions.
+     */
+    void submissionParsed(Submission submission, int index);
+}
@@ -0,0 +1,53 @@
+package de.jplag;
+
+import de.jplag.options.SimilarityMetric;
+
+/**
+ * Cheap upper bound on the similarity of two submissions, which is derived from their token type histograms without
+ * running the comparison algorithm. A match consists of tokens of equal types, thus the number of matched tokens can
+ * never exceed the histogram intersection of the matchable tokens of both submissions. As all similarity metrics grow
+ * with the number of matched tokens, the metric of a comparison with this number of matched tokens bounds the metric of
+ * the actual comparison.
+ */
+public final class SimilarityUpperBound {
+
+    private SimilarityUpperBound() {
+    }
+
+    /**
+     * Calculates the upper bound on the similarity of two submissions.
+     * @param first is the first submission.
+     * @param second is the second submission.
+     * @param metric is the similarity metric to bound.
+     * @param minimumTokenMatch is the minimum number of tokens of a match.
+     * @return the upper bound, which is at least the similarity of the comparison of both submissions.
+     */
+    public static float of(Submission first, Submission second, SimilarityMetric metric, int minimumTokenMatch) {
+        int matchableTokens = maximumMatchedTokens(first.getTokenTypeHistogram(), second.getTokenTypeHistogram());
+        return withMatchedTokens(first, second, metric, matchableTokens >= minimumTokenMatch ? matchableTokens : 0);
+    }
+
+    /**
+     * Calculates the similarity of two submissions for a given number of matched tokens.
+     * @param first is the first submission.
+     * @param second is the second submission.
+     * @param metric is the similarity metric.
+     * @param matchedTokens is the number of matched tokens.
+     * @return the similarity of a comparison of both submissions with this number of matched tokens.
+     */
+    /* package-private */ static float withMatchedTokens(Submission first, Submission second, SimilarityMetric metric, int matchedTokens) {
+        JPlagComparison optimisticComparison = new JPlagComparison(first, second);
+        if (matchedTokens > 0) {
+            optimisticComparison.addMatch(0, 0, matchedTokens);
+        }
+        return metric.apply(optimisticComparison);
+    }
+
+    private static int maximumMatchedTokens(int[] firstHistogram, int[] secondHistogram) {
+        int intersection = 0;
+        for (int type = 0; type < Math.min(firstHistogram.length, secondHistogram.length); type++) {
+            intersection += Math.min(firstHistogram[type], secondHistogram[type]);
+        }
+        return intersection;
+    }
+}
@@ -0,0 +1,26 @@
+package de.jplag;
+
+/**
+ * Token that was restored from a persistent store, which reproduces the positions and the textual representation of the
+ * original token without its language frontend.
+ */
+/* package-private */ class StoredToken extends Token {
+    private final int index;
+    private final String typeName;
+
+    StoredToken(int type, String file, int line, int column, int length, int index, String typeName) {
+        super(type, file, line, column, length);
+        this.index = index;
+        this.typeName = typeName;
+    }
+
+    @Override
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    protected String type2string() {
+        return typeName;
+    }
+}
@@ -1,7 +1,11 @@
 package de.jplag;
 
+import static de.jplag.TokenConstants.FILE_END;
+import static de.jplag.TokenConstants.SEPARATOR_TOKEN;
+
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
@@ -45,11 +49,31 @@ public class Submission implements Comparable<Submission> {
      */
     private TokenList tokenList;
 
+    /**
+     * Compact view on the parse result for the comparison algorithm, created on demand.
+     */
+    private TokenSequence tokenSequence;
+
     /**
      * Base code comparison
      */
     private JPlagComparison baseCodeComparison;
 
+    /**
+     * Tokens that match the base code, these are excluded from comparisons.
+     */
+    private TokenMarks baseCodeMarks;
+
+    /**
+     * Number of matchable tokens per token type, created on demand.
+     */
+    private int[] tokenTypeHistogram;
+
+    /**
+     * Hash of the token types of the parse result, created on demand.
+     */
+    private String tokenStreamHash;
+
     private final Language language;
     private final ErrorCollector errorCollector;
 
@@ -134,6 +158,57 @@ public class Submission implements Comparable<Submission> {
         return tokenList;
     }
 
+    /**
+     * Returns the compact token view of the parse result, which is created once and reused for all comparisons.
+     * @param minimumMatchLength is the minimum number of tokens of a match, which determines the hash length.
+     * @return the token sequence.
+     */
+    public synchronized TokenSequence getTokenSequence(int minimumMatchLength) {
+        if (tokenSequence == null || tokenSequence.getMinimumMatchLength() != minimumMatchLength) {
+            tokenSequence = new TokenSequence(tokenList, minimumMatchLength);
+        }
+        return tokenSequence;
+    }
+
+    /**
+     * Counts the tokens per token type that can be part of a match, which excludes pivot tokens and tokens that match the
+     * base code. The histogram is created once and reused for all comparisons.
+     * @return the number of matchable tokens, indexed by token type.
+     */
+    /* package-private */ synchronized int[] getTokenTypeHistogram() {
+        if (tokenTypeHistogram == null) {
+            int maximumType = -1;
+            for (int index = 0; index < tokenList.size(); index++) {
+                maximumType = Math.max(maximumType, tokenList.getType(index));
+            }
+            tokenTypeHistogram = new int[maximumType + 1];
+            for (int index = 0; index < tokenList.size(); index++) {
+                int type = tokenList.getType(index);
+                boolean isMatchable = type >= 0 && type != FILE_END && type != SEPARATOR_TOKEN;
+                if (isMatchable && (baseCodeMarks == null || !baseCodeMarks.isMarked(index))) {
+                    tokenTypeHistogram[type]++;
+                }
+            }
+        }
+        return tokenTypeHistogram;
+    }
+
+    /**
+     * Hashes the token types of the parse result, which are the only property of the tokens that the comparison relies on.
+     * Submissions with equal hashes thus lead to equal matches. The hash is created once and reused.
+     * @return the hash in hexadecimal notation.
+     */
+    /* package-private */ synchronized String getTokenStreamHash() {
+        if (tokenStreamHash == null) {
+            ByteBuffer types = ByteBuffer.allocate(tokenList.size() * Integer.BYTES);
+            for (int index = 0; index < tokenList.size(); index++) {
+                types.putInt(tokenList.getType(index));
+            }
+            tokenStreamHash = CacheDirectory.hash(types.array());
+        }
+        return tokenStreamHash;
+    }
+
     /**
      * @return Whether a comparison between the submission and the base code is available.
      */
@@ -155,15 +230,6 @@ public class Submission implements Comparable<Submission> {
         return isNew;
     }
 
-    /**
-     * Resets the base code flag for all tokens of this submission.
-     */
-    public void resetBaseCode() {
-        for (Token token : tokenList.allTokens()) {
-            token.setBasecode(false);
-        }
-    }
-
     /**
      * Sets the base code comparison
      * @param baseCodeComparison is submissions matches with the base code
@@ -178,14 +244,35 @@ public class Submission implements Comparable<Submission> {
      */
     public void setTokenList(TokenList tokenList) {
         this.tokenList = tokenList;
+        tokenSequence = null;
+        tokenTypeHistogram = null;
+        tokenStreamHash = null;
     }
 
     /**
-     * String representation of the code files contained in this submission, annotated with all tokens.
+     * Sets the parse result together with the known hash of its token types, see {@link #getTokenStreamHash()}.
+     */
+    /* package-private */ void setTokenList(TokenList tokenList, String tokenStreamHash) {
+        setTokenList(tokenList);
+        this.tokenStreamHash = tokenStreamHash;
+    }
+
+    /**
+     * Replaces the parse result by a copy with equal tokens in another storage, thus the known hash of the token types
+     * remains valid.
+     */
+    /* package-private */ void replaceTokenList(TokenList copy) {
+        tokenList = copy;
+        tokenSequence = null;
+    }
+
+    /**
+     * String representation of the code files contained in this submission, annotated with all tokens. The files are
+     * resolved through the file dictionary of the tokens.
      * @return the annotated code as string.
      */
     public String getTokenAnnotatedSourcCode() {
-        return TokenPrinter.printTokens(tokenList, files, submissionRootFile);
+        return TokenPrinter.printTokens(tokenList, submissionRootFile, tokenList.getFileNames());
     }
 
     @Override
@@ -237,15 +324,29 @@ public class Submission implements Comparable<Submission> {
         return files.stream().map(File::toPath).map(baseFilePath::relativize).map(Path::toString).toArray(String[]::new);
     }
 
+    /**
+     * @return the tokens that match the base code or null if there was no comparison with the base code.
+     */
+    /* package-private */ TokenMarks getBaseCodeMarks() {
+        return baseCodeMarks;
+    }
+
+    /* package-private */ synchronized void setBaseCodeMarks(TokenMarks baseCodeMarks) {
+        this.baseCodeMarks = baseCodeMarks;
+        tokenTypeHistogram = null;
+    }
+
     /* package-private */ void markAsErroneous() {
         hasErrors = true;
     }
 
     /**
-     * Parse files of the submission.
+     * Parse files of the submission with a specific instance of its language, which must not be used concurrently by other
+     * threads.
+     * @param parser is the language instance used for parsing.
      * @return Whether parsing was successful.
      */
-    /* package-private */ boolean parse(boolean debugParser) {
+    /* package-private */ boolean parse(Language parser, boolean debugParser) {
         if (files == null || files.size() == 0) {
             errorCollector.print("ERROR: nothing to parse for submission \"" + name + "\"", null);
             tokenList = null;
@@ -255,8 +356,8 @@ public class Submission implements Comparable<Submission> {
 
         String[] relativeFilePaths = getRelativeFilePaths(submissionRootFile, files);
 
-        tokenList = language.parse(submissionRootFile, relativeFilePaths);
-        if (!language.hasErrors()) {
+        tokenList = parser.parse(submissionRootFile, relativeFilePaths);
+        if (!parser.hasErrors()) {
             if (tokenList.size() < 3) {
                 errorCollector.print("Submission \"" + name + "\" is too short!", null);
                 tokenList = null;
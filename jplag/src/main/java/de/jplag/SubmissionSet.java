@@ -2,9 +2,16 @@ package de.jplag;
 
 import static java.util.stream.Collectors.toList;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import de.jplag.exceptions.BasecodeException;
@@ -13,7 +20,10 @@ import de.jplag.exceptions.SubmissionException;
 import de.jplag.options.JPlagOptions;
 
 /**
- * Collection of all submissions and their basecode if it exists. Parses all submissions upon creation.
+ * Collection of all submissions and their basecode if it exists. Parses all submissions upon creation. The submissions
+ * are parsed concurrently if the parallelism allows it, where each thread uses its own language instance. The order of
+ * the submissions does not depend on the order in which the parsing finishes. A {@link ParsedSubmissionListener} can
+ * process the submissions while the remaining ones are still parsed.
  */
 public class SubmissionSet {
     /**
@@ -28,22 +38,31 @@ public class SubmissionSet {
      */
     private final Optional<Submission> baseCodeSubmission;
 
+    private final Supplier<Language> languageFactory;
+    private final ParsedSubmissionListener listener;
+    private final Optional<TokenCache> tokenCache;
     private final ErrorCollector errorCollector;
     private final JPlagOptions options;
-    private int errors = 0;
-    private int tooShort = 0;
-    private String currentSubmissionName;
+    private final AtomicInteger errors = new AtomicInteger();
+    private final AtomicInteger tooShort = new AtomicInteger();
+    private final AtomicInteger parsed = new AtomicInteger();
 
     /**
      * @param submissions Submissions to check for plagiarism.
      * @param baseCode Base code submission if it exists.
+     * @param languageFactory creates a language instance for each thread that parses submissions.
+     * @param listener is notified about each parsed submission.
      */
-    public SubmissionSet(List<Submission> submissions, Optional<Submission> baseCode, ErrorCollector errorCollector, JPlagOptions options)
-            throws ExitException {
+    public SubmissionSet(List<Submission> submissions, Optional<Submission> baseCode, Supplier<Language> languageFactory,
+            ParsedSubmissionListener listener, ErrorCollector errorCollector, JPlagOptions options) throws ExitException {
         this.allSubmissions = submissions;
         this.baseCodeSubmission = baseCode;
+        this.languageFactory = languageFactory;
+        this.listener = listener;
         this.errorCollector = errorCollector;
         this.options = options;
+        tokenCache = Optional.ofNullable(options.getTokenCacheDirectory())
+                .map(it -> new TokenCache(new File(it), options.getTokenCacheSize(), options.getTokenCacheAge(), options.getFrontendOptions()));
         parseAllSubmissions();
         this.submissions = filterValidSubmissions();
         invalidSubmissions = filterInvalidSubmissions();
@@ -101,41 +120,57 @@ public class SubmissionSet {
     }
 
     private void parseAllSubmissions() throws ExitException {
-        try {
-            parseSubmissions(allSubmissions);
-            if (baseCodeSubmission.isPresent()) {
-                parseBaseCodeSubmission(baseCodeSubmission.get()); // cannot use ifPresent because of throws declaration
-            }
-        } catch (OutOfMemoryError exception) {
-            throw new SubmissionException("Out of memory during parsing of submission \"" + currentSubmissionName + "\"", exception);
+        if (baseCodeSubmission.isPresent()) {
+            parseBaseCodeSubmission(baseCodeSubmission.get()); // cannot use ifPresent because of throws declaration
         }
+        parseSubmissions(allSubmissions);
         if (errorCollector.hasErrors()) {
             errorCollector.printCollectedErrors();
         }
+        tokenCache.ifPresent(it -> {
+            errorCollector.print(null, "Token cache: " + it.getHits() + " files loaded, " + it.getMisses() + " files parsed");
+            it.evict();
+        });
+    }
+
+    /**
+     * Creates a language instance for a single thread, which consults the token cache if enabled.
+     */
+    private Language createParser() {
+        Language parser = languageFactory.get();
+        return tokenCache.map(it -> it.wrap(parser)).orElse(parser);
     }
 
     /**
      * Parse the given base code submission.
      */
-    private void parseBaseCodeSubmission(Submission baseCode) throws BasecodeException {
+    private void parseBaseCodeSubmission(Submission baseCode) throws BasecodeException, SubmissionException {
         long startTime = System.currentTimeMillis();
         errorCollector.print("----- Parsing basecode submission: " + baseCode.getName(), null);
-        if (!baseCode.parse(options.isDebugParser())) {
+        errorCollector.setCurrentSubmissionName(baseCode.getName());
+        boolean valid;
+        try {
+            valid = baseCode.parse(createParser(), options.isDebugParser());
+        } catch (OutOfMemoryError error) {
+            throw outOfMemory(baseCode, error);
+        }
+        if (!valid) {
             errorCollector.printCollectedErrors();
             throw new BasecodeException("Could not successfully parse basecode submission!");
         } else if (baseCode.getNumberOfTokens() < options.getMinimumTokenMatch()) {
             throw new BasecodeException("Basecode submission contains fewer tokens than minimum match length allows!");
         }
+        storeTokens(baseCode);
         errorCollector.print("Basecode submission parsed!", null);
         long duration = System.currentTimeMillis() - startTime;
         errorCollector.print(null, "Time for parsing Basecode: " + TimeUtil.formatDuration(duration));
-
+        listener.baseCodeParsed(baseCode);
     }
 
     /**
      * Parse all given submissions.
      */
-    private void parseSubmissions(List<Submission> submissions) {
+    private void parseSubmissions(List<Submission> submissions) throws SubmissionException {
         if (submissions.isEmpty()) {
             errorCollector.print("No submissions to parse!", null);
             return;
@@ -145,14 +180,22 @@ public class SubmissionSet {
 
         errorCollector.print("Beginning parsing:", null);
 
-        int counter = 1;
-        for (Submission submission : submissions) {
-            printProgress(counter, submissions.size(), 10);
-            // can't be parallelized at the moment, because the Language class implementations and usage are not thread safe
-            parseSubmission(submission);
-            counter++;
+        int threads = Math.min(options.getParallelism(), submissions.size());
+        if (threads > 1) {
+            parseConcurrently(submissions, threads);
+        } else {
+            Language parser = createParser();
+            for (int index = 0; index < submissions.size(); index++) {
+                try {
+                    parseSubmission(submissions.get(index), index, parser);
+                } catch (OutOfMemoryError error) {
+                    throw outOfMemory(submissions.get(index), error);
+                }
+            }
         }
 
+        int errors = this.errors.get();
+        int tooShort = this.tooShort.get();
         int validSubmissions = submissions.size() - errors - tooShort;
         errorCollector.print(validSubmissions + " submissions parsed successfully!", null);
         errorCollector.print(errors + " parser error" + (errors != 1 ? "s!" : "!") + "", null);
@@ -161,6 +204,51 @@ public class SubmissionSet {
         errorCollector.print("", null); // new line
     }
 
+    /**
+     * Parses the submissions with a fixed number of threads. The language implementations are not thread-safe, thus each
+     * thread lazily creates its own language instance. Each task only writes to its own submission.
+     */
+    private void parseConcurrently(List<Submission> submissions, int threads) throws SubmissionException {
+        ThreadLocal<Language> languages = ThreadLocal.withInitial(this::createParser);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> tasks = new ArrayList<>(submissions.size());
+            for (int index = 0; index < submissions.size(); index++) {
+                Submission submission = submissions.get(index);
+                int submissionIndex = index;
+                tasks.add(executor.submit(() -> parseSubmission(submission, submissionIndex, languages.get())));
+            }
+            for (int index = 0; index < tasks.size(); index++) {
+                awaitParsing(tasks.get(index), submissions.get(index));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Waits until a submission is parsed and rethrows any failure of its parsing task.
+     */
+    private static void awaitParsing(Future<?> task, Submission submission) throws SubmissionException {
+        try {
+            task.get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Parsing of the submissions was interrupted", exception);
+        } catch (ExecutionException exception) {
+            if (exception.getCause()instanceof OutOfMemoryError error) {
+                throw outOfMemory(submission, error);
+            } else if (exception.getCause()instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Parsing of submission \"" + submission.getName() + "\" failed", exception.getCause());
+        }
+    }
+
+    private static SubmissionException outOfMemory(Submission submission, OutOfMemoryError error) {
+        return new SubmissionException("Out of memory during parsing of submission \"" + submission.getName() + "\"", error);
+    }
+
     private void printProgress(int currentSubmission, int totalSubmissions, int milestoneInterval) {
         var roundedPercentage = Math.floorDiv(100 * currentSubmission, totalSubmissions);
         var lastRoundedPercentage = Math.floorDiv(100 * (currentSubmission - 1), totalSubmissions);
@@ -170,29 +258,53 @@ public class SubmissionSet {
         }
     }
 
-    private void parseSubmission(Submission submission) {
-        boolean ok;
+    /**
+     * Parses a single submission and passes it to the listener if it is valid. Submissions that were loaded from a
+     * {@link Corpus} already have their tokens and are not parsed again. The result is printed as a single line, thus the
+     * results of concurrently parsed submissions do not interleave.
+     * @param index is the position of the submission among all submissions.
+     * @param parser is the language instance of the calling thread.
+     */
+    private void parseSubmission(Submission submission, int index, Language parser) {
+        boolean ok = true;
+        boolean loaded = submission.getTokenList() != null;
 
-        errorCollector.print(null, "------ Parsing submission: " + submission.getName());
-        currentSubmissionName = submission.getName();
-        errorCollector.setCurrentSubmissionName(currentSubmissionName);
+        errorCollector.setCurrentSubmissionName(submission.getName());
 
-        if (!(ok = submission.parse(options.isDebugParser()))) {
-            errors++;
+        if (!loaded) {
+            if (!(ok = submission.parse(parser, options.isDebugParser()))) {
+                errors.incrementAndGet();
+            }
         }
 
         if (submission.getTokenList() != null && submission.getNumberOfTokens() < options.getMinimumTokenMatch()) {
             errorCollector.addError("Submission contains fewer tokens than minimum match length allows!");
             submission.setTokenList(null);
-            tooShort++;
+            tooShort.incrementAndGet();
             ok = false;
             submission.markAsErroneous();
         }
+        storeTokens(submission);
 
+        String result = ok ? "OK" : "ERROR -> Submission removed";
+        errorCollector.print(null, "------ " + (loaded ? "Loaded" : "Parsed") + " submission: " + submission.getName() + " -> " + result);
         if (ok) {
-            errorCollector.print(null, "OK");
-        } else {
-            errorCollector.print(null, "ERROR -> Submission removed");
+            listener.submissionParsed(submission, index);
+        }
+        printProgress(parsed.incrementAndGet(), allSubmissions.size(), 10);
+    }
+
+    /**
+     * Replaces the tokens of a valid submission by an off-heap or a column-wise copy if enabled.
+     */
+    private void storeTokens(Submission submission) {
+        if (submission.getTokenList() == null) {
+            return;
+        }
+        if (options.isOffHeapTokens()) {
+            submission.replaceTokenList(submission.getTokenList().toOffHeap());
+        } else if (options.isColumnarTokens()) {
+            submission.replaceTokenList(submission.getTokenList().toColumnar());
         }
     }
 
@@ -4,14 +4,17 @@ import java.io.File;
 import java.io.IOException;
 import java.util.*;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import de.jplag.exceptions.BasecodeException;
+import de.jplag.exceptions.CorpusException;
 import de.jplag.exceptions.ExitException;
 import de.jplag.exceptions.RootDirectoryException;
 import de.jplag.exceptions.SubmissionException;
+import de.jplag.exceptions.TokenStoreException;
 import de.jplag.options.JPlagOptions;
 
 /**
@@ -23,6 +26,7 @@ public class SubmissionSetBuilder {
     private static final Logger logger = LoggerFactory.getLogger(SubmissionSetBuilder.class);
 
     private final Language language;
+    private final Supplier<Language> languageFactory;
     private final JPlagOptions options;
     private final ErrorCollector errorCollector;
     private final Set<String> excludedFileNames; // Set of file names to be excluded in comparison.
@@ -30,12 +34,15 @@ public class SubmissionSetBuilder {
     /**
      * Creates a builder for submission sets.
      * @param language is the language of the submissions.
+     * @param languageFactory creates additional instances of the language for concurrent parsing.
      * @param options are the configured options.
      * @param errorCollector is the interface for error reporting.
      * @param excludedFileNames a list of file names to be excluded
      */
-    public SubmissionSetBuilder(Language language, JPlagOptions options, ErrorCollector errorCollector, Set<String> excludedFileNames) {
+    public SubmissionSetBuilder(Language language, Supplier<Language> languageFactory, JPlagOptions options, ErrorCollector errorCollector,
+            Set<String> excludedFileNames) {
         this.language = language;
+        this.languageFactory = languageFactory;
         this.options = options;
         this.errorCollector = errorCollector;
         this.excludedFileNames = excludedFileNames;
@@ -47,6 +54,19 @@ public class SubmissionSetBuilder {
      * @throws ExitException if the directory cannot be read.
      */
     public SubmissionSet buildSubmissionSet() throws ExitException {
+        return buildSubmissionSet((submission, index) -> {
+            // submissions are processed after the set is built
+        });
+    }
+
+    /**
+     * Builds a submission set for all submissions of a specific directory, where the submissions are passed to a listener
+     * as soon as they are parsed.
+     * @param listener is notified about each parsed submission.
+     * @return the newly built submission set.
+     * @throws ExitException if the directory cannot be read.
+     */
+    public SubmissionSet buildSubmissionSet(ParsedSubmissionListener listener) throws ExitException {
         Set<File> submissionDirectories = verifyRootDirectories(options.getSubmissionDirectories(), true);
         Set<File> oldSubmissionDirectories = verifyRootDirectories(options.getOldSubmissionDirectories(), false);
         checkForNonOverlappingRootDirectories(submissionDirectories, oldSubmissionDirectories);
@@ -64,12 +84,18 @@ public class SubmissionSetBuilder {
         for (File oldDirectory : oldSubmissionDirectories) {
             processRootDirectoryEntries(oldDirectory, multipleRoots, foundSubmissions, false);
         }
+        if (options.getOldCorpusDirectory() != null) {
+            loadCorpus(new File(options.getOldCorpusDirectory()), foundSubmissions);
+        }
 
         Optional<Submission> baseCodeSubmission = loadBaseCode(submissionDirectories, oldSubmissionDirectories, foundSubmissions);
 
         // Merge everything in a submission set.
         List<Submission> submissions = new ArrayList<>(foundSubmissions.values());
-        return new SubmissionSet(submissions, baseCodeSubmission, errorCollector, options);
+        if (options.getTokenStoreFile() != null) {
+            loadTokenStore(new File(options.getTokenStoreFile()), submissions);
+        }
+        return new SubmissionSet(submissions, baseCodeSubmission, languageFactory, listener, errorCollector, options);
     }
 
     /**
@@ -120,6 +146,35 @@ public class SubmissionSetBuilder {
         }
     }
 
+    /**
+     * Adds the submissions of a corpus as old submissions. Submissions of the root directories take precedence over corpus
+     * submissions with the same location.
+     */
+    private void loadCorpus(File corpusDirectory, Map<File, Submission> foundSubmissions) throws CorpusException {
+        Corpus corpus = new Corpus(corpusDirectory, language, options.getFrontendOptions());
+        List<Submission> corpusSubmissions = corpus.load(errorCollector);
+        for (Submission submission : corpusSubmissions) {
+            if (foundSubmissions.putIfAbsent(submission.getRoot(), submission) != null) {
+                logger.info("Corpus submission \"{}\" is also found in a root directory, the latter will be used.", submission.getName());
+            }
+        }
+        logger.info("Loaded {} submissions from corpus \"{}\".", corpusSubmissions.size(), corpusDirectory);
+    }
+
+    /**
+     * Assigns the tokens of a token store to the submissions it contains, which are then not parsed. A missing store is
+     * written after parsing.
+     */
+    private void loadTokenStore(File storeFile, List<Submission> submissions) throws TokenStoreException {
+        TokenStore tokenStore = new TokenStore(storeFile, language, options.getFrontendOptions());
+        if (!tokenStore.exists()) {
+            logger.info("Token store \"{}\" does not exist yet, it will be written after parsing.", storeFile);
+            return;
+        }
+        int loaded = tokenStore.load(submissions);
+        logger.info("Loaded the tokens of {} submissions from token store \"{}\".", loaded, storeFile);
+    }
+
     private Optional<Submission> loadBaseCode(Set<File> submissionDirectories, Set<File> oldSubmissionDirectories,
             Map<File, Submission> foundSubmissions) throws ExitException {
         // Extract the basecode submission if necessary.
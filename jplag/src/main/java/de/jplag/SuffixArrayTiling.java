@@ -0,0 +1,465 @@
+package de.jplag;
+
+import java.util.Arrays;
+
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Tiling algorithm based on a generalized suffix array of both token sequences. In contrast to the
+ * {@link GreedyStringTiling}, which scans both sequences again for every tile length, the longest common prefix of
+ * every position of the first sequence with any position of the second sequence is derived once from the suffix array.
+ * These lengths are upper bounds of the tiles that can start at the positions, as marking tokens only shortens tiles.
+ * The positions are processed from the longest bound to the shortest, and the tile of a position is searched again in
+ * the neighborhood of its suffix when it is processed. If the tile became shorter in the meantime, the position is
+ * processed again with the shorter length. Thus, the longest unmarked tile is always taken next, and ties are resolved
+ * like by the {@link GreedyStringTiling}, in the order of the positions of the first and then of the second sequence.
+ * The suffix array requires O(n log n) time, which suits very large submissions. A search only visits the suffixes of
+ * the second sequence that can still start a tile, as marked suffixes are skipped in amortized almost constant time.
+ * However, it visits all of them that share a prefix at least as long as the tile, in order to resolve ties.
+ */
+public class SuffixArrayTiling extends AbstractTilingAlgorithm {
+    private static final int NONE = -1;
+
+    public SuffixArrayTiling(JPlagOptions options) {
+        super(options);
+    }
+
+    @Override
+    /* package-private */ void tile(TokenSequence firstSequence, TokenMarks firstMarks, TokenSequence secondSequence, TokenMarks secondMarks,
+            JPlagComparison comparison, boolean isBaseCodeComparison) {
+        int minimumTokenMatch = Math.max(options.getMinimumTokenMatch(), 1);
+        int firstSize = firstSequence.size();
+        int secondOffset = firstSize + 1; // position of the second sequence in the text
+
+        int[] text = createText(firstSequence, firstMarks, secondSequence, secondMarks);
+        int[] suffixArray = createSuffixArray(text);
+        int[] ranks = new int[text.length];
+        for (int rank = 0; rank < suffixArray.length; rank++) {
+            ranks[suffixArray[rank]] = rank;
+        }
+        int[] longestCommonPrefixes = createLongestCommonPrefixes(text, suffixArray, ranks);
+        int[] lengths = findLongestPrefixes(suffixArray, longestCommonPrefixes, firstSize, secondOffset);
+
+        CandidateQueue queue = new CandidateQueue(firstSize);
+        for (int x = 0; x < firstSize; x++) {
+            if (lengths[x] >= minimumTokenMatch) {
+                queue.add(x, lengths[x]);
+            }
+        }
+
+        PartnerSearch search = new PartnerSearch(suffixArray, ranks, longestCommonPrefixes, secondOffset, firstMarks, secondMarks, minimumTokenMatch);
+        for (int length = firstSize; length >= minimumTokenMatch; length--) {
+            if (!queue.contains(length)) {
+                continue;
+            }
+            if (!isBaseCodeComparison && isOutcomeDecided(comparison, firstMarks, firstSize, secondMarks, secondSequence.size())) {
+                return; // the remaining tiles cannot change whether the comparison reaches the similarity threshold
+            }
+            for (int x : queue.removeAll(length)) { // in ascending order, like the greedy string tiling
+                if (firstMarks.isMarked(x) || !search.search(x, length)) {
+                    continue;
+                }
+                if (search.length == length) {
+                    comparison.addMatch(x, search.partner, length);
+                    firstMarks.mark(x, length);
+                    secondMarks.mark(search.partner, length);
+                    search.removePartners(search.partner, length);
+                } else { // the tile became shorter, as some of its tokens were marked by longer tiles
+                    queue.add(x, search.length);
+                }
+            }
+        }
+    }
+
+    /**
+     * Concatenates both sequences with a unique separator. Marked tokens are replaced by unique sentinel values, thus no
+     * common prefix can contain them.
+     */
+    private int[] createText(TokenSequence first, TokenMarks firstMarks, TokenSequence second, TokenMarks secondMarks) {
+        int maximumType = 0;
+        for (int i = 0; i < first.size(); i++) {
+            maximumType = Math.max(maximumType, first.getType(i));
+        }
+        for (int i = 0; i < second.size(); i++) {
+            maximumType = Math.max(maximumType, second.getType(i));
+        }
+        int[] text = new int[first.size() + 1 + second.size()];
+        int sentinel = maximumType + 1;
+        for (int i = 0; i < first.size(); i++) {
+            text[i] = firstMarks.isMarked(i) || first.getType(i) < 0 ? sentinel++ : first.getType(i);
+        }
+        text[first.size()] = sentinel++;
+        for (int i = 0; i < second.size(); i++) {
+            text[first.size() + 1 + i] = secondMarks.isMarked(i) || second.getType(i) < 0 ? sentinel++ : second.getType(i);
+        }
+        return text;
+    }
+
+    /**
+     * Creates the suffix array of a text with non-negative values by prefix doubling, where each round sorts the suffixes
+     * by their rank pairs with a radix sort.
+     */
+    private int[] createSuffixArray(int[] text) {
+        int length = text.length;
+        int[] suffixArray = new int[length];
+        int[] ranks = Arrays.copyOf(text, length);
+        int[] nextRanks = new int[length];
+        int[] sorted = new int[length];
+        int alphabetSize = 0;
+        for (int value : text) {
+            alphabetSize = Math.max(alphabetSize, value + 1);
+        }
+        int[] counts = new int[Math.max(alphabetSize, length) + 1];
+
+        for (int i = 0; i < length; i++) { // initial counting sort by the values
+            sorted[i] = i;
+        }
+        countingSort(sorted, suffixArray, ranks, counts, alphabetSize);
+
+        for (int step = 1; step < length; step <<= 1) {
+            int index = 0; // sort by the second rank: suffixes without second half first, then in the previous order
+            for (int i = length - step; i < length; i++) {
+                sorted[index++] = i;
+            }
+            for (int suffix : suffixArray) {
+                if (suffix >= step) {
+                    sorted[index++] = suffix - step;
+                }
+            }
+            countingSort(sorted, suffixArray, ranks, counts, alphabetSize); // stable sort by the first rank
+
+            int classes = 1;
+            nextRanks[suffixArray[0]] = 0;
+            for (int i = 1; i < length; i++) {
+                int current = suffixArray[i];
+                int previous = suffixArray[i - 1];
+                if (ranks[current] != ranks[previous] || secondRank(ranks, current, step) != secondRank(ranks, previous, step)) {
+                    classes++;
+                }
+                nextRanks[current] = classes - 1;
+            }
+            int[] swap = ranks;
+            ranks = nextRanks;
+            nextRanks = swap;
+            alphabetSize = classes;
+            if (classes == length) {
+                break;
+            }
+        }
+        return suffixArray;
+    }
+
+    private static int secondRank(int[] ranks, int suffix, int step) {
+        return suffix + step < ranks.length ? ranks[suffix + step] : -1;
+    }
+
+    /**
+     * Stable counting sort of the suffixes by their current rank.
+     */
+    private static void countingSort(int[] suffixes, int[] result, int[] ranks, int[] counts, int alphabetSize) {
+        Arrays.fill(counts, 0, alphabetSize + 1, 0);
+        for (int suffix : suffixes) {
+            counts[ranks[suffix] + 1]++;
+        }
+        for (int i = 1; i <= alphabetSize; i++) {
+            counts[i] += counts[i - 1];
+        }
+        for (int suffix : suffixes) {
+            result[counts[ranks[suffix]]++] = suffix;
+        }
+    }
+
+    /**
+     * Creates the longest common prefixes of neighboring suffixes with the algorithm of Kasai et al. The entry at rank r is
+     * the common prefix length of the suffixes at rank r - 1 and r.
+     */
+    private int[] createLongestCommonPrefixes(int[] text, int[] suffixArray, int[] ranks) {
+        int[] longestCommonPrefixes = new int[text.length];
+        int prefix = 0;
+        for (int i = 0; i < text.length; i++) {
+            if (ranks[i] == 0) {
+                prefix = 0;
+                continue;
+            }
+            int j = suffixArray[ranks[i] - 1];
+            while (i + prefix < text.length && j + prefix < text.length && text[i + prefix] == text[j + prefix]) {
+                prefix++;
+            }
+            longestCommonPrefixes[ranks[i]] = prefix;
+            if (prefix > 0) {
+                prefix--;
+            }
+        }
+        return longestCommonPrefixes;
+    }
+
+    /**
+     * Determines for every position of the first sequence the longest common prefix with any position of the second
+     * sequence. This is always the prefix with the nearest suffix of the second sequence in the suffix array, either before
+     * or after.
+     */
+    private int[] findLongestPrefixes(int[] suffixArray, int[] longestCommonPrefixes, int firstSize, int secondOffset) {
+        int[] lengths = new int[firstSize];
+        int prefix = 0;
+        for (int rank = 0; rank < suffixArray.length; rank++) { // nearest partner before
+            prefix = Math.min(prefix, longestCommonPrefixes[rank]);
+            int suffix = suffixArray[rank];
+            if (suffix >= secondOffset) {
+                prefix = Integer.MAX_VALUE;
+            } else if (suffix < firstSize) {
+                lengths[suffix] = prefix;
+            }
+        }
+        prefix = 0;
+        for (int rank = suffixArray.length - 1; rank >= 0; rank--) { // nearest partner after
+            int suffix = suffixArray[rank];
+            if (suffix >= secondOffset) {
+                prefix = Integer.MAX_VALUE;
+            } else if (suffix < firstSize) {
+                lengths[suffix] = Math.max(lengths[suffix], prefix);
+            }
+            prefix = Math.min(prefix, longestCommonPrefixes[rank]);
+        }
+        return lengths;
+    }
+
+    /**
+     * Searches the longest unmarked tile that starts at a position of the first sequence. All suffixes of the second
+     * sequence whose common prefix with the suffix of the position is at least as long as the best tile so far are visited,
+     * as marked tokens may shorten the tile with any of them. Suffixes that cannot start a tile anymore are skipped, which
+     * are the suffixes of the first sequence and the ones of the second sequence with less unmarked tokens than the minimum
+     * match length.
+     */
+    private static final class PartnerSearch {
+        private final int[] suffixArray;
+        private final int[] ranks;
+        private final int secondOffset;
+        private final TokenMarks firstMarks;
+        private final TokenMarks secondMarks;
+        private final int minimumTokenMatch;
+        private final RankSkipper following; // skips the ranks after a suffix
+        private final RankSkipper preceding; // skips the ranks before a suffix, in reverse order
+        private int partner; // position of the second sequence of the last found tile
+        private int length; // length of the last found tile
+
+        PartnerSearch(int[] suffixArray, int[] ranks, int[] longestCommonPrefixes, int secondOffset, TokenMarks firstMarks, TokenMarks secondMarks,
+                int minimumTokenMatch) {
+            this.suffixArray = suffixArray;
+            this.ranks = ranks;
+            this.secondOffset = secondOffset;
+            this.firstMarks = firstMarks;
+            this.secondMarks = secondMarks;
+            this.minimumTokenMatch = minimumTokenMatch;
+            int size = suffixArray.length;
+            int[] reversedPrefixes = new int[size];
+            for (int rank = 1; rank < size; rank++) {
+                reversedPrefixes[rank] = longestCommonPrefixes[size - rank];
+            }
+            following = new RankSkipper(longestCommonPrefixes);
+            preceding = new RankSkipper(reversedPrefixes);
+            for (int suffix = 0; suffix < size; suffix++) {
+                if (suffix < secondOffset
+                        || unmarkedLength(secondMarks, suffix - secondOffset, Math.min(minimumTokenMatch, size - suffix)) < minimumTokenMatch) {
+                    removeRank(ranks[suffix]);
+                }
+            }
+        }
+
+        /**
+         * Searches the longest unmarked tile of a position, of equally long tiles the one with the smallest position of the
+         * second sequence.
+         * @param x is the position of the first sequence.
+         * @param maximumLength is an upper bound of the length of the tile.
+         * @return whether a tile of at least the minimum match length exists, which is then stored in {@link #partner} and
+         * {@link #length}.
+         */
+        boolean search(int x, int maximumLength) {
+            int firstLength = unmarkedLength(firstMarks, x, maximumLength);
+            partner = NONE;
+            length = minimumTokenMatch - 1;
+            if (firstLength < minimumTokenMatch) {
+                return false;
+            }
+            int rank = ranks[x];
+            int size = suffixArray.length;
+            int prefix = Integer.MAX_VALUE;
+            for (int other = following.next(rank); other < size; other = following.next(other)) {
+                prefix = Math.min(prefix, following.prefix);
+                if (prefix < Math.max(length, minimumTokenMatch)) {
+                    break;
+                }
+                visit(suffixArray[other], Math.min(prefix, firstLength));
+            }
+            prefix = Integer.MAX_VALUE;
+            for (int other = preceding.next(size - 1 - rank); other < size; other = preceding.next(other)) {
+                prefix = Math.min(prefix, preceding.prefix);
+                if (prefix < Math.max(length, minimumTokenMatch)) {
+                    break;
+                }
+                visit(suffixArray[size - 1 - other], Math.min(prefix, firstLength));
+            }
+            return partner != NONE;
+        }
+
+        /**
+         * Removes the suffixes of the second sequence that cannot start a tile anymore, as a new tile was marked.
+         * @param y is the position of the tile in the second sequence.
+         * @param tileLength is the length of the tile.
+         */
+        void removePartners(int y, int tileLength) {
+            for (int position = Math.max(y - minimumTokenMatch + 1, 0); position < y + tileLength; position++) {
+                removeRank(ranks[secondOffset + position]);
+            }
+        }
+
+        private void removeRank(int rank) {
+            following.remove(rank);
+            preceding.remove(suffixArray.length - 1 - rank);
+        }
+
+        private void visit(int suffix, int maximumLength) {
+            int y = suffix - secondOffset;
+            int tileLength = unmarkedLength(secondMarks, y, maximumLength);
+            if (tileLength > length || tileLength == length && partner != NONE && y < partner) {
+                partner = y;
+                length = tileLength;
+            }
+        }
+
+        /**
+         * @return the number of unmarked tokens from a position on, but at most the given maximum.
+         */
+        private static int unmarkedLength(TokenMarks marks, int start, int maximumLength) {
+            int length = 0;
+            while (length < maximumLength && !marks.isMarked(start + length)) {
+                length++;
+            }
+            return length;
+        }
+    }
+
+    /**
+     * Finds the next rank in the suffix array that was not removed, with a union-find structure over the removed ranks.
+     * Each removed rank points to a later rank and stores the minimum of the longest common prefixes in between, and the
+     * paths are compressed on each search. Thus, removed ranks are skipped in amortized almost constant time.
+     */
+    private static final class RankSkipper {
+        private final int[] longestCommonPrefixes; // of each rank with the rank before
+        private final int[] jumps; // later rank for removed ranks, the rank itself otherwise
+        private final int[] jumpPrefixes; // minimum common prefix of the ranks after a removed rank up to its jump
+        private int[] path = new int[16];
+        private int prefix; // common prefix length of the last search
+
+        RankSkipper(int[] longestCommonPrefixes) {
+            this.longestCommonPrefixes = longestCommonPrefixes;
+            jumps = new int[longestCommonPrefixes.length + 1]; // the last rank is never removed
+            jumpPrefixes = new int[jumps.length];
+            for (int rank = 0; rank < jumps.length; rank++) {
+                jumps[rank] = rank;
+            }
+        }
+
+        /**
+         * Finds the first rank after a rank that was not removed, and stores the common prefix length of both in
+         * {@link #prefix}.
+         * @param rank is the rank.
+         * @return the next rank or the size of the suffix array if there is none.
+         */
+        int next(int rank) {
+            int current = rank + 1;
+            int pathLength = 0;
+            while (jumps[current] != current) {
+                if (pathLength == path.length) {
+                    path = Arrays.copyOf(path, pathLength * 2);
+                }
+                path[pathLength++] = current;
+                current = jumps[current];
+            }
+            int skippedPrefix = Integer.MAX_VALUE;
+            for (int i = pathLength - 1; i >= 0; i--) { // compress the path
+                int removed = path[i];
+                skippedPrefix = Math.min(skippedPrefix, jumpPrefixes[removed]);
+                jumps[removed] = current;
+                jumpPrefixes[removed] = skippedPrefix;
+            }
+            prefix = Math.min(longestCommonPrefixOf(rank + 1), skippedPrefix);
+            return current;
+        }
+
+        /**
+         * Removes a rank, which is skipped by all later searches.
+         */
+        void remove(int rank) {
+            if (jumps[rank] == rank) {
+                jumps[rank] = rank + 1;
+                jumpPrefixes[rank] = longestCommonPrefixOf(rank + 1);
+            }
+        }
+
+        private int longestCommonPrefixOf(int rank) {
+            return rank < longestCommonPrefixes.length ? longestCommonPrefixes[rank] : 0;
+        }
+    }
+
+    /**
+     * Bucket queue of the positions of the first sequence by the upper bound of their tile length. The positions are stored
+     * in primitive arrays and chained per length, as their lengths are bounded by the size of the first sequence.
+     */
+    private static final class CandidateQueue {
+        private final int[] heads; // first candidate per length
+        private final int[] counts; // number of candidates per length
+        private int[] positions = new int[16];
+        private int[] next = new int[16];
+        private int size;
+        private int free = NONE; // chain of removed candidates that can be reused
+
+        CandidateQueue(int maximumLength) {
+            heads = new int[maximumLength + 1];
+            counts = new int[maximumLength + 1];
+            Arrays.fill(heads, NONE);
+        }
+
+        void add(int position, int length) {
+            int candidate;
+            if (free != NONE) {
+                candidate = free;
+                free = next[candidate];
+            } else {
+                if (size == positions.length) {
+                    positions = Arrays.copyOf(positions, size * 2);
+                    next = Arrays.copyOf(next, size * 2);
+                }
+                candidate = size++;
+            }
+            positions[candidate] = position;
+            next[candidate] = heads[length];
+            heads[length] = candidate;
+            counts[length]++;
+        }
+
+        boolean contains(int length) {
+            return heads[length] != NONE;
+        }
+
+        /**
+         * Removes all candidates of a length.
+         * @return their positions in ascending order.
+         */
+        int[] removeAll(int length) {
+            int[] result = new int[counts[length]];
+            int index = 0;
+            int candidate = heads[length];
+            while (candidate != NONE) {
+                result[index++] = positions[candidate];
+                int following = next[candidate];
+                next[candidate] = free;
+                free = candidate;
+                candidate = following;
+            }
+            heads[length] = NONE;
+            counts[length] = 0;
+            Arrays.sort(result);
+            return result;
+        }
+    }
+}
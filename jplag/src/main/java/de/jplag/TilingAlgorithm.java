@@ -0,0 +1,26 @@
+package de.jplag;
+
+/**
+ * Algorithm that compares the token sequences of two submissions and covers their common parts with non-overlapping
+ * tiles, which are reported as {@link Match matches}.
+ */
+public interface TilingAlgorithm {
+
+    /**
+     * Compares two submissions. The base code comparisons of both submissions must be final, as the similarities of the
+     * resulting comparison are cached.
+     * @param firstSubmission is the first submission.
+     * @param secondSubmission is the second submission.
+     * @return the comparison results.
+     */
+    JPlagComparison compare(Submission firstSubmission, Submission secondSubmission);
+
+    /**
+     * Compares a submission with the base code. The tokens of the submission that match the base code are remembered by the
+     * submission and are excluded from all subsequent comparisons.
+     * @param submission is the submission to compare.
+     * @param baseCodeSubmission is the base code.
+     * @return the comparison results.
+     */
+    JPlagComparison compareWithBaseCode(Submission submission, Submission baseCodeSubmission);
+}
@@ -0,0 +1,327 @@
+package de.jplag;
+
+import static de.jplag.CacheDirectory.readVarInt;
+import static de.jplag.CacheDirectory.writeVarInt;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent on-disk cache for the tokens of single files, which allows skipping the parsing of unchanged files across
+ * runs. Entries are addressed by a hash over the language and its version, the relevant frontend options, and the file
+ * content, thus changed files and new versions never hit stale entries. Each entry stores the token stream of one file
+ * in a compact binary form.
+ * <p>
+ * The cache is used by wrapping a language instance with {@link #wrap(Language)}. Only the files without entry are
+ * passed to the wrapped language, and the resulting tokens are split by file and stored. Entries that were not used for
+ * a configurable age or exceed the size limit are evicted by {@link #evict()}, least recently used first.
+ * </p>
+ */
+public class TokenCache {
+    private static final Logger logger = LoggerFactory.getLogger(TokenCache.class);
+
+    private static final int MAGIC = 0x4A504C54; // "JPLT"
+    private static final int FORMAT_VERSION = 2;
+    private static final String ENTRY_SUFFIX = ".tokens";
+
+    private final CacheDirectory directory;
+    private final String optionsFingerprint;
+    private final boolean enabled;
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    /**
+     * Creates a cache in a directory, which is created if necessary.
+     * @param directory is the cache directory.
+     * @param maximumSizeInMegabytes is the size limit of all entries.
+     * @param maximumAgeInDays is the time after which unused entries are evicted, or zero for no limit.
+     * @param frontendOptions are the options of the frontend, which influence the tokens.
+     */
+    public TokenCache(File directory, int maximumSizeInMegabytes, int maximumAgeInDays, FrontendOptions frontendOptions) {
+        this.directory = new CacheDirectory(directory, ENTRY_SUFFIX, "token cache", maximumSizeInMegabytes, maximumAgeInDays);
+        optionsFingerprint = "filter=" + frontendOptions.isBasicFilteringEnabled();
+        enabled = !frontendOptions.isSourceAnalysisEnabled(); // the analysis spans all files, thus their tokens are not independent
+        hits = new LongAdder();
+        misses = new LongAdder();
+    }
+
+    /**
+     * Wraps a language instance, such that it only parses files whose tokens are not cached yet. Languages whose token
+     * types are not stable across runs are not wrapped.
+     * @param language is the language instance, which must not be used concurrently.
+     * @return the wrapped language instance, or the language instance itself if its tokens cannot be cached.
+     */
+    public Language wrap(Language language) {
+        if (!enabled || !language.hasStableTokenTypes()) {
+            return language;
+        }
+        return new CachingLanguage(language);
+    }
+
+    /**
+     * @return the number of files whose tokens were loaded from the cache.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of files that had to be parsed.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Removes the entries that were not used within the maximum age. Afterwards, the least recently used entries are
+     * removed until the cache does not exceed its size limit.
+     */
+    public void evict() {
+        directory.evict();
+    }
+
+    /**
+     * Groups the tokens by their files, which requires that each file of the file dictionary is one of the files.
+     */
+    private static Optional<Map<String, List<Token>>> splitByFile(TokenList tokenList, String[] files) {
+        Map<String, List<Token>> tokensPerFile = new HashMap<>();
+        for (String file : files) {
+            tokensPerFile.put(file, new ArrayList<>());
+        }
+        List<List<Token>> tokensPerFileIndex = tokenList.getFileNames().stream().map(tokensPerFile::get).toList();
+        if (tokensPerFileIndex.contains(null)) {
+            return Optional.empty();
+        }
+        for (int index = 0; index < tokenList.size(); index++) {
+            tokensPerFileIndex.get(tokenList.getFileIndex(index)).add(tokenList.getToken(index));
+        }
+        return Optional.of(tokensPerFile);
+    }
+
+    private void storeAll(Map<String, Path> entries, Map<String, List<Token>> tokensPerFile, String version) {
+        entries.forEach((file, entry) -> {
+            List<Token> tokens = tokensPerFile.get(file);
+            if (tokens != null) {
+                store(entry, tokens, version);
+            }
+        });
+    }
+
+    /**
+     * Determines the entry of a file, whose name is the hash of the language and its version, the frontend options, and the
+     * content.
+     */
+    private Optional<Path> entryOf(Language language, String version, File file) {
+        try {
+            MessageDigest digest = CacheDirectory.createDigest();
+            String key = FORMAT_VERSION + "|" + language.getName() + "|" + version + "|" + optionsFingerprint + "|";
+            digest.update(key.getBytes(StandardCharsets.UTF_8));
+            digest.update(Files.readAllBytes(file.toPath()));
+            return Optional.of(directory.entryOfHash(CacheDirectory.toHex(digest.digest())));
+        } catch (IOException exception) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Loads the tokens of an entry and marks the entry as recently used.
+     * @param file is the current name of the file, as the same content may occur under different names.
+     * @param version is the version of the language, see {@link CacheDirectory#versionOf(Language)}.
+     */
+    private Optional<List<Token>> load(Path entry, String file, String version) {
+        if (!Files.exists(entry)) {
+            return Optional.empty();
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(entry)))) {
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION || !input.readUTF().equals(version)) {
+                return Optional.empty();
+            }
+            Map<Integer, String> typeNames = new HashMap<>();
+            int numberOfTypes = readVarInt(input);
+            for (int i = 0; i < numberOfTypes; i++) {
+                typeNames.put(readVarInt(input), input.readUTF());
+            }
+            int numberOfTokens = readVarInt(input);
+            List<Token> tokens = new ArrayList<>(numberOfTokens);
+            int line = 0;
+            for (int i = 0; i < numberOfTokens; i++) {
+                int type = readVarInt(input);
+                line += readVarInt(input);
+                int column = readVarInt(input);
+                int length = readVarInt(input);
+                int index = readVarInt(input);
+                tokens.add(new StoredToken(type, file, line, column, length, index, typeNames.get(type)));
+            }
+            directory.markAsUsed(entry);
+            return Optional.of(tokens);
+        } catch (IOException | RuntimeException exception) {
+            logger.warn("Ignoring unreadable token cache entry " + entry + ": " + exception.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores the tokens of a file. The entry is written to a temporary file first, thus concurrent runs never read partial
+     * entries.
+     */
+    private void store(Path entry, List<Token> tokens, String version) {
+        directory.write(entry, output -> {
+            output.writeInt(MAGIC);
+            output.writeInt(FORMAT_VERSION);
+            output.writeUTF(version);
+            Map<Integer, String> typeNames = new LinkedHashMap<>();
+            tokens.forEach(it -> typeNames.putIfAbsent(it.getType(), it.toString()));
+            writeVarInt(output, typeNames.size());
+            for (Map.Entry<Integer, String> typeName : typeNames.entrySet()) {
+                writeVarInt(output, typeName.getKey());
+                output.writeUTF(typeName.getValue());
+            }
+            writeVarInt(output, tokens.size());
+            int line = 0;
+            for (Token token : tokens) {
+                writeVarInt(output, token.getType());
+                writeVarInt(output, token.getLine() - line);
+                writeVarInt(output, token.getColumn());
+                writeVarInt(output, token.getLength());
+                writeVarInt(output, token.getIndex());
+                line = token.getLine();
+            }
+        });
+    }
+
+    /**
+     * Language decorator that consults the cache before parsing.
+     */
+    private class CachingLanguage implements Language {
+        private final Language language;
+        private final String version;
+        private boolean errors;
+
+        CachingLanguage(Language language) {
+            this.language = language;
+            version = CacheDirectory.versionOf(language);
+        }
+
+        /**
+         * Parses the files, where cached files are not parsed again. Falls back to parsing all files if the tokens of the
+         * parsed files cannot be attributed to their files.
+         */
+        @Override
+        public TokenList parse(File directory, String[] files) {
+            Map<String, Path> entries = new LinkedHashMap<>();
+            Map<String, List<Token>> tokensPerFile = new HashMap<>();
+            List<String> uncachedFiles = new ArrayList<>();
+            for (String file : files) {
+                Optional<Path> entry = entryOf(language, version, new File(directory, file));
+                Optional<List<Token>> tokens = entry.flatMap(it -> load(it, file, version));
+                if (tokens.isPresent()) {
+                    tokensPerFile.put(file, tokens.get());
+                } else {
+                    entry.ifPresent(it -> entries.put(file, it));
+                    uncachedFiles.add(file);
+                }
+            }
+            hits.add(files.length - uncachedFiles.size());
+            misses.add(uncachedFiles.size());
+
+            errors = false;
+            if (uncachedFiles.size() == files.length) {
+                TokenList tokenList = parseWithLanguage(directory, files);
+                if (!errors) {
+                    splitByFile(tokenList, files).ifPresent(it -> storeAll(entries, it, version));
+                }
+                return tokenList;
+            }
+            if (!uncachedFiles.isEmpty()) {
+                String[] filesToParse = uncachedFiles.toArray(String[]::new);
+                TokenList parsedTokens = parseWithLanguage(directory, filesToParse);
+                if (errors) {
+                    return parsedTokens;
+                }
+                Optional<Map<String, List<Token>>> parsedTokensPerFile = splitByFile(parsedTokens, filesToParse);
+                if (parsedTokensPerFile.isEmpty()) {
+                    return parseWithLanguage(directory, files);
+                }
+                storeAll(entries, parsedTokensPerFile.get(), version);
+                tokensPerFile.putAll(parsedTokensPerFile.get());
+            }
+            TokenList tokenList = new TokenList();
+            for (String file : files) {
+                tokensPerFile.get(file).forEach(tokenList::addToken);
+            }
+            return tokenList;
+        }
+
+        private TokenList parseWithLanguage(File directory, String[] files) {
+            TokenList tokenList = language.parse(directory, files);
+            errors = language.hasErrors();
+            return tokenList;
+        }
+
+        @Override
+        public boolean hasErrors() {
+            return errors;
+        }
+
+        @Override
+        public String[] suffixes() {
+            return language.suffixes();
+        }
+
+        @Override
+        public String getName() {
+            return language.getName();
+        }
+
+        @Override
+        public String getShortName() {
+            return language.getShortName();
+        }
+
+        @Override
+        public int minimumTokenMatch() {
+            return language.minimumTokenMatch();
+        }
+
+        @Override
+        public boolean supportsColumns() {
+            return language.supportsColumns();
+        }
+
+        @Override
+        public boolean isPreformatted() {
+            return language.isPreformatted();
+        }
+
+        @Override
+        public boolean usesIndex() {
+            return language.usesIndex();
+        }
+
+        @Override
+        public int numberOfTokens() {
+            return language.numberOfTokens();
+        }
+
+        @Override
+        public boolean hasStableTokenTypes() {
+            return language.hasStableTokenTypes();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package de.jplag;
+
+/**
+ * Immutable index that maps token window hashes to the positions where they occur. The positions are stored bucket by
+ * bucket in a single primitive array (compressed sparse row layout), which allows iterating over the candidates of a
+ * hash without boxing or copying. Note that all hashes that fall into the same bucket share their positions, thus the
+ * candidates have to be verified by the caller. Within a bucket, the positions are stored in ascending order.
+ */
+public class TokenHashIndex {
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    private final int[] bucketStarts; // bucketStarts[b] to bucketStarts[b + 1] is the range of bucket b in positions.
+    private final int[] positions;
+    private final int shift;
+
+    /**
+     * Creates the index for all positions with a valid hash.
+     * @param hashes contains the window hash per position, where -1 marks positions without valid hash.
+     * @param length is the number of positions to index, starting at position zero.
+     */
+    public TokenHashIndex(long[] hashes, int length) {
+        int entries = 0;
+        for (int i = 0; i < length; i++) {
+            if (hashes[i] != -1) {
+                entries++;
+            }
+        }
+        int bucketBits = Math.max(1, Integer.SIZE - Integer.numberOfLeadingZeros(Math.max(entries - 1, 1)));
+        shift = Long.SIZE - bucketBits;
+        bucketStarts = new int[(1 << bucketBits) + 1];
+        positions = new int[entries];
+
+        for (int i = 0; i < length; i++) { // count entries per bucket
+            if (hashes[i] != -1) {
+                bucketStarts[bucketOf(hashes[i]) + 1]++;
+            }
+        }
+        for (int bucket = 1; bucket < bucketStarts.length; bucket++) { // prefix sum
+            bucketStarts[bucket] += bucketStarts[bucket - 1];
+        }
+        int[] nextFree = new int[bucketStarts.length - 1];
+        System.arraycopy(bucketStarts, 0, nextFree, 0, nextFree.length);
+        for (int i = 0; i < length; i++) { // fill in ascending order
+            if (hashes[i] != -1) {
+                positions[nextFree[bucketOf(hashes[i])]++] = i;
+            }
+        }
+    }
+
+    /**
+     * @param hash is the window hash.
+     * @return the bucket of the hash.
+     */
+    public final int bucketOf(long hash) {
+        return (int) ((hash * GOLDEN_RATIO) >>> shift);
+    }
+
+    /**
+     * @param bucket is the bucket, see {@link #bucketOf(long)}.
+     * @return the index of the first position of the bucket.
+     * @see #getPosition(int)
+     */
+    public final int bucketStart(int bucket) {
+        return bucketStarts[bucket];
+    }
+
+    /**
+     * @param bucket is the bucket, see {@link #bucketOf(long)}.
+     * @return the index after the last position of the bucket.
+     * @see #getPosition(int)
+     */
+    public final int bucketEnd(int bucket) {
+        return bucketStarts[bucket + 1];
+    }
+
+    /**
+     * @param index is an index between {@link #bucketStart(int)} (inclusive) and {@link #bucketEnd(int)} (exclusive).
+     * @return the token position that is stored at this index.
+     */
+    public final int getPosition(int index) {
+        return positions[index];
+    }
+
+    /**
+     * @return the number of indexed positions.
+     */
+    public int size() {
+        return positions.length;
+    }
+}
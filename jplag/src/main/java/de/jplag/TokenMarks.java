@@ -0,0 +1,80 @@
+package de.jplag;
+
+import java.util.Arrays;
+
+/**
+ * Bitset of the tokens of a {@link TokenSequence} that are marked by the comparison algorithm, meaning they cannot be
+ * part of a new match. Each comparison uses its own marks, thus the tokens of a submission are never modified and a
+ * submission can be part of multiple concurrent comparisons.
+ */
+/* package-private */ final class TokenMarks {
+    private static final int ADDRESS_BITS = 6; // 64 bits per word
+
+    private final long[] words;
+
+    /**
+     * Creates the marks for a number of tokens, initially no token is marked.
+     * @param size is the number of tokens.
+     */
+    TokenMarks(int size) {
+        words = new long[(size >>> ADDRESS_BITS) + 1];
+    }
+
+    private TokenMarks(long[] words) {
+        this.words = words;
+    }
+
+    /**
+     * @return whether the token at the given index is marked.
+     */
+    boolean isMarked(int index) {
+        return (words[index >>> ADDRESS_BITS] & (1L << index)) != 0;
+    }
+
+    /**
+     * Marks a single token.
+     * @param index is the index of the token.
+     */
+    void mark(int index) {
+        words[index >>> ADDRESS_BITS] |= 1L << index;
+    }
+
+    /**
+     * Marks a range of consecutive tokens.
+     * @param start is the index of the first token.
+     * @param length is the number of tokens.
+     */
+    void mark(int start, int length) {
+        for (int index = start; index < start + length; index++) {
+            mark(index);
+        }
+    }
+
+    /**
+     * Marks all tokens that are marked in other marks of the same size.
+     * @param other are the other marks.
+     */
+    void markAll(TokenMarks other) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] |= other.words[i];
+        }
+    }
+
+    /**
+     * @return the number of marked tokens.
+     */
+    int countMarked() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * @return a copy of these marks that can be modified independently.
+     */
+    TokenMarks copy() {
+        return new TokenMarks(Arrays.copyOf(words, words.length));
+    }
+}
@@ -0,0 +1,148 @@
+package de.jplag;
+
+import static de.jplag.TokenConstants.FILE_END;
+import static de.jplag.TokenConstants.SEPARATOR_TOKEN;
+
+import java.util.Arrays;
+
+/**
+ * Compact and immutable view on the token types of a {@link TokenList}, which is used by the
+ * {@link GreedyStringTiling}. The token types and the hashes of the token windows are stored in parallel primitive
+ * arrays, which allows the comparison algorithm to scan them sequentially instead of dereferencing a {@link Token}
+ * object for every access.
+ */
+public class TokenSequence {
+    /* package-private */ static final long NO_HASH = -1;
+    private static final long HASH_BASE = 0x100000001B3L; // odd base for the polynomial hash modulo 2^64
+    private static final long TYPE_SPREAD = 0x9E3779B97F4A7C15L; // spreads the type values over all 64 bits
+
+    private final int[] types;
+    private final long[] hashes;
+    private final int hashLength;
+    private final int minimumMatchLength;
+    private final TokenMarks pivotMarks;
+    private TokenHashIndex hashIndex;
+
+    /**
+     * Creates the view for a list of tokens. The hash of a position covers the next &lt;minimumMatchLength&gt; tokens
+     * (including the token itself) and is only valid if none of these tokens is a {@link TokenConstants#FILE_END} or
+     * {@link TokenConstants#SEPARATOR_TOKEN}, as these tokens can never be part of a match.
+     * @param tokenList contains the tokens.
+     * @param minimumMatchLength is the minimum number of tokens of a match, which determines the hash length.
+     */
+    public TokenSequence(TokenList tokenList, int minimumMatchLength) {
+        this.minimumMatchLength = minimumMatchLength;
+        types = new int[tokenList.size()];
+        tokenList.getTypes().get(types); // a bulk copy, also for tokens that are stored off-heap
+        pivotMarks = new TokenMarks(types.length);
+        for (int index = 0; index < types.length; index++) {
+            if (isAlwaysMarked(types[index])) {
+                pivotMarks.mark(index);
+            }
+        }
+        hashLength = Math.max(minimumMatchLength, 1);
+        hashes = createHashes(types, hashLength);
+    }
+
+    /**
+     * @return the number of tokens in the sequence.
+     */
+    public int size() {
+        return types.length;
+    }
+
+    /**
+     * @param index is the token index.
+     * @return the type of the token at the given index.
+     */
+    public int getType(int index) {
+        return types[index];
+    }
+
+    /**
+     * @param index is the token index.
+     * @return the hash of the token window starting at the given index or -1 if the window cannot be part of a match.
+     */
+    public long getHash(int index) {
+        return hashes[index];
+    }
+
+    /**
+     * @return the minimum number of tokens of a match this sequence was created for.
+     */
+    public int getMinimumMatchLength() {
+        return minimumMatchLength;
+    }
+
+    /**
+     * @return the type array, which must not be modified.
+     */
+    /* package-private */ int[] types() {
+        return types;
+    }
+
+    /**
+     * @return the hash array, which must not be modified.
+     */
+    /* package-private */ long[] hashes() {
+        return hashes;
+    }
+
+    /**
+     * @return new marks for a comparison, in which all tokens that can never be part of a match are already marked.
+     */
+    /* package-private */ TokenMarks initialMarks() {
+        return pivotMarks.copy();
+    }
+
+    /**
+     * Returns the index that maps window hashes to the positions where they occur. It is created on first access, as the
+     * smaller sequence of a comparison does not need it.
+     * @return the hash index.
+     */
+    /* package-private */ synchronized TokenHashIndex hashIndex() {
+        if (hashIndex == null) {
+            hashIndex = new TokenHashIndex(hashes, Math.max(types.length - hashLength, 0));
+        }
+        return hashIndex;
+    }
+
+    /**
+     * Creating 64-bit Karp-Rabin hashes in linear time with a rolling polynomial hash function over the full type values. A
+     * computed hash that collides with {@link #NO_HASH} is replaced, which only causes an additional hash collision.
+     */
+    private static long[] createHashes(int[] types, int hashLength) {
+        long[] hashes = new long[types.length];
+        Arrays.fill(hashes, NO_HASH);
+        if (types.length < hashLength) {
+            return hashes;
+        }
+        long factor = 1; // HASH_BASE^(hashLength - 1), used to remove the leading token from the window
+        for (int i = 1; i < hashLength; i++) {
+            factor *= HASH_BASE;
+        }
+        long hash = 0;
+        int hashedLength = 0;
+        for (int i = 0; i < hashLength; i++) {
+            hash = hash * HASH_BASE + spread(types[i]);
+            hashedLength = isAlwaysMarked(types[i]) ? 0 : hashedLength + 1;
+        }
+        int loops = types.length - hashLength;
+        for (int i = 0; i < loops; i++) {
+            if (hashedLength >= hashLength) {
+                hashes[i] = hash != NO_HASH ? hash : 0;
+            }
+            hash = (hash - factor * spread(types[i])) * HASH_BASE + spread(types[i + hashLength]);
+            hashedLength = isAlwaysMarked(types[i + hashLength]) ? 0 : hashedLength + 1;
+        }
+        return hashes;
+    }
+
+    private static long spread(int type) {
+        return (type + 1L) * TYPE_SPREAD;
+    }
+
+    private static boolean isAlwaysMarked(int type) {
+        return type == FILE_END || type == SEPARATOR_TOKEN;
+    }
+}
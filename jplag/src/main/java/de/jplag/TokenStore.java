@@ -0,0 +1,289 @@
+package de.jplag;
+
+import static de.jplag.CacheDirectory.readVarInt;
+import static de.jplag.CacheDirectory.writeVarInt;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+
+import de.jplag.exceptions.TokenStoreException;
+
+/**
+ * Binary file with the tokens of parsed submissions, which is memory-mapped read-only. Processes that check the same
+ * submissions on one machine, for example several JVMs that share a large job, map the same file. Thus, they share a
+ * single copy of the tokens in the page cache instead of parsing the submissions and keeping the tokens each. The file
+ * consists of:
+ * <ul>
+ * <li>A fixed header with the format, the number of submissions and the offset of the metadata.</li>
+ * <li>An offset table with the offset of the token columns, the number of tokens and flags for each submission.</li>
+ * <li>The packed token columns of each submission, which are mapped without copying them.</li>
+ * <li>The metadata: the language, frontend options and versions of the store, and the name, source fingerprint, file
+ * dictionary and token type names of each submission.</li>
+ * </ul>
+ * The header, the offset table and the token columns are little-endian, the columns are aligned to 8 bytes. A store is
+ * never modified. Writing a store replaces the file atomically, thus processes that still map the old file are not
+ * affected. A store is only written if it does not exist, thus concurrent runs never replace each other's store.
+ */
+public class TokenStore {
+    private static final int MAGIC = 0x4A505453; // "JPTS"
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_SIZE = 24;
+    private static final int TABLE_ENTRY_SIZE = 16;
+    private static final int ALIGNMENT = Long.BYTES;
+    private static final int FLAG_TOKEN_INDICES = 1;
+    private static final long MAXIMUM_MAPPING_SIZE = Integer.MAX_VALUE; // mapped buffers are indexed by int
+    private static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private final Path file;
+    private final Language language;
+    private final String optionsFingerprint;
+    private final String version;
+
+    /**
+     * Metadata and location of the tokens of a submission in the store.
+     */
+    private record Entry(String name, String sourceFingerprint, List<String> fileNames, Map<Integer, String> typeNames, long columnsOffset,
+            int numberOfTokens, boolean withTokenIndices) {
+    }
+
+    /**
+     * Opens a token store, which does not have to exist yet.
+     * @param file is the file of the store.
+     * @param language is the language of the submissions.
+     * @param frontendOptions are the options of the frontend, which influence the tokens.
+     */
+    public TokenStore(File file, Language language, FrontendOptions frontendOptions) {
+        this.file = file.toPath().toAbsolutePath();
+        this.language = language;
+        optionsFingerprint = "filter=" + frontendOptions.isBasicFilteringEnabled() + "|analysis=" + frontendOptions.isSourceAnalysisEnabled();
+        version = CacheDirectory.versionOf(language);
+    }
+
+    /**
+     * @return whether the file of the store exists.
+     */
+    public boolean exists() {
+        return Files.exists(file);
+    }
+
+    /**
+     * Maps the store and assigns the stored tokens to the submissions that have no tokens yet and whose files did not
+     * change since the store was written. Their token lists are off-heap and read the mapped file directly.
+     * @param submissions are the submissions that may take their tokens from the store.
+     * @return the number of submissions that got their tokens from the store.
+     * @throws TokenStoreException if the store cannot be read or was written for another language or version.
+     */
+    public int load(Collection<Submission> submissions) throws TokenStoreException {
+        Map<String, Submission> submissionsByName = new HashMap<>();
+        for (Submission submission : submissions) {
+            if (submission.getTokenList() == null) {
+                submissionsByName.put(submission.getName(), submission);
+            }
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) { // mappings stay valid after closing
+            ByteBuffer header = read(channel, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION) {
+                throw new TokenStoreException("Token store \"" + file + "\" has an unsupported format!");
+            }
+            int numberOfEntries = header.getInt();
+            header.getInt(); // reserved
+            long metadataOffset = header.getLong();
+            List<Entry> entries = readEntries(channel, numberOfEntries, metadataOffset);
+
+            int loaded = 0;
+            MappedByteBuffer region = null;
+            long regionOffset = 0;
+            for (Entry entry : entries) {
+                Submission submission = submissionsByName.get(entry.name());
+                if (submission == null || !entry.sourceFingerprint().equals(sourceFingerprint(submission))) {
+                    continue; // not checked or changed since the store was written
+                }
+                long size = DirectTokenStorage.packedSize(entry.numberOfTokens(), entry.withTokenIndices());
+                if (region == null || entry.columnsOffset() + size > regionOffset + region.capacity()) {
+                    regionOffset = entry.columnsOffset();
+                    region = channel.map(FileChannel.MapMode.READ_ONLY, regionOffset, Math.min(MAXIMUM_MAPPING_SIZE, metadataOffset - regionOffset));
+                }
+                ByteBuffer columns = region.slice((int) (entry.columnsOffset() - regionOffset), (int) size).order(BYTE_ORDER);
+                submission.setTokenList(
+                        TokenList.ofPackedColumns(entry.fileNames(), entry.typeNames(), columns, entry.numberOfTokens(), entry.withTokenIndices()));
+                loaded++;
+            }
+            return loaded;
+        } catch (IOException | IndexOutOfBoundsException exception) {
+            throw new TokenStoreException("Cannot read token store \"" + file + "\": " + exception.getMessage(), exception);
+        }
+    }
+
+    /**
+     * Checks that the tokens of the language can be stored, which requires token types that are stable across runs.
+     * @throws TokenStoreException if they cannot be stored.
+     */
+    public void checkStorable() throws TokenStoreException {
+        if (!language.hasStableTokenTypes()) {
+            throw new TokenStoreException("The tokens of language " + language.getName() + " cannot be stored in a token store!");
+        }
+    }
+
+    /**
+     * Writes the tokens of parsed submissions to the store, unless the store exists, for example because another process
+     * created it meanwhile. Submissions without tokens are skipped.
+     * @param submissions are the submissions to store.
+     * @return the number of stored submissions, or nothing if the store exists.
+     * @throws TokenStoreException if the store cannot be written or a submission has too many tokens.
+     */
+    public OptionalInt write(Collection<Submission> submissions) throws TokenStoreException {
+        checkStorable();
+        List<Submission> stored = submissions.stream().filter(it -> it.getTokenList() != null).toList();
+        boolean[] withTokenIndices = new boolean[stored.size()];
+        long[] columnsOffsets = new long[stored.size()];
+        long offset = align(HEADER_SIZE + (long) stored.size() * TABLE_ENTRY_SIZE);
+        for (int i = 0; i < stored.size(); i++) {
+            TokenList tokenList = stored.get(i).getTokenList();
+            withTokenIndices[i] = tokenList.hasTokenIndices();
+            long size = tokenList.packedSize(withTokenIndices[i]);
+            if (size > MAXIMUM_MAPPING_SIZE) {
+                throw new TokenStoreException("Submission " + stored.get(i).getName() + " has too many tokens for a token store!");
+            }
+            columnsOffsets[i] = offset;
+            offset = align(offset + size);
+        }
+        long metadataOffset = offset;
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(BYTE_ORDER);
+        header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(stored.size()).putInt(0).putLong(metadataOffset);
+        ByteBuffer table = ByteBuffer.allocate(stored.size() * TABLE_ENTRY_SIZE).order(BYTE_ORDER);
+        for (int i = 0; i < stored.size(); i++) {
+            table.putLong(columnsOffsets[i]).putInt(stored.get(i).getNumberOfTokens()).putInt(withTokenIndices[i] ? FLAG_TOKEN_INDICES : 0);
+        }
+        boolean written;
+        try {
+            written = CacheDirectory.writeAtomicallyIfAbsent(file, output -> {
+                output.write(header.array());
+                output.write(table.array());
+                long position = HEADER_SIZE + table.capacity();
+                for (int i = 0; i < stored.size(); i++) {
+                    output.write(new byte[(int) (columnsOffsets[i] - position)]); // padding
+                    TokenList tokenList = stored.get(i).getTokenList();
+                    ByteBuffer columns = ByteBuffer.allocate((int) tokenList.packedSize(withTokenIndices[i])).order(BYTE_ORDER);
+                    tokenList.packColumns(withTokenIndices[i], columns);
+                    output.write(columns.array());
+                    position = columnsOffsets[i] + columns.capacity();
+                }
+                output.write(new byte[(int) (metadataOffset - position)]);
+                writeMetadata(output, stored);
+            });
+        } catch (IOException exception) {
+            throw new TokenStoreException("Cannot write token store \"" + file + "\": " + exception.getMessage(), exception);
+        }
+        return written ? OptionalInt.of(stored.size()) : OptionalInt.empty();
+    }
+
+    private List<Entry> readEntries(FileChannel channel, int numberOfEntries, long metadataOffset) throws IOException, TokenStoreException {
+        ByteBuffer table = read(channel, HEADER_SIZE, numberOfEntries * TABLE_ENTRY_SIZE);
+        channel.position(metadataOffset);
+        DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel))); // closed with the channel
+        String languageName = input.readUTF();
+        String fingerprint = input.readUTF();
+        String storeVersion = input.readUTF();
+        if (!languageName.equals(language.getName()) || !fingerprint.equals(optionsFingerprint)) {
+            throw new TokenStoreException("Token store \"" + file + "\" was written for " + languageName + " (" + fingerprint + ") instead of "
+                    + language.getName() + " (" + optionsFingerprint + ")!");
+        } else if (!storeVersion.equals(version)) {
+            throw new TokenStoreException("Token store \"" + file + "\" was written with " + storeVersion + " instead of " + version + "!");
+        }
+        List<Entry> entries = new ArrayList<>(numberOfEntries);
+        for (int i = 0; i < numberOfEntries; i++) {
+            String name = input.readUTF();
+            String sourceFingerprint = input.readUTF();
+            int numberOfFiles = readVarInt(input);
+            List<String> fileNames = new ArrayList<>(numberOfFiles);
+            for (int j = 0; j < numberOfFiles; j++) {
+                fileNames.add(input.readUTF());
+            }
+            int numberOfTypes = readVarInt(input);
+            Map<Integer, String> typeNames = new HashMap<>();
+            for (int j = 0; j < numberOfTypes; j++) {
+                typeNames.put(readVarInt(input), input.readUTF());
+            }
+            long columnsOffset = table.getLong();
+            int numberOfTokens = table.getInt();
+            boolean withTokenIndices = (table.getInt() & FLAG_TOKEN_INDICES) != 0;
+            entries.add(new Entry(name, sourceFingerprint, fileNames, typeNames, columnsOffset, numberOfTokens, withTokenIndices));
+        }
+        return entries;
+    }
+
+    private void writeMetadata(DataOutputStream output, List<Submission> stored) throws IOException {
+        output.writeUTF(language.getName());
+        output.writeUTF(optionsFingerprint);
+        output.writeUTF(version);
+        for (Submission submission : stored) {
+            TokenList tokenList = submission.getTokenList();
+            output.writeUTF(submission.getName());
+            output.writeUTF(sourceFingerprint(submission));
+            writeVarInt(output, tokenList.getFileNames().size());
+            for (String fileName : tokenList.getFileNames()) {
+                output.writeUTF(fileName);
+            }
+            Map<Integer, String> typeNames = new LinkedHashMap<>();
+            for (int index = 0; index < tokenList.size(); index++) {
+                if (!typeNames.containsKey(tokenList.getType(index))) {
+                    typeNames.put(tokenList.getType(index), tokenList.getToken(index).toString());
+                }
+            }
+            writeVarInt(output, typeNames.size());
+            for (Map.Entry<Integer, String> typeName : typeNames.entrySet()) {
+                writeVarInt(output, typeName.getKey());
+                output.writeUTF(typeName.getValue());
+            }
+        }
+    }
+
+    /**
+     * Fingerprints the location, size and modification time of the files of a submission, which detects changed submissions
+     * without reading their files.
+     */
+    private static String sourceFingerprint(Submission submission) {
+        MessageDigest digest = CacheDirectory.createDigest();
+        digest.update(submission.getRoot().getAbsolutePath().getBytes(StandardCharsets.UTF_8));
+        for (File sourceFile : submission.getFiles().stream().sorted().toList()) {
+            String stamp = "|" + sourceFile.getAbsolutePath() + "|" + sourceFile.length() + "|" + sourceFile.lastModified();
+            digest.update(stamp.getBytes(StandardCharsets.UTF_8));
+        }
+        return CacheDirectory.toHex(digest.digest());
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(BYTE_ORDER);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static long align(long offset) {
+        return (offset + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+}
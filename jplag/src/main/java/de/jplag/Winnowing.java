@@ -0,0 +1,97 @@
+package de.jplag;
+
+import java.util.Arrays;
+
+/**
+ * Selects fingerprints of submissions by winnowing, as introduced by Schleimer et al. for MOSS. The candidates are the
+ * window hashes of the {@link TokenSequence}, which cover &lt;minimumMatchLength&gt; tokens each. Of each w consecutive
+ * hashes, the minimum is selected as fingerprint. Thus, two submissions that share a match of at least w +
+ * minimumMatchLength - 1 tokens always share a fingerprint, while only a fraction of about 2 / (w + 1) of all hashes is
+ * selected.
+ * <p>
+ * Hashes of windows that contain pivot tokens or tokens matching the base code are skipped, as matches never contain
+ * them.
+ * </p>
+ */
+public final class Winnowing {
+
+    private Winnowing() {
+    }
+
+    /**
+     * Selects the fingerprints of a submission, whose base code comparison must be final.
+     * @param submission is the submission.
+     * @param minimumMatchLength is the minimum number of tokens of a match, which is the number of tokens per hash.
+     * @param windowSize is the number of consecutive hashes w of which the minimum is selected.
+     * @return the distinct fingerprints in ascending order.
+     */
+    public static long[] fingerprints(Submission submission, int minimumMatchLength, int windowSize) {
+        long[] hashes = validHashes(submission, minimumMatchLength);
+        long[] fingerprints = new long[hashes.length];
+        int numberOfFingerprints = 0;
+        int runStart = 0;
+        while (runStart < hashes.length) {
+            if (hashes[runStart] == TokenSequence.NO_HASH) {
+                runStart++;
+                continue;
+            }
+            int runEnd = runStart;
+            while (runEnd < hashes.length && hashes[runEnd] != TokenSequence.NO_HASH) {
+                runEnd++;
+            }
+            numberOfFingerprints = winnow(hashes, runStart, runEnd, windowSize, fingerprints, numberOfFingerprints);
+            runStart = runEnd;
+        }
+        return Arrays.stream(fingerprints, 0, numberOfFingerprints).sorted().distinct().toArray();
+    }
+
+    /**
+     * Copies the window hashes of the submission, where windows that contain base code tokens are invalidated.
+     */
+    private static long[] validHashes(Submission submission, int minimumMatchLength) {
+        long[] hashes = submission.getTokenSequence(minimumMatchLength).hashes().clone();
+        TokenMarks baseCodeMarks = submission.getBaseCodeMarks();
+        if (baseCodeMarks == null) {
+            return hashes;
+        }
+        int windowLength = Math.max(minimumMatchLength, 1);
+        int nextMarked = Integer.MAX_VALUE; // smallest base code position at or after the current window start
+        for (int start = hashes.length - 1; start >= 0; start--) {
+            if (baseCodeMarks.isMarked(start)) {
+                nextMarked = start;
+            }
+            if (nextMarked - start < windowLength) {
+                hashes[start] = TokenSequence.NO_HASH;
+            }
+        }
+        return hashes;
+    }
+
+    /**
+     * Selects the minimum of each window of a run of valid hashes, where the rightmost minimum wins ties. A selected hash
+     * is only recorded once, even if it is the minimum of several windows. A run shorter than the window contributes its
+     * minimum.
+     * @return the new number of fingerprints.
+     */
+    private static int winnow(long[] hashes, int start, int end, int windowSize, long[] fingerprints, int numberOfFingerprints) {
+        int count = numberOfFingerprints;
+        int selected = -1;
+        int lastWindowStart = Math.max(start, end - windowSize);
+        for (int windowStart = start; windowStart <= lastWindowStart; windowStart++) {
+            int windowEnd = Math.min(windowStart + windowSize, end);
+            if (selected < windowStart) { // the previous minimum left the window
+                selected = windowStart;
+                for (int i = windowStart + 1; i < windowEnd; i++) {
+                    if (hashes[i] <= hashes[selected]) {
+                        selected = i;
+                    }
+                }
+                fingerprints[count++] = hashes[selected];
+            } else if (hashes[windowEnd - 1] <= hashes[selected]) {
+                selected = windowEnd - 1;
+                fingerprints[count++] = hashes[selected];
+            }
+        }
+        return count;
+    }
+}
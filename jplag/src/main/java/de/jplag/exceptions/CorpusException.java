@@ -0,0 +1,20 @@
+package de.jplag.exceptions;
+
+import java.io.Serial;
+
+/**
+ * Exceptions for problems with a corpus of prior submissions that lead to an preemptive exit.
+ */
+public class CorpusException extends ExitException {
+
+    @Serial
+    private static final long serialVersionUID = -2651927493846213378L; // generated
+
+    public CorpusException(String message) {
+        super(message);
+    }
+
+    public CorpusException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
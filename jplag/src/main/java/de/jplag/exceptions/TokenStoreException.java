@@ -0,0 +1,20 @@
+package de.jplag.exceptions;
+
+import java.io.Serial;
+
+/**
+ * Exceptions for problems with a binary token store that lead to an preemptive exit.
+ */
+public class TokenStoreException extends ExitException {
+
+    @Serial
+    private static final long serialVersionUID = 4803315291718376926L; // generated
+
+    public TokenStoreException(String message) {
+        super(message);
+    }
+
+    public TokenStoreException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
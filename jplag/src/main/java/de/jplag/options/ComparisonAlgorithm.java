@@ -0,0 +1,75 @@
+package de.jplag.options;
+
+import static java.util.stream.Collectors.toList;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Function;
+
+import de.jplag.GreedyStringTiling;
+import de.jplag.SuffixArrayTiling;
+import de.jplag.TilingAlgorithm;
+
+/**
+ * Choosable algorithms for the comparison of two submissions.
+ */
+public enum ComparisonAlgorithm {
+    /**
+     * {@link GreedyStringTiling}
+     */
+    GREEDY_STRING_TILING("gst", "Greedy String Tiling (default)", GreedyStringTiling::new),
+    /**
+     * {@link SuffixArrayTiling}
+     */
+    SUFFIX_ARRAY("suffix-array", "Suffix array based tiling (for very large submissions)", SuffixArrayTiling::new);
+
+    private final String name;
+    private final String description;
+    private final Function<JPlagOptions, TilingAlgorithm> constructor;
+
+    ComparisonAlgorithm(String name, String description, Function<JPlagOptions, TilingAlgorithm> constructor) {
+        this.name = name;
+        this.description = description;
+        this.constructor = constructor;
+    }
+
+    /**
+     * @return the specifier for the algorithm.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return a description of the algorithm.
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Creates the algorithm.
+     * @param options are the options the algorithm uses.
+     * @return a new instance of the algorithm.
+     */
+    public TilingAlgorithm create(JPlagOptions options) {
+        return constructor.apply(options);
+    }
+
+    /**
+     * @return a collections of all algorithm names.
+     */
+    public static Collection<String> allNames() {
+        return Arrays.stream(values()).map(ComparisonAlgorithm::getName).collect(toList());
+    }
+
+    /**
+     * Retrieves an algorithm from a specific name.
+     * @param name is that name.
+     * @return the optional algorithm or nothing if no name matches.
+     */
+    public static Optional<ComparisonAlgorithm> fromName(String name) {
+        return Arrays.stream(values()).filter(it -> it.name.equals(name)).findFirst();
+    }
+}
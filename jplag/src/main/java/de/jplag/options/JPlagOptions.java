@@ -10,13 +10,13 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
-import de.jplag.FrontendOptions;
-import de.jplag.experimental.ExperimentalOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import de.jplag.FrontendOptions;
 import de.jplag.Language;
 import de.jplag.clustering.ClusteringOptions;
+import de.jplag.experimental.ExperimentalOptions;
 import de.jplag.strategy.ComparisonMode;
 
 public class JPlagOptions {
@@ -24,8 +24,17 @@ public class JPlagOptions {
     private static final Logger logger = LoggerFactory.getLogger("JPlag");
 
     public static final ComparisonMode DEFAULT_COMPARISON_MODE = NORMAL;
+    public static final ComparisonAlgorithm DEFAULT_COMPARISON_ALGORITHM = ComparisonAlgorithm.GREEDY_STRING_TILING;
     public static final float DEFAULT_SIMILARITY_THRESHOLD = 0;
     public static final int DEFAULT_SHOWN_COMPARISONS = 30;
+    public static final int DEFAULT_TOKEN_CACHE_SIZE = 1024;
+    public static final int DEFAULT_TOKEN_CACHE_AGE = 90;
+    public static final int DEFAULT_COMPARISON_CACHE_SIZE = 1024;
+    public static final int DEFAULT_MIN_HASH_BANDS = 64;
+    public static final int DEFAULT_MIN_HASH_ROWS = 2;
+    public static final int DEFAULT_WINNOWING_WINDOW = 4;
+    public static final int DEFAULT_WINNOWING_FINGERPRINTS = 1;
+    public static final int DEFAULT_PARALLEL_TILING_THRESHOLD = 0;
 
     public static final Charset CHARSET = StandardCharsets.UTF_8;
 
@@ -39,6 +48,102 @@ public class JPlagOptions {
      */
     private ComparisonMode comparisonMode = DEFAULT_COMPARISON_MODE;
 
+    /**
+     * Determines which algorithm to use for the comparison of two submissions.
+     */
+    private ComparisonAlgorithm comparisonAlgorithm = DEFAULT_COMPARISON_ALGORITHM;
+
+    /**
+     * Number of threads used for parsing and by the parallel comparison modes. Defaults to the number of available
+     * processors.
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Number of bands of the MinHash signatures in the MinHash comparison mode. More bands increase the probability that
+     * similar submissions are compared.
+     */
+    private int minHashBands = DEFAULT_MIN_HASH_BANDS;
+
+    /**
+     * Number of signature values per band in the MinHash comparison mode. More values per band decrease the number of
+     * dissimilar submissions that are compared.
+     */
+    private int minHashRows = DEFAULT_MIN_HASH_ROWS;
+
+    /**
+     * Number of consecutive token window hashes of which the winnowing comparison mode selects the minimum as fingerprint.
+     * Matches of at least this window plus the minimum token match minus one tokens always share a fingerprint.
+     */
+    private int winnowingWindow = DEFAULT_WINNOWING_WINDOW;
+
+    /**
+     * Minimum number of shared fingerprints of two submissions in the winnowing comparison mode to compare them.
+     */
+    private int winnowingFingerprints = DEFAULT_WINNOWING_FINGERPRINTS;
+
+    /**
+     * Minimum number of tokens of both submissions of a comparison to scan them in parallel, 0 disables it.
+     */
+    private int parallelTilingThreshold = DEFAULT_PARALLEL_TILING_THRESHOLD;
+
+    /**
+     * If true, the tokens of parsed submissions are stored column-wise in primitive arrays, which needs considerably less
+     * memory for large sets of submissions.
+     */
+    private boolean columnarTokens = false;
+
+    /**
+     * If true, the tokens of parsed submissions are stored column-wise outside of the Java heap, thus the heap size and the
+     * garbage collection pauses do not grow with the number of tokens. Implies column-wise tokens.
+     */
+    private boolean offHeapTokens = false;
+
+    /**
+     * Directory of the persistent token cache, which stores the tokens of parsed files across runs. If null, the cache is
+     * disabled.
+     */
+    private String tokenCacheDirectory;
+
+    /**
+     * Size limit of the token cache in megabytes. The least recently used entries are evicted first.
+     */
+    private int tokenCacheSize = DEFAULT_TOKEN_CACHE_SIZE;
+
+    /**
+     * Number of days after which unused entries of the token cache are evicted. Zero disables the age limit.
+     */
+    private int tokenCacheAge = DEFAULT_TOKEN_CACHE_AGE;
+
+    /**
+     * Directory of the persistent comparison cache, which stores the matches of compared submission pairs across runs. If
+     * null, the cache is disabled.
+     */
+    private String comparisonCacheDirectory;
+
+    /**
+     * Size limit of the comparison cache in megabytes. The least recently used entries are evicted first.
+     */
+    private int comparisonCacheSize = DEFAULT_COMPARISON_CACHE_SIZE;
+
+    /**
+     * Directory of a corpus whose submissions are used as old submissions, which avoids parsing them. If null, no corpus is
+     * used.
+     */
+    private String oldCorpusDirectory;
+
+    /**
+     * Directory of a corpus to which the parsed submissions of a run are appended. If null, nothing is appended.
+     */
+    private String appendCorpusDirectory;
+
+    /**
+     * File of a binary token store, which is memory-mapped read-only. Submissions that are contained in the store take
+     * their tokens from it instead of being parsed. If the file does not exist, the parsed submissions are written to it.
+     * If null, no token store is used.
+     */
+    private String tokenStoreFile;
+
     /**
      * If true, submissions that cannot be parsed will be stored in a separate directory.
      */
@@ -70,18 +175,23 @@ public class JPlagOptions {
      */
     private SimilarityMetric similarityMetric = SimilarityMetric.AVG;
 
+    /**
+     * If true, comparisons only determine whether the similarity reaches the threshold. A comparison then stops as soon as
+     * its similarity is above the threshold, thus the matches and similarities of the results are only lower bounds.
+     * @see JPlagOptions#similarityThreshold
+     */
+    private boolean similarityScreening = false;
+
     /**
      * Tunes the comparison sensitivity by adjusting the minimum token required to be counted as matching section. A smaller
      * <n> increases the sensitivity but might lead to more false-positives.
      */
     private Integer minimumTokenMatch;
 
-
     private final FrontendOptions frontendOptions;
 
     private ExperimentalOptions experimentalOptions;
 
-
     private boolean genericFilteringEnabled = false;
 
     /**
@@ -160,6 +270,10 @@ public class JPlagOptions {
         return comparisonMode;
     }
 
+    public ComparisonAlgorithm getComparisonAlgorithm() {
+        return comparisonAlgorithm;
+    }
+
     public Set<String> getExcludedFiles() {
         return excludedFiles;
     }
@@ -196,10 +310,82 @@ public class JPlagOptions {
         return oldSubmissionDirectories;
     }
 
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public int getMinHashBands() {
+        return minHashBands;
+    }
+
+    public int getMinHashRows() {
+        return minHashRows;
+    }
+
+    public int getWinnowingWindow() {
+        return winnowingWindow;
+    }
+
+    public int getWinnowingFingerprints() {
+        return winnowingFingerprints;
+    }
+
+    /**
+     * @return the minimum number of tokens of both submissions of a comparison to scan the positions of the smaller one in
+     * parallel, or 0 if comparisons are never scanned in parallel.
+     */
+    public int getParallelTilingThreshold() {
+        return parallelTilingThreshold;
+    }
+
+    public String getTokenCacheDirectory() {
+        return tokenCacheDirectory;
+    }
+
+    public int getTokenCacheSize() {
+        return tokenCacheSize;
+    }
+
+    public int getTokenCacheAge() {
+        return tokenCacheAge;
+    }
+
+    public String getComparisonCacheDirectory() {
+        return comparisonCacheDirectory;
+    }
+
+    public int getComparisonCacheSize() {
+        return comparisonCacheSize;
+    }
+
+    public String getOldCorpusDirectory() {
+        return oldCorpusDirectory;
+    }
+
+    public String getAppendCorpusDirectory() {
+        return appendCorpusDirectory;
+    }
+
+    public String getTokenStoreFile() {
+        return tokenStoreFile;
+    }
+
     public SimilarityMetric getSimilarityMetric() {
         return similarityMetric;
     }
 
+    public boolean isSimilarityScreening() {
+        return similarityScreening;
+    }
+
+    public boolean isColumnarTokens() {
+        return columnarTokens;
+    }
+
+    public boolean isOffHeapTokens() {
+        return offHeapTokens;
+    }
+
     public float getSimilarityThreshold() {
         return similarityThreshold;
     }
@@ -236,6 +422,10 @@ public class JPlagOptions {
         this.comparisonMode = comparisonMode;
     }
 
+    public void setComparisonAlgorithm(ComparisonAlgorithm comparisonAlgorithm) {
+        this.comparisonAlgorithm = comparisonAlgorithm;
+    }
+
     public void setDebugParser(boolean debugParser) {
         this.debugParser = debugParser;
     }
@@ -256,7 +446,6 @@ public class JPlagOptions {
         this.language = language;
     }
 
-
     public FrontendOptions getFrontendOptions() {
         return frontendOptions;
     }
@@ -273,7 +462,6 @@ public class JPlagOptions {
         this.frontendOptions.setDualComparisonEnabled(value);
     }
 
-
     public boolean isGenericFilteringEnabled() {
         return genericFilteringEnabled;
     }
@@ -337,6 +525,134 @@ public class JPlagOptions {
         }
     }
 
+    public void setParallelism(Integer parallelism) {
+        if (parallelism == null) {
+            return;
+        }
+        if (parallelism < 1) {
+            logger.warn("Minimum parallelism of 1 used instead of " + parallelism);
+            this.parallelism = 1;
+        } else {
+            this.parallelism = parallelism;
+        }
+    }
+
+    public void setMinHashBands(Integer minHashBands) {
+        if (minHashBands == null) {
+            return;
+        }
+        if (minHashBands < 1) {
+            logger.warn("Minimum of 1 MinHash band used instead of " + minHashBands);
+            this.minHashBands = 1;
+        } else {
+            this.minHashBands = minHashBands;
+        }
+    }
+
+    public void setMinHashRows(Integer minHashRows) {
+        if (minHashRows == null) {
+            return;
+        }
+        if (minHashRows < 1) {
+            logger.warn("Minimum of 1 MinHash row used instead of " + minHashRows);
+            this.minHashRows = 1;
+        } else {
+            this.minHashRows = minHashRows;
+        }
+    }
+
+    public void setWinnowingWindow(Integer winnowingWindow) {
+        if (winnowingWindow == null) {
+            return;
+        }
+        if (winnowingWindow < 1) {
+            logger.warn("Minimum winnowing window of 1 used instead of " + winnowingWindow);
+            this.winnowingWindow = 1;
+        } else {
+            this.winnowingWindow = winnowingWindow;
+        }
+    }
+
+    public void setWinnowingFingerprints(Integer winnowingFingerprints) {
+        if (winnowingFingerprints == null) {
+            return;
+        }
+        if (winnowingFingerprints < 1) {
+            logger.warn("Minimum of 1 shared fingerprint used instead of " + winnowingFingerprints);
+            this.winnowingFingerprints = 1;
+        } else {
+            this.winnowingFingerprints = winnowingFingerprints;
+        }
+    }
+
+    public void setParallelTilingThreshold(Integer parallelTilingThreshold) {
+        if (parallelTilingThreshold == null) {
+            return;
+        }
+        if (parallelTilingThreshold < 0) {
+            logger.warn("Parallel tiling disabled instead of threshold " + parallelTilingThreshold);
+            this.parallelTilingThreshold = 0;
+        } else {
+            this.parallelTilingThreshold = parallelTilingThreshold;
+        }
+    }
+
+    public void setTokenCacheDirectory(String tokenCacheDirectory) {
+        this.tokenCacheDirectory = tokenCacheDirectory;
+    }
+
+    public void setTokenCacheSize(Integer tokenCacheSize) {
+        if (tokenCacheSize == null) {
+            return;
+        }
+        if (tokenCacheSize < 0) {
+            logger.warn("Token cache size cannot be negative, using " + DEFAULT_TOKEN_CACHE_SIZE + " instead of " + tokenCacheSize);
+            this.tokenCacheSize = DEFAULT_TOKEN_CACHE_SIZE;
+        } else {
+            this.tokenCacheSize = tokenCacheSize;
+        }
+    }
+
+    public void setTokenCacheAge(Integer tokenCacheAge) {
+        if (tokenCacheAge == null) {
+            return;
+        }
+        if (tokenCacheAge < 0) {
+            logger.warn("Token cache age cannot be negative, using " + DEFAULT_TOKEN_CACHE_AGE + " instead of " + tokenCacheAge);
+            this.tokenCacheAge = DEFAULT_TOKEN_CACHE_AGE;
+        } else {
+            this.tokenCacheAge = tokenCacheAge;
+        }
+    }
+
+    public void setComparisonCacheDirectory(String comparisonCacheDirectory) {
+        this.comparisonCacheDirectory = comparisonCacheDirectory;
+    }
+
+    public void setComparisonCacheSize(Integer comparisonCacheSize) {
+        if (comparisonCacheSize == null) {
+            return;
+        }
+        if (comparisonCacheSize < 0) {
+            logger.warn("Comparison cache size cannot be negative, using " + DEFAULT_COMPARISON_CACHE_SIZE + " instead of " + comparisonCacheSize);
+            this.comparisonCacheSize = DEFAULT_COMPARISON_CACHE_SIZE;
+        } else {
+            this.comparisonCacheSize = comparisonCacheSize;
+        }
+    }
+
+    public void setOldCorpusDirectory(String oldCorpusDirectory) {
+        this.oldCorpusDirectory = oldCorpusDirectory;
+    }
+
+    public void setAppendCorpusDirectory(String appendCorpusDirectory) {
+        this.appendCorpusDirectory = appendCorpusDirectory;
+    }
+
+    public void setTokenStoreFile(String tokenStoreFile) {
+        this.tokenStoreFile = tokenStoreFile;
+    }
+
     public void setSubmissionDirectories(List<String> submissionDirectories) {
         this.submissionDirectories = submissionDirectories;
     }
@@ -349,6 +665,18 @@ public class JPlagOptions {
         this.similarityMetric = similarityMetric;
     }
 
+    public void setSimilarityScreening(boolean similarityScreening) {
+        this.similarityScreening = similarityScreening;
+    }
+
+    public void setColumnarTokens(boolean columnarTokens) {
+        this.columnarTokens = columnarTokens;
+    }
+
+    public void setOffHeapTokens(boolean offHeapTokens) {
+        this.offHeapTokens = offHeapTokens;
+    }
+
     public void setSimilarityThreshold(float similarityThreshold) {
         if (similarityThreshold > 100) {
             logger.warn("Maximum threshold of 100 used instead of " + similarityThreshold);
@@ -167,7 +167,9 @@ public class ReportObjectFactory {
         int endSecond = usesIndex ? endTokenSecond.getIndex() : endTokenSecond.getLine();
         int tokens = match.getLength();
 
-        return new Match(startTokenFirst.getFile(), startTokenSecond.getFile(), startFirst, endFirst, startSecond, endSecond, tokens);
+        String fileFirst = tokensFirst.getFileNames().get(tokensFirst.getFileIndex(match.getStartOfFirst()));
+        String fileSecond = tokensSecond.getFileNames().get(tokensSecond.getFileIndex(match.getStartOfSecond()));
+        return new Match(fileFirst, fileSecond, startFirst, endFirst, startSecond, endSecond, tokens);
     }
 
     private static List<String> readFileLines(File file) {
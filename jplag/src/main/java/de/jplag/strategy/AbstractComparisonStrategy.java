@@ -1,29 +1,65 @@
 package de.jplag.strategy;
 
-import java.util.ArrayList;
+import java.io.File;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import de.jplag.GreedyStringTiling;
+import de.jplag.ComparisonCache;
 import de.jplag.JPlagComparison;
+import de.jplag.JPlagResult;
+import de.jplag.SimilarityUpperBound;
 import de.jplag.Submission;
 import de.jplag.SubmissionSet;
+import de.jplag.TilingAlgorithm;
 import de.jplag.options.JPlagOptions;
+import de.jplag.options.SimilarityMetric;
 
 public abstract class AbstractComparisonStrategy implements ComparisonStrategy {
 
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
-    private final GreedyStringTiling greedyStringTiling;
+    private final TilingAlgorithm tilingAlgorithm;
+
+    private final LongAdder skippedComparisons; // comparisons that could not reach the similarity threshold
+
+    private final Optional<ComparisonCache> comparisonCache;
 
     protected JPlagOptions options;
 
-    public AbstractComparisonStrategy(JPlagOptions options, GreedyStringTiling greedyStringTiling) {
-        this.greedyStringTiling = greedyStringTiling;
+    public AbstractComparisonStrategy(JPlagOptions options, TilingAlgorithm tilingAlgorithm) {
+        this.tilingAlgorithm = tilingAlgorithm;
         this.options = options;
+        skippedComparisons = new LongAdder();
+        comparisonCache = Optional.ofNullable(options.getComparisonCacheDirectory())
+                .map(it -> new ComparisonCache(new File(it), options.getComparisonCacheSize(), options));
+    }
+
+    /**
+     * Compares the submissions and collects the comparisons with a {@link TopComparisonCollector}, which retains the
+     * matches of the comparisons shown in the report only. These are the most similar comparisons regarding
+     * {@link SimilarityMetric#AVG}, which is the order of the comparisons in the {@link JPlagResult}.
+     */
+    @Override
+    public JPlagResult compareSubmissions(SubmissionSet submissionSet) {
+        long timeBeforeStartInMillis = System.currentTimeMillis();
+        TopComparisonCollector collector = new TopComparisonCollector(options.getMaximumNumberOfComparisons(), SimilarityMetric.AVG);
+        compareSubmissions(submissionSet, collector);
+        long durationInMillis = System.currentTimeMillis() - timeBeforeStartInMillis;
+        return new JPlagResult(collector.getComparisons(), submissionSet, durationInMillis, options);
+    }
+
+    @Override
+    public long getNumberOfSkippedComparisons() {
+        return skippedComparisons.sum();
+    }
+
+    @Override
+    public Optional<ComparisonCache> getComparisonCache() {
+        return comparisonCache;
     }
 
     /**
@@ -36,17 +72,37 @@ public abstract class AbstractComparisonStrategy implements ComparisonStrategy {
     protected void compareSubmissionsToBaseCode(SubmissionSet submissionSet) {
         Submission baseCodeSubmission = submissionSet.getBaseCode();
         for (Submission currentSubmission : submissionSet.getSubmissions()) {
-            JPlagComparison baseCodeComparison = greedyStringTiling.compareWithBaseCode(currentSubmission, baseCodeSubmission);
-            currentSubmission.setBaseCodeComparison(baseCodeComparison);
-            baseCodeSubmission.resetBaseCode();
+            compareSubmissionToBaseCode(currentSubmission, baseCodeSubmission);
         }
     }
 
     /**
-     * Compares two submissions and optionally returns the results if similarity is high enough.
+     * Compares a single submission to the basecode and stores the result in the submission.
+     * @param submission is the submission to compare.
+     * @param baseCodeSubmission is the basecode.
+     */
+    protected void compareSubmissionToBaseCode(Submission submission, Submission baseCodeSubmission) {
+        JPlagComparison baseCodeComparison = tilingAlgorithm.compareWithBaseCode(submission, baseCodeSubmission);
+        submission.setBaseCodeComparison(baseCodeComparison);
+    }
+
+    /**
+     * Compares two submissions and optionally returns the results if similarity is high enough. The comparison is skipped
+     * if an upper bound on the similarity is already below the threshold, see {@link SimilarityUpperBound}. Otherwise, the
+     * comparison cache is consulted before the submissions are compared.
      */
     protected Optional<JPlagComparison> compareSubmissions(Submission first, Submission second, boolean withBaseCode) {
-        JPlagComparison comparison = greedyStringTiling.compare(first, second);
+        float threshold = options.getSimilarityThreshold();
+        if (threshold > 0 && SimilarityUpperBound.of(first, second, options.getSimilarityMetric(), options.getMinimumTokenMatch()) < threshold) {
+            skippedComparisons.increment();
+            return Optional.empty();
+        }
+
+        JPlagComparison comparison = comparisonCache.flatMap(it -> it.load(first, second)).orElseGet(() -> {
+            JPlagComparison computedComparison = tilingAlgorithm.compare(first, second);
+            comparisonCache.ifPresent(it -> it.store(first, second, computedComparison));
+            return computedComparison;
+        });
         logger.info("Comparing " + first.getName() + "-" + second.getName() + ": " + comparison.similarity());
 
         if (options.getSimilarityMetric().isAboveThreshold(comparison, options.getSimilarityThreshold())) {
@@ -56,28 +112,9 @@ public abstract class AbstractComparisonStrategy implements ComparisonStrategy {
     }
 
     /**
-     * @return a list of all submission tuples to be processed.
+     * @return all submission tuples to be processed, which are enumerated on demand.
      */
-    protected static List<SubmissionTuple> buildComparisonTuples(List<Submission> submissions) {
-        List<SubmissionTuple> tuples = new ArrayList<>();
-
-        for (int i = 0; i < (submissions.size() - 1); i++) {
-            Submission first = submissions.get(i);
-            if (first.getTokenList() == null) {
-                continue;
-            }
-
-            for (int j = (i + 1); j < submissions.size(); j++) {
-                Submission second = submissions.get(j);
-                if (second.getTokenList() == null) {
-                    continue;
-                }
-
-                if (first.isNew() || second.isNew()) {
-                    tuples.add(new SubmissionTuple(first, second));
-                }
-            }
-        }
-        return tuples;
+    protected static SubmissionTuples buildComparisonTuples(List<Submission> submissions) {
+        return new SubmissionTuples(submissions);
     }
 }
@@ -0,0 +1,104 @@
+package de.jplag.strategy;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import de.jplag.Submission;
+import de.jplag.SubmissionSet;
+import de.jplag.TilingAlgorithm;
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Base class of strategies for large sets of submissions, which select candidate tuples of submissions by a cheap
+ * filter and only compare these candidates. Only candidates with at least one new submission are compared. The
+ * candidates are compared in parallel with a work-stealing pool.
+ */
+public abstract class CandidateComparisonStrategy extends AbstractComparisonStrategy {
+    private static final int TASKS_PER_THREAD = 16; // splits the candidates finer than the parallelism to balance uneven pairs
+
+    private long numberOfCandidates;
+    private long numberOfTuples;
+
+    protected CandidateComparisonStrategy(JPlagOptions options, TilingAlgorithm tilingAlgorithm) {
+        super(options, tilingAlgorithm);
+    }
+
+    @Override
+    public void compareSubmissions(SubmissionSet submissionSet, ComparisonSink sink) {
+        boolean withBaseCode = submissionSet.hasBaseCode();
+        if (withBaseCode) {
+            compareSubmissionsToBaseCode(submissionSet); // the filters ignore the base code
+        }
+
+        List<Submission> submissions = submissionSet.getSubmissions().stream().filter(it -> it.getTokenList() != null).toList();
+        int parallelism = options.getParallelism();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<SubmissionTuple> candidates = pool.submit(() -> selectCandidates(submissions)).join();
+            numberOfCandidates = candidates.size();
+            numberOfTuples = buildComparisonTuples(submissions).size();
+            int granularity = Math.max(1, candidates.size() / (parallelism * TASKS_PER_THREAD));
+            pool.invoke(new ComparisonTask(candidates, 0, candidates.size(), granularity, withBaseCode, sink));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * @return the number of submission tuples that were selected for comparison in the last run.
+     */
+    public long getNumberOfCandidates() {
+        return numberOfCandidates;
+    }
+
+    /**
+     * @return the number of submission tuples an exhaustive comparison of the last run would have compared.
+     */
+    public long getNumberOfTuples() {
+        return numberOfTuples;
+    }
+
+    /**
+     * Selects the tuples to compare. It runs inside the pool of the strategy, thus parallel streams use its parallelism.
+     * @param submissions are the valid submissions, whose base code comparisons are final.
+     * @return the candidates with at least one new submission, in an order that does not depend on the scheduling.
+     */
+    protected abstract List<SubmissionTuple> selectCandidates(List<Submission> submissions);
+
+    /**
+     * Compares a range of candidates, either directly or by splitting it into two halves.
+     */
+    private class ComparisonTask extends RecursiveAction {
+        private static final long serialVersionUID = 5468923749123503187L; // generated
+
+        private final transient List<SubmissionTuple> candidates;
+        private final int start;
+        private final int end;
+        private final int granularity;
+        private final boolean withBaseCode;
+        private final transient ComparisonSink sink;
+
+        ComparisonTask(List<SubmissionTuple> candidates, int start, int end, int granularity, boolean withBaseCode, ComparisonSink sink) {
+            this.candidates = candidates;
+            this.start = start;
+            this.end = end;
+            this.granularity = granularity;
+            this.withBaseCode = withBaseCode;
+            this.sink = sink;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= granularity) {
+                for (SubmissionTuple tuple : candidates.subList(start, end)) {
+                    compareSubmissions(tuple.getLeft(), tuple.getRight(), withBaseCode).ifPresent(sink::accept);
+                }
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new ComparisonTask(candidates, start, middle, granularity, withBaseCode, sink),
+                    new ComparisonTask(candidates, middle, end, granularity, withBaseCode, sink));
+        }
+    }
+}
@@ -11,7 +11,11 @@ import java.util.Optional;
  */
 public enum ComparisonMode {
     NORMAL("Normal comparison (sequential)"),
-    PARALLEL("Faster comparison (parallel)");
+    PARALLEL("Faster comparison (parallel)"),
+    FORK_JOIN("Faster comparison (parallel with work stealing)"),
+    PIPELINED("Faster comparison (parallel, overlapped with parsing)"),
+    MINHASH("Candidate comparison (parallel, only likely similar pairs by MinHash signatures)"),
+    WINNOWING("Candidate comparison (parallel, only pairs that share winnowing fingerprints)");
 
     private final String name;
     private final String description;
@@ -0,0 +1,18 @@
+package de.jplag.strategy;
+
+import de.jplag.JPlagComparison;
+
+/**
+ * Receives the comparisons of a {@link ComparisonStrategy} as soon as they are computed, which allows consuming them
+ * without collecting all of them first. Parallel strategies call the sink concurrently, thus implementations have to be
+ * thread-safe.
+ */
+@FunctionalInterface
+public interface ComparisonSink {
+
+    /**
+     * Receives a comparison whose similarity reached the similarity threshold.
+     * @param comparison is the comparison.
+     */
+    void accept(JPlagComparison comparison);
+}
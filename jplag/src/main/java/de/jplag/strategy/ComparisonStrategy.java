@@ -1,5 +1,8 @@
 package de.jplag.strategy;
 
+import java.util.Optional;
+
+import de.jplag.ComparisonCache;
 import de.jplag.JPlagResult;
 import de.jplag.SubmissionSet;
 
@@ -14,4 +17,23 @@ public interface ComparisonStrategy {
      * @return the comparison results.
      */
     JPlagResult compareSubmissions(SubmissionSet submissionSet);
+
+    /**
+     * Compares submissions from a set of submissions while considering a given base code. Instead of collecting the
+     * comparisons, each comparison is passed to a sink as soon as it is computed.
+     * @param submissionSet Collection of submissions with optional basecode to compare.
+     * @param sink receives all comparisons whose similarity reaches the similarity threshold.
+     */
+    void compareSubmissions(SubmissionSet submissionSet, ComparisonSink sink);
+
+    /**
+     * @return the number of submission pairs that were not compared so far, as their similarity could not reach the
+     * similarity threshold.
+     */
+    long getNumberOfSkippedComparisons();
+
+    /**
+     * @return the persistent cache that is consulted before comparing two submissions, if enabled.
+     */
+    Optional<ComparisonCache> getComparisonCache();
 }
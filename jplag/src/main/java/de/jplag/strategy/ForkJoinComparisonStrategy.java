@@ -0,0 +1,81 @@
+package de.jplag.strategy;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import de.jplag.SubmissionSet;
+import de.jplag.TilingAlgorithm;
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Strategy for the parallel comparison of submissions with a work-stealing {@link ForkJoinPool}. The range of
+ * submission tuples is split recursively, so idle threads steal the remaining halves of busy threads instead of waiting
+ * for a central queue. The pool signals the completion of all tasks, thus no polling is required.
+ */
+public class ForkJoinComparisonStrategy extends AbstractComparisonStrategy {
+    private static final int TASKS_PER_THREAD = 16; // splits the tuples finer than the parallelism to balance uneven pairs
+
+    public ForkJoinComparisonStrategy(JPlagOptions options, TilingAlgorithm tilingAlgorithm) {
+        super(options, tilingAlgorithm);
+    }
+
+    @Override
+    public void compareSubmissions(SubmissionSet submissionSet, ComparisonSink sink) {
+        boolean withBaseCode = submissionSet.hasBaseCode();
+        if (withBaseCode) {
+            compareSubmissionsToBaseCode(submissionSet);
+        }
+
+        SubmissionTuples tuples = buildComparisonTuples(submissionSet.getSubmissions());
+        int parallelism = options.getParallelism();
+        long granularity = Math.max(1, tuples.size() / (parallelism * TASKS_PER_THREAD));
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new ComparisonTask(tuples, 0, tuples.size(), granularity, withBaseCode, sink));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Compares a range of submission tuples, either directly or by splitting it into two halves.
+     */
+    private class ComparisonTask extends RecursiveAction {
+        private static final long serialVersionUID = -3217612405742618472L; // generated
+
+        private final transient SubmissionTuples tuples;
+        private final long start;
+        private final long end;
+        private final long granularity;
+        private final boolean withBaseCode;
+        private final transient ComparisonSink sink;
+
+        /**
+         * @param tuples are all submission tuples.
+         * @param start is the index of the first tuple of the range.
+         * @param end is the index after the last tuple of the range.
+         * @param granularity is the number of tuples up to which the range is compared directly.
+         * @param withBaseCode specifies if base code is used.
+         * @param sink receives the comparisons.
+         */
+        ComparisonTask(SubmissionTuples tuples, long start, long end, long granularity, boolean withBaseCode, ComparisonSink sink) {
+            this.tuples = tuples;
+            this.start = start;
+            this.end = end;
+            this.granularity = granularity;
+            this.withBaseCode = withBaseCode;
+            this.sink = sink;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= granularity) {
+                tuples.forEach(start, end, tuple -> compareSubmissions(tuple.getLeft(), tuple.getRight(), withBaseCode).ifPresent(sink::accept));
+                return;
+            }
+            long middle = (start + end) >>> 1;
+            invokeAll(new ComparisonTask(tuples, start, middle, granularity, withBaseCode, sink),
+                    new ComparisonTask(tuples, middle, end, granularity, withBaseCode, sink));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package de.jplag.strategy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import de.jplag.MinHashSignature;
+import de.jplag.Submission;
+import de.jplag.TilingAlgorithm;
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Strategy for large sets of submissions, which only compares likely similar submissions. Each submission gets a
+ * {@link MinHashSignature}, which is split into bands of consecutive values. Submissions with an equal band are
+ * candidates, and only candidates with at least one new submission are compared. Similar submissions are candidates
+ * with high probability: For a Jaccard similarity s of the shingle sets, b bands, and r values per band, a pair is a
+ * candidate with probability 1 - (1 - s^r)^b. More bands increase the recall, more values per band decrease the number
+ * of dissimilar candidates.
+ * <p>
+ * Unlike the exhaustive strategies, this strategy may miss similar pairs.
+ * </p>
+ */
+public class MinHashComparisonStrategy extends CandidateComparisonStrategy {
+
+    public MinHashComparisonStrategy(JPlagOptions options, TilingAlgorithm tilingAlgorithm) {
+        super(options, tilingAlgorithm);
+    }
+
+    /**
+     * Assigns the submissions to buckets by each band of their signatures and collects the tuples of submissions that share
+     * a bucket. The tuples are ordered by the positions of their submissions, thus the result does not depend on the
+     * iteration order of the buckets.
+     */
+    @Override
+    protected List<SubmissionTuple> selectCandidates(List<Submission> submissions) {
+        int bands = options.getMinHashBands();
+        int rows = options.getMinHashRows();
+        int shingleLength = options.getMinimumTokenMatch();
+        MinHashSignature[] signatures = IntStream.range(0, submissions.size()).parallel()
+                .mapToObj(index -> MinHashSignature.of(submissions.get(index), shingleLength, bands * rows)).toArray(MinHashSignature[]::new);
+
+        Set<Long> candidateKeys = new HashSet<>(); // sparse, as the candidates are a small fraction of all tuples
+        for (int band = 0; band < bands; band++) {
+            Map<Long, List<Integer>> buckets = new HashMap<>();
+            for (int index = 0; index < signatures.length; index++) {
+                if (signatures[index].isEmpty()) {
+                    continue; // no shingle, thus no match with any other submission
+                }
+                long bucket = signatures[index].hashOfRange(band * rows, rows);
+                buckets.computeIfAbsent(bucket, it -> new ArrayList<>()).add(index);
+            }
+            for (List<Integer> bucket : buckets.values()) {
+                addCandidates(bucket, submissions, candidateKeys);
+            }
+        }
+
+        long[] sortedKeys = candidateKeys.stream().mapToLong(Long::longValue).sorted().toArray();
+        List<SubmissionTuple> candidates = new ArrayList<>(sortedKeys.length);
+        for (long key : sortedKeys) {
+            int second = (int) (key / submissions.size());
+            int first = (int) (key % submissions.size());
+            candidates.add(new SubmissionTuple(submissions.get(first), submissions.get(second)));
+        }
+        return candidates;
+    }
+
+    /**
+     * Adds all tuples of a bucket with at least one new submission to the candidates. A tuple is encoded by the positions
+     * of its submissions, where the first position is smaller than the second.
+     */
+    private static void addCandidates(List<Integer> bucket, List<Submission> submissions, Set<Long> candidateKeys) {
+        for (int i = 1; i < bucket.size(); i++) {
+            int second = bucket.get(i);
+            for (int j = 0; j < i; j++) {
+                int first = bucket.get(j);
+                if (submissions.get(first).isNew() || submissions.get(second).isNew()) {
+                    candidateKeys.add((long) second * submissions.size() + first);
+                }
+            }
+        }
+    }
+}
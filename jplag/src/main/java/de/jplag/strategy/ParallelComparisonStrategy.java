@@ -1,63 +1,52 @@
 package de.jplag.strategy;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicLong;
 
-import de.jplag.GreedyStringTiling;
-import de.jplag.JPlagComparison;
-import de.jplag.JPlagResult;
 import de.jplag.Submission;
 import de.jplag.SubmissionSet;
+import de.jplag.TilingAlgorithm;
 import de.jplag.options.JPlagOptions;
 
 /**
- * Strategy for the parallel comparison of submissions. Uses all available cores and compares in a non-blocking manner.
+ * Strategy for the parallel comparison of submissions. Uses the configured number of threads and compares in a
+ * non-blocking manner. As the comparison algorithm does not modify the submissions, a submission can be part of
+ * multiple concurrent comparisons.
  * @author Timur Saglam
  */
 public class ParallelComparisonStrategy extends AbstractComparisonStrategy {
     private static final int TIMEOUT_IN_SECONDS = 5;
-    private final ConcurrentMap<String, Lock> submissionLocks;
+    private static final int CHUNK_SIZE = 64; // number of tuples per task
     private ExecutorService threadPool;
-    private final List<JPlagComparison> comparisons;
-    private int successfulComparisons;
+    private final AtomicLong successfulComparisons;
 
-    public ParallelComparisonStrategy(JPlagOptions options, GreedyStringTiling greedyStringTiling) {
-        super(options, greedyStringTiling);
-        submissionLocks = new ConcurrentHashMap<>();
-        comparisons = Collections.synchronizedList(new ArrayList<>());
+    public ParallelComparisonStrategy(JPlagOptions options, TilingAlgorithm tilingAlgorithm) {
+        super(options, tilingAlgorithm);
+        successfulComparisons = new AtomicLong();
     }
 
     @Override
-    public JPlagResult compareSubmissions(SubmissionSet submissionSet) {
+    public void compareSubmissions(SubmissionSet submissionSet, ComparisonSink sink) {
         // Initialize:
-        long timeBeforeStartInMillis = System.currentTimeMillis();
         boolean withBaseCode = submissionSet.hasBaseCode();
         if (withBaseCode) {
             compareSubmissionsToBaseCode(submissionSet);
         }
-        threadPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
-        comparisons.clear();
-        submissionLocks.clear();
-        successfulComparisons = 0;
+        threadPool = Executors.newFixedThreadPool(options.getParallelism());
+        successfulComparisons.set(0);
 
         // Parallel compare:
         List<Submission> submissions = submissionSet.getSubmissions();
-        List<SubmissionTuple> tuples = buildComparisonTuples(submissions);
-        Collections.shuffle(tuples); // Reduces how often submission pairs must be re-submitted
-        for (SubmissionTuple tuple : tuples) {
-            threadPool.execute(compareTuple(tuple, withBaseCode));
+        SubmissionTuples tuples = buildComparisonTuples(submissions);
+        for (long start = 0; start < tuples.size(); start += CHUNK_SIZE) {
+            threadPool.execute(compareTuples(tuples, start, Math.min(start + CHUNK_SIZE, tuples.size()), withBaseCode, sink));
         }
 
         // Ensure termination:
-        while (successfulComparisons < tuples.size()) {
+        while (successfulComparisons.get() < tuples.size()) {
             try {
                 Thread.sleep(5);
             } catch (InterruptedException exception) {
@@ -65,53 +54,24 @@ public class ParallelComparisonStrategy extends AbstractComparisonStrategy {
             }
         }
 
-        // Clean up and return result:
+        // Clean up:
         shutdownThreadPool();
-        long durationInMillis = System.currentTimeMillis() - timeBeforeStartInMillis;
-        return new JPlagResult(comparisons, submissionSet, durationInMillis, options);
     }
 
     /**
-     * Creates a runnable which compares a submission tuple. If the submissions are locked, the runnable is re-submitted.
-     * @param tuple contains the submissions to compare.
+     * Creates a runnable which compares a range of submission tuples.
+     * @param tuples contains the submissions to compare.
+     * @param start is the index of the first tuple to compare.
+     * @param end is the index after the last tuple to compare.
      * @param withBaseCode specifies if base code is used.
+     * @param sink receives the comparisons.
      * @return the runnable for parallel use.
      */
-    private Runnable compareTuple(SubmissionTuple tuple, boolean withBaseCode) {
-        return new Runnable() {
-            @Override
-            public void run() {
-                Lock leftLock = getOrCreateLock(tuple.getLeft().getName());
-                Lock rightLock = getOrCreateLock(tuple.getRight().getName());
-                boolean hasLeft = leftLock.tryLock();
-                boolean hasRight = hasLeft && rightLock.tryLock();
-                try {
-                    if (hasLeft && hasRight) { // both locks acquired!
-                        compareSubmissions(tuple.getLeft(), tuple.getRight(), withBaseCode).ifPresent(comparisons::add);
-                        synchronized (this) {
-                            successfulComparisons++;
-                        }
-                    } else {
-                        threadPool.execute(this); // re-submit runnable, as at least one submission is locked.
-                    }
-                } finally {
-                    if (hasRight) {
-                        rightLock.unlock();
-                    }
-                    if (hasLeft) {
-                        leftLock.unlock();
-                    }
-                }
-            }
-        };
-    }
-
-    /**
-     * @return a lock for a given key. If it does not exist, it is created in a thread-safe manner.
-     */
-    private Lock getOrCreateLock(String key) {
-        submissionLocks.putIfAbsent(key, new ReentrantLock()); // atomic operation
-        return submissionLocks.get(key);
+    private Runnable compareTuples(SubmissionTuples tuples, long start, long end, boolean withBaseCode, ComparisonSink sink) {
+        return () -> tuples.forEach(start, end, tuple -> {
+            compareSubmissions(tuple.getLeft(), tuple.getRight(), withBaseCode).ifPresent(sink::accept);
+            successfulComparisons.incrementAndGet();
+        });
     }
 
     /**
@@ -0,0 +1,188 @@
+package de.jplag.strategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import de.jplag.JPlagResult;
+import de.jplag.ParsedSubmissionListener;
+import de.jplag.Submission;
+import de.jplag.SubmissionSet;
+import de.jplag.SubmissionSetBuilder;
+import de.jplag.TilingAlgorithm;
+import de.jplag.options.JPlagOptions;
+import de.jplag.options.SimilarityMetric;
+
+/**
+ * Strategy for the parallel comparison of submissions that overlaps the parsing and the comparison. Each submission
+ * enters the comparison as soon as it is parsed (and compared to the base code), where it is compared to all
+ * submissions that arrived before it. Each tuple is thus compared exactly once, and the submissions of a tuple keep
+ * their original order, so the results are identical to comparing the submissions after parsing them.
+ */
+public class PipelinedComparisonStrategy extends AbstractComparisonStrategy {
+    private static final int GRANULARITY = 16; // number of comparisons up to which a task does not split further
+
+    private Pipeline pipeline; // pipeline of the current run, if started
+    private TopComparisonCollector pipelineCollector;
+
+    public PipelinedComparisonStrategy(JPlagOptions options, TilingAlgorithm tilingAlgorithm) {
+        super(options, tilingAlgorithm);
+    }
+
+    /**
+     * Starts a pipeline that compares the submissions while they are parsed. The returned listener has to be passed to the
+     * {@link SubmissionSetBuilder}, the next call of {@link #compareSubmissions(SubmissionSet)} then waits for the pipeline
+     * and returns its comparisons.
+     * @return the listener that receives the parsed submissions.
+     */
+    public synchronized ParsedSubmissionListener startPipeline() {
+        pipelineCollector = new TopComparisonCollector(options.getMaximumNumberOfComparisons(), SimilarityMetric.AVG);
+        pipeline = new Pipeline(pipelineCollector);
+        return pipeline;
+    }
+
+    /**
+     * Completes the started pipeline, or compares the submissions of the set if no pipeline was started. The duration of a
+     * pipelined run includes the parsing, as both overlap.
+     */
+    @Override
+    public JPlagResult compareSubmissions(SubmissionSet submissionSet) {
+        Pipeline startedPipeline;
+        TopComparisonCollector collector;
+        synchronized (this) {
+            startedPipeline = pipeline;
+            collector = pipelineCollector;
+            pipeline = null;
+            pipelineCollector = null;
+        }
+        if (startedPipeline == null) {
+            return super.compareSubmissions(submissionSet);
+        }
+        startedPipeline.awaitCompletion();
+        long durationInMillis = System.currentTimeMillis() - startedPipeline.startTime;
+        return new JPlagResult(collector.getComparisons(), submissionSet, durationInMillis, options);
+    }
+
+    @Override
+    public void compareSubmissions(SubmissionSet submissionSet, ComparisonSink sink) {
+        Pipeline stagedPipeline = new Pipeline(sink);
+        if (submissionSet.hasBaseCode()) {
+            stagedPipeline.baseCodeParsed(submissionSet.getBaseCode());
+        }
+        List<Submission> submissions = submissionSet.getSubmissions();
+        for (int index = 0; index < submissions.size(); index++) {
+            stagedPipeline.submissionParsed(submissions.get(index), index);
+        }
+        stagedPipeline.awaitCompletion();
+    }
+
+    /**
+     * A submission that entered the pipeline together with its original position.
+     */
+    private record Arrival(Submission submission, int index) {
+    }
+
+    /**
+     * Receives the parsed submissions and schedules their comparisons on a work-stealing pool.
+     */
+    private class Pipeline implements ParsedSubmissionListener {
+        private final long startTime = System.currentTimeMillis();
+        private final ComparisonSink sink;
+        private final ForkJoinPool pool = new ForkJoinPool(options.getParallelism());
+        private final Queue<ForkJoinTask<?>> tasks = new ConcurrentLinkedQueue<>();
+        private final List<Arrival> arrivals = new ArrayList<>(); // guarded by itself
+        private volatile Submission baseCode;
+
+        Pipeline(ComparisonSink sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void baseCodeParsed(Submission baseCode) {
+            this.baseCode = baseCode;
+        }
+
+        @Override
+        public void submissionParsed(Submission submission, int index) {
+            tasks.add(pool.submit(() -> arrive(new Arrival(submission, index))));
+        }
+
+        /**
+         * Compares an arriving submission to the base code first, as the following comparisons rely on the base code marks.
+         * Afterwards, it is compared to all earlier arrivals, while later arrivals compare themselves to it.
+         */
+        private void arrive(Arrival arrival) {
+            Submission baseCodeSubmission = baseCode;
+            if (baseCodeSubmission != null) {
+                compareSubmissionToBaseCode(arrival.submission(), baseCodeSubmission);
+            }
+            Arrival[] predecessors;
+            synchronized (arrivals) {
+                predecessors = arrivals.toArray(Arrival[]::new);
+                arrivals.add(arrival);
+            }
+            new ComparisonTask(arrival, predecessors, 0, predecessors.length).invoke();
+        }
+
+        /**
+         * Waits until all scheduled comparisons are completed and releases the threads of the pool. Must be called after all
+         * submissions have been passed to the pipeline.
+         */
+        void awaitCompletion() {
+            try {
+                for (ForkJoinTask<?> task : tasks) {
+                    task.join();
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        /**
+         * Compares an arrival to a range of its predecessors, either directly or by splitting the range into two halves.
+         */
+        private class ComparisonTask extends RecursiveAction {
+            private static final long serialVersionUID = 6121187442417856398L; // generated
+
+            private final transient Arrival arrival;
+            private final transient Arrival[] predecessors;
+            private final int start;
+            private final int end;
+
+            ComparisonTask(Arrival arrival, Arrival[] predecessors, int start, int end) {
+                this.arrival = arrival;
+                this.predecessors = predecessors;
+                this.start = start;
+                this.end = end;
+            }
+
+            @Override
+            protected void compute() {
+                if (end - start <= GRANULARITY) {
+                    for (int i = start; i < end; i++) {
+                        compare(predecessors[i], arrival);
+                    }
+                    return;
+                }
+                int middle = (start + end) >>> 1;
+                invokeAll(new ComparisonTask(arrival, predecessors, start, middle), new ComparisonTask(arrival, predecessors, middle, end));
+            }
+
+            /**
+             * Compares two arrivals in their original order, if at least one of them is a new submission.
+             */
+            private void compare(Arrival some, Arrival other) {
+                if (!some.submission().isNew() && !other.submission().isNew()) {
+                    return;
+                }
+                Arrival first = some.index() < other.index() ? some : other;
+                Arrival second = first == some ? other : some;
+                compareSubmissions(first.submission(), second.submission(), baseCode != null).ifPresent(sink::accept);
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package de.jplag.strategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import de.jplag.Submission;
+
+/**
+ * All submission tuples that have to be compared, which are enumerated on demand instead of being stored. Each tuple
+ * has a linear index, thus strategies can consume the tuples in arbitrary ranges. Only tuples with at least one new
+ * submission are enumerated, and submissions without tokens are skipped. Within a tuple, the submissions keep their
+ * original order.
+ */
+public class SubmissionTuples {
+    private final Submission[] submissions; // new submissions first, then old submissions
+    private final int[] originalIndices;
+    private final int numberOfNewSubmissions;
+    private final long size;
+
+    /**
+     * Creates the tuples of a list of submissions.
+     * @param submissions are the submissions to compare.
+     */
+    public SubmissionTuples(List<Submission> submissions) {
+        List<Integer> newIndices = new ArrayList<>();
+        List<Integer> oldIndices = new ArrayList<>();
+        for (int index = 0; index < submissions.size(); index++) {
+            Submission submission = submissions.get(index);
+            if (submission.getTokenList() != null) {
+                (submission.isNew() ? newIndices : oldIndices).add(index);
+            }
+        }
+        numberOfNewSubmissions = newIndices.size();
+        newIndices.addAll(oldIndices);
+        this.submissions = new Submission[newIndices.size()];
+        originalIndices = new int[newIndices.size()];
+        for (int index = 0; index < originalIndices.length; index++) {
+            originalIndices[index] = newIndices.get(index);
+            this.submissions[index] = submissions.get(originalIndices[index]);
+        }
+        size = rowOffset(numberOfNewSubmissions);
+    }
+
+    /**
+     * @return the number of tuples.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Determines the tuple with a specific index.
+     * @param index is the index, which has to be smaller than {@link #size()}.
+     * @return the tuple.
+     */
+    public SubmissionTuple get(long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Tuple index " + index + " out of bounds for size " + size);
+        }
+        int row = rowOf(index);
+        return createTuple(row, (int) (index - rowOffset(row)) + row + 1);
+    }
+
+    /**
+     * Enumerates a range of tuples in the order of their indices.
+     * @param start is the index of the first tuple.
+     * @param end is the index after the last tuple.
+     * @param action is called for each tuple.
+     */
+    public void forEach(long start, long end, Consumer<SubmissionTuple> action) {
+        if (start >= end) {
+            return;
+        }
+        SubmissionTuple first = get(start); // validates the start
+        action.accept(first);
+        int row = rowOf(start);
+        int column = (int) (start - rowOffset(row)) + row + 1;
+        for (long index = start + 1; index < Math.min(end, size); index++) {
+            if (++column == submissions.length) {
+                row++;
+                column = row + 1;
+            }
+            action.accept(createTuple(row, column));
+        }
+    }
+
+    private SubmissionTuple createTuple(int row, int column) {
+        if (originalIndices[row] < originalIndices[column]) {
+            return new SubmissionTuple(submissions[row], submissions[column]);
+        }
+        return new SubmissionTuple(submissions[column], submissions[row]);
+    }
+
+    /**
+     * Row i contains the tuples of submission i with all submissions after it, thus it starts at the index i * (2n - i - 1)
+     * / 2.
+     */
+    private long rowOffset(long row) {
+        return row * (2L * submissions.length - row - 1) / 2;
+    }
+
+    /**
+     * Inverts {@link #rowOffset(long)} by solving the quadratic equation, the result is corrected for rounding errors.
+     */
+    private int rowOf(long index) {
+        double base = 2.0 * submissions.length - 1;
+        int row = (int) ((base - Math.sqrt(base * base - 8.0 * index)) / 2);
+        row = Math.max(0, Math.min(row, numberOfNewSubmissions - 1));
+        while (row > 0 && rowOffset(row) > index) {
+            row--;
+        }
+        while (row + 1 < numberOfNewSubmissions && rowOffset(row + 1) <= index) {
+            row++;
+        }
+        return row;
+    }
+}
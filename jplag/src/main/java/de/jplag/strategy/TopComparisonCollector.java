@@ -0,0 +1,84 @@
+package de.jplag.strategy;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.jplag.JPlagComparison;
+import de.jplag.options.SimilarityMetric;
+
+/**
+ * Thread-safe and lock-free {@link ComparisonSink} that retains the matches of only the most similar comparisons. All
+ * other comparisons are replaced by lightweight copies without matches (see {@link JPlagComparison#withoutMatches()}),
+ * thus their similarities remain available for the similarity distribution and the clustering, while the memory for
+ * matches is bounded by the number of retained comparisons. Equally similar comparisons are ranked by the names of
+ * their submissions, thus the result does not depend on the order in which the comparisons are received. Only
+ * comparisons whose submissions also have equal names are ranked by the order in which they are received, which keeps
+ * the order total, so no comparison is lost.
+ */
+public class TopComparisonCollector implements ComparisonSink {
+    private static final Comparator<RankedComparison> ORDER = Comparator.comparingDouble(RankedComparison::score)
+            .thenComparing(it -> it.comparison().getFirstSubmission().getName()).thenComparing(it -> it.comparison().getSecondSubmission().getName())
+            .thenComparingLong(RankedComparison::sequenceNumber);
+
+    private final int capacity;
+    private final SimilarityMetric metric;
+    private final ConcurrentSkipListSet<RankedComparison> topComparisons; // ascending, thus the first one is evicted
+    private final AtomicInteger numberOfTopComparisons;
+    private final AtomicLong sequenceNumber;
+    private final ConcurrentLinkedQueue<JPlagComparison> otherComparisons;
+
+    /**
+     * Creates the collector.
+     * @param capacity is the number of comparisons whose matches are retained, or -1 to retain all matches.
+     * @param metric determines which comparisons are the most similar ones.
+     */
+    public TopComparisonCollector(int capacity, SimilarityMetric metric) {
+        this.capacity = capacity;
+        this.metric = metric;
+        topComparisons = new ConcurrentSkipListSet<>(ORDER);
+        numberOfTopComparisons = new AtomicInteger();
+        sequenceNumber = new AtomicLong();
+        otherComparisons = new ConcurrentLinkedQueue<>();
+    }
+
+    @Override
+    public void accept(JPlagComparison comparison) {
+        if (capacity < 0) {
+            otherComparisons.add(comparison);
+            return;
+        }
+        RankedComparison ranked = new RankedComparison(comparison, metric.apply(comparison), sequenceNumber.getAndIncrement());
+        if (!topComparisons.add(ranked)) {
+            otherComparisons.add(comparison.withoutMatches());
+            return;
+        }
+        if (numberOfTopComparisons.incrementAndGet() > capacity) {
+            RankedComparison evicted = topComparisons.pollFirst();
+            if (evicted != null) {
+                numberOfTopComparisons.decrementAndGet();
+                otherComparisons.add(evicted.comparison().withoutMatches());
+            }
+        }
+    }
+
+    /**
+     * @return all received comparisons, where only the most similar ones retain their matches. These come first, so a
+     * stable sort keeps them in front of equally similar comparisons without matches. Both parts are ordered descending by
+     * their rank, where equally ranked comparisons without matches keep the order in which they were evicted.
+     */
+    public List<JPlagComparison> getComparisons() {
+        List<JPlagComparison> comparisons = new ArrayList<>();
+        topComparisons.descendingSet().forEach(it -> comparisons.add(it.comparison()));
+        otherComparisons.stream().map(it -> new RankedComparison(it, metric.apply(it), 0)).sorted(ORDER.reversed())
+                .forEach(it -> comparisons.add(it.comparison()));
+        return comparisons;
+    }
+
+    private record RankedComparison(JPlagComparison comparison, float score, long sequenceNumber) {
+    }
+}
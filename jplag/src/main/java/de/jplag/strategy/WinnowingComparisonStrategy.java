@@ -0,0 +1,81 @@
+package de.jplag.strategy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+import de.jplag.Submission;
+import de.jplag.TilingAlgorithm;
+import de.jplag.Winnowing;
+import de.jplag.options.JPlagOptions;
+
+/**
+ * Strategy for large sets of submissions, which only compares submissions that share fingerprints. The fingerprints of
+ * each submission are selected by {@link Winnowing} and stored in an inverted index, which maps each fingerprint to the
+ * submissions that contain it. Each submission queries the index for the earlier submissions it shares fingerprints
+ * with, and tuples that share at least a minimum number of fingerprints are compared.
+ * <p>
+ * Unlike the MinHash mode, the selection is deterministic: For a window of w hashes and a minimum match length t, two
+ * submissions with a common match of at least w + t - 1 tokens share a fingerprint, thus they are compared if the
+ * minimum number of shared fingerprints is one. Shorter matches are only found if they happen to share a fingerprint.
+ * </p>
+ */
+public class WinnowingComparisonStrategy extends CandidateComparisonStrategy {
+
+    public WinnowingComparisonStrategy(JPlagOptions options, TilingAlgorithm tilingAlgorithm) {
+        super(options, tilingAlgorithm);
+    }
+
+    /**
+     * Builds the inverted index of the fingerprints and lets each submission query it for earlier submissions. The tuples
+     * are ordered by the positions of their submissions, thus the result does not depend on the scheduling.
+     */
+    @Override
+    protected List<SubmissionTuple> selectCandidates(List<Submission> submissions) {
+        int minimumTokenMatch = options.getMinimumTokenMatch();
+        int window = options.getWinnowingWindow();
+        long[][] fingerprints = IntStream.range(0, submissions.size()).parallel()
+                .mapToObj(index -> Winnowing.fingerprints(submissions.get(index), minimumTokenMatch, window)).toArray(long[][]::new);
+
+        Map<Long, List<Integer>> index = new HashMap<>(); // posting lists are ascending, as submissions are added in order
+        for (int submission = 0; submission < fingerprints.length; submission++) {
+            for (long fingerprint : fingerprints[submission]) {
+                index.computeIfAbsent(fingerprint, it -> new ArrayList<>()).add(submission);
+            }
+        }
+
+        int minimumFingerprints = options.getWinnowingFingerprints();
+        return IntStream.range(0, submissions.size()).parallel()
+                .mapToObj(second -> queryEarlierSubmissions(second, fingerprints[second], index, minimumFingerprints, submissions))
+                .flatMap(List::stream).toList();
+    }
+
+    /**
+     * Counts the shared fingerprints of a submission with each earlier submission.
+     * @return the tuples with at least one new submission and enough shared fingerprints, ordered by the earlier
+     * submission.
+     */
+    private static List<SubmissionTuple> queryEarlierSubmissions(int second, long[] fingerprints, Map<Long, List<Integer>> index,
+            int minimumFingerprints, List<Submission> submissions) {
+        Map<Integer, Integer> sharedFingerprints = new TreeMap<>(); // sparse, as most submissions share nothing
+        for (long fingerprint : fingerprints) {
+            for (int first : index.get(fingerprint)) {
+                if (first >= second) {
+                    break;
+                }
+                sharedFingerprints.merge(first, 1, Integer::sum);
+            }
+        }
+        boolean isNew = submissions.get(second).isNew();
+        List<SubmissionTuple> candidates = new ArrayList<>();
+        sharedFingerprints.forEach((first, count) -> {
+            if (count >= minimumFingerprints && (isNew || submissions.get(first).isNew())) {
+                candidates.add(new SubmissionTuple(submissions.get(first), submissions.get(second)));
+            }
+        });
+        return candidates;
+    }
+}
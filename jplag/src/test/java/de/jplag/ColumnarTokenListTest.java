@@ -0,0 +1,122 @@
+package de.jplag;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.jplag.exceptions.ExitException;
+import de.jplag.experimental.ExperimentalOptions;
+import de.jplag.options.LanguageOption;
+
+/**
+ * Tests token lists that store their tokens column-wise.
+ */
+public class ColumnarTokenListTest extends TestBase {
+
+    @Test
+    public void testColumnarCopy() throws ExitException {
+        JPlagResult result = runJPlagWithDefaultOptions("PartialPlagiarism");
+        TokenList tokens = new TokenList(); // the Java frontend already creates column-wise lists
+        for (Token token : result.getSubmissions().getSubmissions().get(0).getTokenList().allTokens()) {
+            tokens.addToken(token);
+        }
+        TokenList columnar = tokens.toColumnar();
+
+        assertFalse(tokens.isColumnar());
+        assertTrue(columnar.isColumnar());
+        assertSame(columnar, columnar.toColumnar());
+        assertEquals(tokens.size(), columnar.size());
+        assertEquals(tokens.toString(), columnar.toString());
+        for (int index = 0; index < tokens.size(); index++) {
+            Token token = tokens.getToken(index);
+            Token copy = columnar.getToken(index);
+            assertEquals(token.getType(), columnar.getType(index));
+            assertEquals(token.getFile(), columnar.getFile(index));
+            assertEquals(token.getLine(), columnar.getLine(index));
+            assertEquals(token.getColumn(), columnar.getColumn(index));
+            assertEquals(token.getLength(), columnar.getLength(index));
+            assertEquals(List.of(token.getType(), token.getFile(), token.getLine(), token.getColumn(), token.getLength(), token.getIndex()),
+                    List.of(copy.getType(), copy.getFile(), copy.getLine(), copy.getColumn(), copy.getLength(), copy.getIndex()));
+            assertEquals(copy, columnar.getToken(index));
+            assertNotSame(copy, columnar.getToken(index));
+        }
+        assertThrows(IllegalArgumentException.class, () -> columnar.getToken(columnar.size()));
+        assertThrows(IndexOutOfBoundsException.class, () -> columnar.getType(columnar.size()));
+    }
+
+    @Test
+    public void testOffHeapCopy() throws ExitException {
+        JPlagResult result = runJPlagWithDefaultOptions("PartialPlagiarism");
+        TokenList tokens = result.getSubmissions().getSubmissions().get(0).getTokenList();
+        TokenList offHeap = tokens.toOffHeap();
+
+        assertFalse(tokens.isOffHeap());
+        assertTrue(offHeap.isOffHeap());
+        assertTrue(offHeap.isColumnar());
+        assertSame(offHeap, offHeap.toOffHeap());
+        assertSame(offHeap, offHeap.toColumnar());
+        assertEquals(tokens.getFileNames(), offHeap.getFileNames());
+        assertEquals(tokens.toString(), offHeap.toString());
+        assertEquals(tokens.getTypes(), offHeap.getTypes());
+        assertTrue(offHeap.getTypes().isReadOnly());
+        for (int index = 0; index < tokens.size(); index++) {
+            assertEquals(
+                    List.of(tokens.getType(index), tokens.getFile(index), tokens.getLine(index), tokens.getColumn(index), tokens.getLength(index)),
+                    List.of(offHeap.getType(index), offHeap.getFile(index), offHeap.getLine(index), offHeap.getColumn(index),
+                            offHeap.getLength(index)));
+            assertEquals(offHeap.getToken(index), offHeap.getToken(index));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> offHeap.getType(offHeap.size()));
+    }
+
+    @Test
+    public void testSameResultsWithOffHeapTokens() throws ExitException {
+        JPlagResult objects = runJPlagWithDefaultOptions("PartialPlagiarism");
+        JPlagResult offHeap = runJPlag("PartialPlagiarism", it -> it.setOffHeapTokens(true));
+
+        assertTrue(offHeap.getSubmissions().getSubmissions().stream().allMatch(it -> it.getTokenList().isOffHeap()));
+        assertEquals(describe(objects), describe(offHeap));
+    }
+
+    @Test
+    public void testSameResultsAsObjectTokens() throws ExitException {
+        JPlagResult objects = runJPlagWithDefaultOptions("PartialPlagiarism");
+        JPlagResult columns = runJPlag("PartialPlagiarism", it -> it.setColumnarTokens(true));
+
+        assertTrue(columns.getSubmissions().getSubmissions().stream().allMatch(it -> it.getTokenList().isColumnar()));
+        assertEquals(describe(objects), describe(columns));
+    }
+
+    @Test
+    public void testGenericFilterWithColumnarTokens() throws ExitException {
+        JPlagResult objects = runJPlag("experimental/mossad_example", it -> {
+            it.setLanguageOption(LanguageOption.C_CPP);
+            it.setExperimentalOptions(new ExperimentalOptions(12, 3, 1, 1));
+            it.setGenericFilteringEnabled(true);
+        });
+        JPlagResult columns = runJPlag("experimental/mossad_example", it -> {
+            it.setLanguageOption(LanguageOption.C_CPP);
+            it.setExperimentalOptions(new ExperimentalOptions(12, 3, 1, 1));
+            it.setGenericFilteringEnabled(true);
+            it.setColumnarTokens(true);
+        });
+
+        assertEquals(describe(objects), describe(columns));
+    }
+
+    private static List<String> describe(JPlagResult result) {
+        return result
+                .getComparisons().stream().map(
+                        comparison -> comparison + " " + comparison.similarity() + ": "
+                                + comparison.getMatches().stream()
+                                        .map(match -> match.getStartOfFirst() + "/" + match.getStartOfSecond() + "/" + match.getLength()).toList())
+                .toList();
+    }
+}
@@ -0,0 +1,82 @@
+package de.jplag;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.JPlagOptions;
+
+public class ComparisonCacheTest extends TestBase {
+    private static final String SAMPLE_NAME = "PartialPlagiarism";
+
+    @TempDir
+    Path cacheDirectory;
+
+    @Test
+    public void testSameResultsWithCache() throws ExitException {
+        JPlagResult uncached = runJPlagWithDefaultOptions(SAMPLE_NAME);
+        JPlagResult firstRun = runJPlag(SAMPLE_NAME, it -> it.setComparisonCacheDirectory(cacheDirectory.toString()));
+        JPlagResult secondRun = runJPlag(SAMPLE_NAME, it -> it.setComparisonCacheDirectory(cacheDirectory.toString()));
+
+        assertEquals(describe(uncached), describe(firstRun));
+        assertEquals(describe(uncached), describe(secondRun));
+    }
+
+    @Test
+    public void testSameResultsWithBaseCode() throws ExitException {
+        JPlagResult uncached = runJPlag("basecode", it -> it.setBaseCodeSubmissionName("base"));
+        runJPlag("basecode", it -> {
+            it.setBaseCodeSubmissionName("base");
+            it.setComparisonCacheDirectory(cacheDirectory.toString());
+        });
+        JPlagResult cached = runJPlag("basecode", it -> {
+            it.setBaseCodeSubmissionName("base");
+            it.setComparisonCacheDirectory(cacheDirectory.toString());
+        });
+
+        assertEquals(describe(uncached), describe(cached));
+    }
+
+    @Test
+    public void testComparisonsAreLoaded() throws ExitException {
+        JPlagResult result = runJPlag(SAMPLE_NAME, it -> it.setComparisonCacheDirectory(cacheDirectory.toString()));
+        List<Submission> submissions = result.getSubmissions().getSubmissions();
+
+        ComparisonCache cache = new ComparisonCache(cacheDirectory.toFile(), 1024, result.getOptions());
+        for (int i = 0; i < submissions.size(); i++) {
+            for (int j = i + 1; j < submissions.size(); j++) {
+                Optional<JPlagComparison> comparison = cache.load(submissions.get(i), submissions.get(j));
+                assertTrue(comparison.isPresent());
+            }
+        }
+        assertEquals(result.getComparisons().size(), cache.getHits());
+        assertEquals(0, cache.getMisses());
+    }
+
+    @Test
+    public void testOptionsArePartOfTheKey() throws ExitException {
+        JPlagResult result = runJPlag(SAMPLE_NAME, it -> it.setComparisonCacheDirectory(cacheDirectory.toString()));
+        List<Submission> submissions = result.getSubmissions().getSubmissions();
+        JPlagOptions options = result.getOptions();
+        options.setMinimumTokenMatch(options.getMinimumTokenMatch() + 1);
+
+        ComparisonCache cache = new ComparisonCache(cacheDirectory.toFile(), 1024, options);
+        assertTrue(cache.load(submissions.get(0), submissions.get(1)).isEmpty());
+        assertEquals(1, cache.getMisses());
+    }
+
+    private static List<String> describe(JPlagResult result) {
+        return result.getComparisons().stream().map(it -> it + ": " + it.similarity() + " " + describeMatches(it)).toList();
+    }
+
+    private static List<String> describeMatches(JPlagComparison comparison) {
+        return comparison.getMatches().stream().map(it -> it.getStartOfFirst() + "/" + it.getStartOfSecond() + "/" + it.getLength()).toList();
+    }
+}
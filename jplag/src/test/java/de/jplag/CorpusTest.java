@@ -0,0 +1,119 @@
+package de.jplag;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.jplag.exceptions.CorpusException;
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.JPlagOptions;
+import de.jplag.options.LanguageOption;
+
+public class CorpusTest extends TestBase {
+    private static final String CORPUS_SAMPLE = "PartialPlagiarism";
+    private static final String NEW_SAMPLE = "SimpleDuplicate";
+    private static final String OTHER_SAMPLE = "NoDuplicate"; // same submission names as the corpus sample
+
+    @TempDir
+    Path corpusDirectory;
+
+    @Test
+    public void testSameResultsAsOldDirectory() throws ExitException {
+        runJPlag(CORPUS_SAMPLE, it -> it.setAppendCorpusDirectory(corpusDirectory.toString()));
+
+        JPlagResult withDirectory = runJPlag(List.of(getBasePath(NEW_SAMPLE)), List.of(getBasePath(CORPUS_SAMPLE)), it -> {
+        });
+        JPlagResult withCorpus = runJPlag(List.of(getBasePath(NEW_SAMPLE)), it -> it.setOldCorpusDirectory(corpusDirectory.toString()));
+
+        assertEquals(withDirectory.getNumberOfSubmissions(), withCorpus.getNumberOfSubmissions());
+        assertEquals(describe(withDirectory), describe(withCorpus));
+    }
+
+    @Test
+    public void testAppendReplacesSubmissionsByLocation() throws ExitException {
+        runJPlag(CORPUS_SAMPLE, it -> it.setAppendCorpusDirectory(corpusDirectory.toString()));
+        runJPlag(CORPUS_SAMPLE, it -> it.setAppendCorpusDirectory(corpusDirectory.toString()));
+
+        List<Submission> submissions = createCorpus(LanguageOption.JAVA).load(null);
+        assertEquals(5, submissions.size());
+        assertTrue(submissions.stream().noneMatch(Submission::isNew));
+        assertTrue(submissions.stream().allMatch(it -> it.getNumberOfTokens() > 0));
+    }
+
+    @Test
+    public void testConcurrentAppendsKeepAllSubmissions() throws ExitException {
+        CompletableFuture<JPlagResult> other = CompletableFuture.supplyAsync(() -> {
+            try {
+                return runJPlag(NEW_SAMPLE, it -> it.setAppendCorpusDirectory(corpusDirectory.toString()));
+            } catch (ExitException exception) {
+                throw new IllegalStateException(exception);
+            }
+        });
+        runJPlag(CORPUS_SAMPLE, it -> it.setAppendCorpusDirectory(corpusDirectory.toString()));
+        other.join();
+
+        assertEquals(7, createCorpus(LanguageOption.JAVA).load(null).size());
+    }
+
+    @Test
+    public void testSubmissionsWithEqualNames() throws ExitException {
+        runJPlag(CORPUS_SAMPLE, it -> it.setAppendCorpusDirectory(corpusDirectory.toString()));
+        runJPlag(OTHER_SAMPLE, it -> it.setAppendCorpusDirectory(corpusDirectory.toString()));
+
+        List<Submission> submissions = createCorpus(LanguageOption.JAVA).load(null);
+        assertEquals(8, submissions.size());
+        List<String> names = submissions.stream().map(Submission::getName).toList();
+        assertEquals(8, names.stream().distinct().count());
+        assertTrue(names.containsAll(List.of("D", "E"))); // only in the corpus sample
+        assertFalse(names.contains("A"));
+        for (Submission submission : submissions) {
+            String storedHash = submission.getTokenStreamHash();
+            submission.setTokenList(submission.getTokenList());
+            assertEquals(submission.getTokenStreamHash(), storedHash);
+        }
+    }
+
+    @Test
+    public void testCorpusOfOtherLanguage() throws ExitException {
+        runJPlag(CORPUS_SAMPLE, it -> it.setAppendCorpusDirectory(corpusDirectory.toString()));
+        Corpus corpus = createCorpus(LanguageOption.PYTHON_3);
+        assertThrows(CorpusException.class, () -> corpus.load(null));
+    }
+
+    @Test
+    public void testUnstableTokenTypesAreRejectedBeforeParsing() {
+        JPlagOptions options = new JPlagOptions(List.of(getBasePath(CORPUS_SAMPLE)), List.of(), LanguageOption.TEXT);
+        options.setAppendCorpusDirectory(corpusDirectory.toString());
+        assertThrows(CorpusException.class, () -> new JPlag(options).run());
+    }
+
+    @Test
+    public void testMissingCorpus() {
+        assertThrows(CorpusException.class,
+                () -> runJPlag(NEW_SAMPLE, it -> it.setOldCorpusDirectory(corpusDirectory.resolve("missing").toString())));
+    }
+
+    private Corpus createCorpus(LanguageOption languageOption) {
+        JPlagOptions options = new JPlagOptions(List.of(), List.of(), languageOption);
+        Language language = languageOption == LanguageOption.JAVA ? new de.jplag.java.Language(new ErrorCollector(options))
+                : new de.jplag.python3.Language(new ErrorCollector(options));
+        return new Corpus(corpusDirectory.toFile(), language, options.getFrontendOptions());
+    }
+
+    /**
+     * Describes the comparisons independently of the submission names and their order, which differ between corpus and
+     * directories.
+     */
+    private static List<String> describe(JPlagResult result) {
+        return result.getComparisons().stream().map(it -> it.similarity() + " " + it.getMatches().stream().map(Match::getLength).sorted().toList())
+                .sorted().toList();
+    }
+}
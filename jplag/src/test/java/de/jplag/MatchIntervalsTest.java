@@ -0,0 +1,58 @@
+package de.jplag;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class MatchIntervalsTest {
+
+    private MatchIntervals intervals;
+
+    @BeforeEach
+    public void setUp() {
+        intervals = new MatchIntervals();
+        intervals.add(new Match(10, 100, 5)); // first: 10-14, second: 100-104
+        intervals.add(new Match(30, 50, 10)); // first: 30-39, second: 50-59
+    }
+
+    @Test
+    public void testOverlapInFirstSequence() {
+        assertTrue(intervals.overlaps(14, 0, 3));
+        assertTrue(intervals.overlaps(5, 0, 6));
+        assertTrue(intervals.overlaps(20, 0, 20));
+    }
+
+    @Test
+    public void testOverlapInSecondSequence() {
+        assertTrue(intervals.overlaps(0, 104, 1));
+        assertTrue(intervals.overlaps(0, 45, 6));
+        assertTrue(intervals.overlaps(0, 55, 100));
+    }
+
+    @Test
+    public void testAdjacentMatchesDoNotOverlap() {
+        assertFalse(intervals.overlaps(15, 60, 15));
+        assertFalse(intervals.overlaps(0, 95, 5));
+        assertFalse(intervals.overlaps(40, 105, 1000));
+    }
+
+    @Test
+    public void testAgreesWithMatchOverlap() {
+        Match match = new Match(30, 50, 10);
+        for (int first = 20; first < 45; first++) {
+            for (int second = 40; second < 65; second++) {
+                MatchIntervals single = new MatchIntervals();
+                single.add(match);
+                assertTrue(single.overlaps(first, second, 4) == match.overlap(first, second, 4));
+            }
+        }
+    }
+
+    @Test
+    public void testClear() {
+        intervals.clear();
+        assertFalse(intervals.overlaps(0, 0, 1000));
+    }
+}
@@ -0,0 +1,61 @@
+package de.jplag;
+
+import static de.jplag.strategy.ComparisonMode.MINHASH;
+import static java.util.stream.Collectors.toMap;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import de.jplag.exceptions.ExitException;
+import de.jplag.strategy.MinHashComparisonStrategy;
+
+/**
+ * Tests the {@link MinHashComparisonStrategy}, which only compares the candidate pairs of the MinHash signatures.
+ */
+public class MinHashComparisonTest extends TestBase {
+
+    @Test
+    public void testSimilarPairsAreCandidates() throws ExitException {
+        JPlagResult exhaustive = runJPlagWithDefaultOptions("PartialPlagiarism");
+        JPlagResult candidates = runJPlag("PartialPlagiarism", it -> it.setComparisonMode(MINHASH));
+
+        List<String> expected = exhaustive.getComparisons().stream().filter(it -> it.similarity() > 50).map(this::describeSimilarity).toList();
+        assertEquals(3, expected.size());
+        assertTrue(describeSimilarities(candidates).containsAll(expected));
+    }
+
+    @Test
+    public void testSingleBandOnlyComparesNearDuplicates() throws ExitException {
+        JPlagResult result = runJPlag("PartialPlagiarism", it -> {
+            it.setComparisonMode(MINHASH);
+            it.setMinHashBands(1);
+            it.setMinHashRows(128); // only pairs with nearly identical shingle sets are candidates
+        });
+
+        assertEquals(List.of("C <-> A"), result.getComparisons().stream().map(JPlagComparison::toString).toList());
+    }
+
+    @Test
+    public void testSignatureEstimatesSimilarity() throws ExitException {
+        JPlagResult result = runJPlagWithDefaultOptions("PartialPlagiarism");
+        int minimumTokenMatch = result.getOptions().getMinimumTokenMatch();
+        Map<String, MinHashSignature> signatures = result.getSubmissions().getSubmissions().stream()
+                .collect(toMap(Submission::getName, it -> MinHashSignature.of(it, minimumTokenMatch, 128)));
+
+        MinHashSignature original = signatures.get("A");
+        assertEquals(128, original.size());
+        assertEquals(1.0, original.estimateSimilarity(original));
+        // A full copy (C) shares nearly all shingles, a dumb plagiarism (D) most, and Hello World (E) none
+        double fullCopy = original.estimateSimilarity(signatures.get("C"));
+        double dumbPlagiarism = original.estimateSimilarity(signatures.get("D"));
+        double unrelated = original.estimateSimilarity(signatures.get("E"));
+        assertTrue(fullCopy > 0.9, "full copy: " + fullCopy);
+        assertTrue(fullCopy > dumbPlagiarism, fullCopy + " <= " + dumbPlagiarism);
+        assertTrue(dumbPlagiarism > unrelated, dumbPlagiarism + " <= " + unrelated);
+        assertEquals(0.0, unrelated);
+    }
+}
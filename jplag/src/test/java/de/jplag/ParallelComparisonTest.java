@@ -1,48 +1,57 @@
 package de.jplag;
 
-import static de.jplag.strategy.ComparisonMode.PARALLEL;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
 
-import java.util.Optional;
+import java.util.stream.Stream;
 
-import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.function.ThrowingConsumer;
 
-import de.jplag.exceptions.ExitException;
+import de.jplag.strategy.ComparisonMode;
+import de.jplag.strategy.ForkJoinComparisonStrategy;
 import de.jplag.strategy.ParallelComparisonStrategy;
 
 /**
- * Currently just a copy of {@link NormalComparisonTest} but for the {@link ParallelComparisonStrategy}. // TODO TS:
- * de-duplicate this
+ * The assertions of {@link NormalComparisonTest}, run for each parallel comparison mode, i.e. for the
+ * {@link ParallelComparisonStrategy} and the {@link ForkJoinComparisonStrategy}.
  * @author Timur Saglam
  */
 public class ParallelComparisonTest extends TestBase {
 
+    private static final int PARALLELISM = 2;
+
     /**
      * The simple duplicate contains obvious plagiarism.
      */
-    @Test
-    public void testSimpleDuplicate() throws ExitException {
-        JPlagResult result = runJPlag("SimpleDuplicate", it -> it.setComparisonMode(PARALLEL));
-
-        assertEquals(2, result.getNumberOfSubmissions());
-        assertEquals(1, result.getComparisons().size());
-        assertEquals(1, result.getComparisons().get(0).getMatches().size());
-        assertEquals(1, result.getSimilarityDistribution()[6]);
-        assertEquals(62.07f, result.getComparisons().get(0).similarity(), DELTA);
+    @TestFactory
+    public Stream<DynamicTest> testSimpleDuplicate() {
+        return forEachMode(mode -> {
+            JPlagResult result = runJPlag("SimpleDuplicate", it -> it.setComparisonMode(mode));
+
+            assertEquals(2, result.getNumberOfSubmissions());
+            assertEquals(1, result.getComparisons().size());
+            assertEquals(1, result.getComparisons().get(0).getMatches().size());
+            assertEquals(1, result.getSimilarityDistribution()[6]);
+            assertEquals(62.07f, result.getComparisons().get(0).similarity(), DELTA);
+        });
     }
 
     /**
      * The classes in no duplicate have nearly nothing in common.
      */
-    @Test
-    public void testNoDuplicate() throws ExitException {
-        JPlagResult result = runJPlag("NoDuplicate", it -> it.setComparisonMode(PARALLEL));
+    @TestFactory
+    public Stream<DynamicTest> testNoDuplicate() {
+        return forEachMode(mode -> {
+            JPlagResult result = runJPlag("NoDuplicate", it -> it.setComparisonMode(mode));
 
-        assertEquals(3, result.getNumberOfSubmissions());
-        assertEquals(3, result.getComparisons().size());
+            assertEquals(3, result.getNumberOfSubmissions());
+            assertEquals(3, result.getComparisons().size());
 
-        result.getComparisons().forEach(comparison -> {
-            assertEquals(0f, comparison.similarity(), DELTA);
+            result.getComparisons().forEach(comparison -> {
+                assertEquals(0f, comparison.similarity(), DELTA);
+            });
         });
     }
 
@@ -51,43 +60,42 @@ public class ParallelComparisonTest extends TestBase {
      * from an older JPlag version) B is a partial copy of that code C is a full copy of that code D is dumb plagiarism,
      * e.g., changed variable names, additional unneeded code, ... E is just a Hello World Java errorConsumer
      */
-    @Test
-    public void testPartialPlagiarism() throws ExitException {
-        JPlagResult result = runJPlag("PartialPlagiarism", it -> it.setComparisonMode(PARALLEL));
-
-        assertEquals(5, result.getNumberOfSubmissions());
-        assertEquals(10, result.getComparisons().size());
-
-        // All comparisons with E shall have no matches
-        result.getComparisons().stream()
-                .filter(comparison -> comparison.getSecondSubmission().getName().equals("E") || comparison.getFirstSubmission().getName().equals("E"))
-                .forEach(comparison -> assertEquals(0f, comparison.similarity(), DELTA));
-
-        // Hard coded assertions on selected comparisons
-        assertEquals(24.6f, getSelectedPercent(result, "A", "B"), DELTA);
-        assertEquals(99.7f, getSelectedPercent(result, "A", "C"), DELTA);
-        assertEquals(77.9f, getSelectedPercent(result, "A", "D"), DELTA);
-        assertEquals(24.6f, getSelectedPercent(result, "B", "C"), DELTA);
-        assertEquals(28.3f, getSelectedPercent(result, "B", "D"), DELTA);
-        assertEquals(77.9f, getSelectedPercent(result, "C", "D"), DELTA);
-
-        // More detailed assertions for the plagiarism in A-D
-        var biggestMatch = getSelectedComparison(result, "A", "D");
-        assertEquals(96.4f, biggestMatch.get().maximalSimilarity(), DELTA);
-        assertEquals(65.3f, biggestMatch.get().minimalSimilarity(), DELTA);
-        assertEquals(12, biggestMatch.get().getMatches().size());
-
-    }
-
-    // TODO SH: Methods like this should be moved to the API and also should accept wildcards
-    private float getSelectedPercent(JPlagResult result, String nameA, String nameB) {
-        return getSelectedComparison(result, nameA, nameB).map(JPlagComparison::similarity).orElse(-1f);
+    @TestFactory
+    public Stream<DynamicTest> testPartialPlagiarism() {
+        return forEachMode(mode -> {
+            JPlagResult result = runJPlag("PartialPlagiarism", it -> {
+                it.setComparisonMode(mode);
+                it.setParallelism(PARALLELISM);
+            });
+
+            assertEquals(5, result.getNumberOfSubmissions());
+            assertEquals(10, result.getComparisons().size());
+
+            // All comparisons with E shall have no matches
+            result.getComparisons().stream().filter(
+                    comparison -> comparison.getSecondSubmission().getName().equals("E") || comparison.getFirstSubmission().getName().equals("E"))
+                    .forEach(comparison -> assertEquals(0f, comparison.similarity(), DELTA));
+
+            // Hard coded assertions on selected comparisons
+            assertEquals(24.6f, getSelectedPercent(result, "A", "B"), DELTA);
+            assertEquals(99.7f, getSelectedPercent(result, "A", "C"), DELTA);
+            assertEquals(77.9f, getSelectedPercent(result, "A", "D"), DELTA);
+            assertEquals(24.6f, getSelectedPercent(result, "B", "C"), DELTA);
+            assertEquals(28.3f, getSelectedPercent(result, "B", "D"), DELTA);
+            assertEquals(77.9f, getSelectedPercent(result, "C", "D"), DELTA);
+
+            // More detailed assertions for the plagiarism in A-D
+            var biggestMatch = getSelectedComparison(result, "A", "D");
+            assertEquals(96.4f, biggestMatch.get().maximalSimilarity(), DELTA);
+            assertEquals(65.3f, biggestMatch.get().minimalSimilarity(), DELTA);
+            assertEquals(12, biggestMatch.get().getMatches().size());
+        });
     }
 
-    private Optional<JPlagComparison> getSelectedComparison(JPlagResult result, String nameA, String nameB) {
-        return result.getComparisons().stream().filter(
-                comparison -> comparison.getFirstSubmission().getName().equals(nameA) && comparison.getSecondSubmission().getName().equals(nameB)
-                        || comparison.getFirstSubmission().getName().equals(nameB) && comparison.getSecondSubmission().getName().equals(nameA))
-                .findFirst();
+    /**
+     * Runs the given test body once for every parallel comparison mode.
+     */
+    private Stream<DynamicTest> forEachMode(ThrowingConsumer<ComparisonMode> test) {
+        return Stream.of(ComparisonMode.PARALLEL, ComparisonMode.FORK_JOIN).map(mode -> dynamicTest(mode.name(), () -> test.accept(mode)));
     }
 }
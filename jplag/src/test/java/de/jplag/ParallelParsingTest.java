@@ -0,0 +1,39 @@
+package de.jplag;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.jplag.exceptions.ExitException;
+
+/**
+ * Tests that parsing the submissions concurrently leads to the same results as sequential parsing.
+ */
+public class ParallelParsingTest extends TestBase {
+
+    @Test
+    public void testSameResultsAsSequentialParsing() throws ExitException {
+        JPlagResult sequential = runJPlag("PartialPlagiarism", it -> it.setParallelism(1));
+        JPlagResult concurrent = runJPlag("PartialPlagiarism", it -> it.setParallelism(4));
+
+        assertEquals(5, concurrent.getNumberOfSubmissions());
+        assertEquals(describe(sequential), describe(concurrent));
+    }
+
+    @Test
+    public void testInvalidSubmissionsAreFiltered() throws ExitException {
+        JPlagResult result = runJPlag("PartialPlagiarism", it -> {
+            it.setParallelism(4);
+            it.setMinimumTokenMatch(50); // more than the hello world submission contains
+        });
+
+        assertEquals(4, result.getNumberOfSubmissions());
+    }
+
+    private static List<String> describe(JPlagResult result) {
+        return result.getComparisons().stream().map(it -> it + ": " + it.getFirstSubmission().getNumberOfTokens() + "/"
+                + it.getSecondSubmission().getNumberOfTokens() + " " + it.similarity()).toList();
+    }
+}
@@ -0,0 +1,105 @@
+package de.jplag;
+
+import static de.jplag.strategy.ComparisonMode.FORK_JOIN;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.JPlagOptions;
+import de.jplag.options.LanguageOption;
+
+/**
+ * Tests that scanning the positions of a comparison in parallel chunks finds the same matches in the same order as the
+ * sequential scan of the {@link GreedyStringTiling}.
+ */
+public class ParallelTilingTest extends TestBase {
+
+    @Test
+    public void testSameMatchesAsSequential() throws ExitException {
+        JPlagResult sequential = runJPlagWithDefaultOptions("PartialPlagiarism");
+        JPlagResult parallel = runJPlag("PartialPlagiarism", it -> {
+            it.setParallelTilingThreshold(1);
+            it.setParallelism(4);
+        });
+
+        assertEquals(describe(sequential), describe(parallel));
+    }
+
+    @Test
+    public void testNestedInParallelStrategy() throws ExitException {
+        JPlagResult sequential = runJPlagWithDefaultOptions("PartialPlagiarism");
+        JPlagResult parallel = runJPlag("PartialPlagiarism", it -> {
+            it.setComparisonMode(FORK_JOIN);
+            it.setParallelTilingThreshold(1);
+            it.setParallelism(2);
+        });
+
+        assertEquals(describe(sequential), describe(parallel));
+    }
+
+    @Test
+    public void testWithBaseCode() throws ExitException {
+        JPlagResult sequential = runJPlag("basecode", it -> it.setBaseCodeSubmissionName("base"));
+        JPlagResult parallel = runJPlag("basecode", it -> {
+            it.setBaseCodeSubmissionName("base");
+            it.setParallelTilingThreshold(1);
+        });
+
+        assertEquals(describe(sequential), describe(parallel));
+    }
+
+    @Test
+    public void testBelowThreshold() throws ExitException {
+        JPlagResult result = runJPlag("SimpleDuplicate", it -> it.setParallelTilingThreshold(Integer.MAX_VALUE));
+        assertEquals(62.07f, result.getComparisons().get(0).similarity(), DELTA);
+    }
+
+    /**
+     * Many copies of the same block lead to many equally long matches per chunk, of which most overlap.
+     */
+    @Test
+    public void testRepeatedBlocks() {
+        JPlagComparison sequential = tileRepeatedBlocks(0);
+        JPlagComparison parallel = tileRepeatedBlocks(1);
+
+        assertEquals(describe(sequential), describe(parallel));
+        assertEquals(sequential.getNumberOfMatchedTokens(), parallel.getNumberOfMatchedTokens());
+    }
+
+    private JPlagComparison tileRepeatedBlocks(int parallelTilingThreshold) {
+        JPlagOptions options = new JPlagOptions(List.of(), List.of(), LanguageOption.JAVA);
+        options.setMinimumTokenMatch(5);
+        options.setParallelTilingThreshold(parallelTilingThreshold);
+        options.setParallelism(2); // several copies per chunk
+        return tile(new GreedyStringTiling(options), createSequence(options, repeatedBlocks(200, 3)),
+                createSequence(options, repeatedBlocks(300, 4)));
+    }
+
+    /**
+     * Creates copies of the same block, each followed by one of a few different tokens.
+     */
+    private static int[] repeatedBlocks(int copies, int numberOfSeparators) {
+        int[] block = {2, 3, 4, 5, 6, 7, 8, 9};
+        int[] types = new int[copies * (block.length + 1)];
+        for (int copy = 0; copy < copies; copy++) {
+            System.arraycopy(block, 0, types, copy * (block.length + 1), block.length);
+            types[copy * (block.length + 1) + block.length] = 10 + copy % numberOfSeparators;
+        }
+        return types;
+    }
+
+    /**
+     * Describes the matches of each comparison by their positions, in the order they were found.
+     */
+    private static List<String> describe(JPlagResult result) {
+        return result.getComparisons().stream().map(comparison -> comparison + ": " + describe(comparison)).toList();
+    }
+
+    private static List<String> describe(JPlagComparison comparison) {
+        return comparison.getMatches().stream().map(match -> match.getStartOfFirst() + "/" + match.getStartOfSecond() + "/" + match.getLength())
+                .toList();
+    }
+}
@@ -0,0 +1,62 @@
+package de.jplag;
+
+import static de.jplag.strategy.ComparisonMode.NORMAL;
+import static de.jplag.strategy.ComparisonMode.PIPELINED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.jplag.exceptions.ExitException;
+import de.jplag.strategy.PipelinedComparisonStrategy;
+
+/**
+ * Tests that the {@link PipelinedComparisonStrategy}, which compares the submissions while parsing them, leads to the
+ * same results as comparing the submissions after parsing them.
+ */
+public class PipelinedComparisonTest extends TestBase {
+
+    @Test
+    public void testSameResultsAsStagedComparison() throws ExitException {
+        JPlagResult staged = runJPlag("PartialPlagiarism", it -> it.setComparisonMode(NORMAL));
+        JPlagResult pipelined = runJPlag("PartialPlagiarism", it -> {
+            it.setComparisonMode(PIPELINED);
+            it.setParallelism(4);
+        });
+
+        assertEquals(5, pipelined.getNumberOfSubmissions());
+        assertEquals(10, pipelined.getComparisons().size());
+        assertEquals(describe(staged), describe(pipelined));
+    }
+
+    @Test
+    public void testSameResultsWithBaseCode() throws ExitException {
+        JPlagResult staged = runJPlag("basecode", it -> it.setBaseCodeSubmissionName("base"));
+        JPlagResult pipelined = runJPlag("basecode", it -> {
+            it.setBaseCodeSubmissionName("base");
+            it.setComparisonMode(PIPELINED);
+        });
+
+        assertEquals(describe(staged), describe(pipelined));
+    }
+
+    @Test
+    public void testSameResultsWithBoundedMatches() throws ExitException {
+        JPlagResult staged = runJPlag("PartialPlagiarism", it -> it.setMaximumNumberOfComparisons(3));
+        JPlagResult pipelined = runJPlag("PartialPlagiarism", it -> {
+            it.setMaximumNumberOfComparisons(3);
+            it.setComparisonMode(PIPELINED);
+        });
+
+        assertEquals(describe(staged), describe(pipelined));
+    }
+
+    private static List<String> describe(JPlagResult result) {
+        return result.getComparisons().stream().map(it -> it + ": " + it.similarity() + " " + describeMatches(it)).toList();
+    }
+
+    private static List<String> describeMatches(JPlagComparison comparison) {
+        return comparison.getMatches().stream().map(it -> it.getStartOfFirst() + "/" + it.getStartOfSecond() + "/" + it.getLength()).toList();
+    }
+}
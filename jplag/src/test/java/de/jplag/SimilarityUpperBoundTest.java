@@ -0,0 +1,77 @@
+package de.jplag;
+
+import static de.jplag.options.ComparisonAlgorithm.SUFFIX_ARRAY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.SimilarityMetric;
+
+public class SimilarityUpperBoundTest extends TestBase {
+
+    private static final float THRESHOLD = 50;
+
+    @Test
+    public void testBoundIsNeverBelowSimilarity() throws ExitException {
+        JPlagResult result = runJPlagWithDefaultOptions("PartialPlagiarism");
+
+        for (JPlagComparison comparison : result.getComparisons()) {
+            for (SimilarityMetric metric : SimilarityMetric.values()) {
+                float bound = SimilarityUpperBound.of(comparison.getFirstSubmission(), comparison.getSecondSubmission(), metric,
+                        result.getOptions().getMinimumTokenMatch());
+                assertTrue(bound >= metric.apply(comparison), comparison + " " + metric);
+            }
+        }
+    }
+
+    @Test
+    public void testBoundOfUnrelatedSubmissionsIsLow() throws ExitException {
+        JPlagResult result = runJPlagWithDefaultOptions("PartialPlagiarism");
+
+        JPlagComparison comparison = result.getComparisons().stream().filter(it -> it.toString().contains("E")).findFirst().orElseThrow();
+        float bound = SimilarityUpperBound.of(comparison.getFirstSubmission(), comparison.getSecondSubmission(), SimilarityMetric.AVG,
+                result.getOptions().getMinimumTokenMatch());
+        assertTrue(bound < THRESHOLD);
+    }
+
+    @Test
+    public void testSkippingKeepsComparisonsAboveThreshold() throws ExitException {
+        List<String> expected = describe(
+                runJPlagWithDefaultOptions("PartialPlagiarism").getComparisons().stream().filter(it -> it.similarity() >= THRESHOLD).toList(), true);
+        List<String> actual = describe(runJPlag("PartialPlagiarism", it -> it.setSimilarityThreshold(THRESHOLD)).getComparisons(), true);
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testSuffixArrayTilingKeepsComparisonsAboveThreshold() throws ExitException {
+        List<String> expected = describe(runJPlag("PartialPlagiarism", it -> it.setComparisonAlgorithm(SUFFIX_ARRAY)).getComparisons().stream()
+                .filter(it -> it.similarity() >= THRESHOLD).toList(), true);
+        List<String> actual = describe(runJPlag("PartialPlagiarism", it -> {
+            it.setComparisonAlgorithm(SUFFIX_ARRAY);
+            it.setSimilarityThreshold(THRESHOLD);
+        }).getComparisons(), true);
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testScreeningFindsComparisonsAboveThreshold() throws ExitException {
+        List<String> expected = describe(runJPlag("PartialPlagiarism", it -> it.setSimilarityThreshold(THRESHOLD)).getComparisons(), false);
+        JPlagResult result = runJPlag("PartialPlagiarism", it -> {
+            it.setSimilarityThreshold(THRESHOLD);
+            it.setSimilarityScreening(true);
+        });
+
+        assertEquals(expected, describe(result.getComparisons(), false));
+        result.getComparisons().forEach(comparison -> assertTrue(comparison.similarity() >= THRESHOLD));
+    }
+
+    private List<String> describe(List<JPlagComparison> comparisons, boolean withSimilarity) {
+        return comparisons.stream().map(it -> withSimilarity ? it + ": " + it.similarity() : it.toString()).sorted().toList();
+    }
+}
@@ -0,0 +1,143 @@
+package de.jplag;
+
+import static de.jplag.options.ComparisonAlgorithm.SUFFIX_ARRAY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.JPlagOptions;
+import de.jplag.options.LanguageOption;
+
+/**
+ * Checks that the {@link SuffixArrayTiling} is a greedy tiling like the {@link GreedyStringTiling}, meaning it always
+ * takes the longest unmarked tile next, and that it finds the same plagiarism, see {@link NormalComparisonTest}.
+ */
+public class SuffixArrayTilingTest extends TestBase {
+    private static final int RANDOM_PAIRS = 2000;
+
+    @Test
+    public void testLongestUnmarkedTileIsTakenNext() {
+        int[] first = {2, 3, 3, 2, 3, 3, 2, 2, 2, 2, 3, 3, 3};
+        int[] second = {2, 2, 3, 2, 3, 2, 2, 3, 3, 3, 2, 3, 3, 3, 3, 2, 2, 3, 2, 2, 3, 3, 2, 2, 3};
+        assertSameTilingAsGreedyStringTiling(first, second, 3);
+    }
+
+    @Test
+    public void testRandomPairsLikeGreedyStringTiling() {
+        Random random = new Random(42);
+        for (int pair = 0; pair < RANDOM_PAIRS; pair++) {
+            int alphabetSize = 2 + random.nextInt(3);
+            int[] first = randomTypes(random, 1 + random.nextInt(40), alphabetSize);
+            int[] second = randomTypes(random, first.length + random.nextInt(40), alphabetSize);
+            assertSameTilingAsGreedyStringTiling(first, second, 1 + random.nextInt(4));
+        }
+    }
+
+    @Test
+    public void testSimpleDuplicate() throws ExitException {
+        JPlagResult result = runJPlag("SimpleDuplicate", it -> it.setComparisonAlgorithm(SUFFIX_ARRAY));
+
+        assertEquals(2, result.getNumberOfSubmissions());
+        assertEquals(1, result.getComparisons().size());
+        assertEquals(1, result.getComparisons().get(0).getMatches().size());
+        assertEquals(62.07f, result.getComparisons().get(0).similarity(), DELTA);
+    }
+
+    @Test
+    public void testNoDuplicate() throws ExitException {
+        JPlagResult result = runJPlag("NoDuplicate", it -> it.setComparisonAlgorithm(SUFFIX_ARRAY));
+
+        assertEquals(3, result.getComparisons().size());
+        result.getComparisons().forEach(comparison -> assertEquals(0f, comparison.similarity(), DELTA));
+    }
+
+    @Test
+    public void testPartialPlagiarism() throws ExitException {
+        JPlagResult result = runJPlag("PartialPlagiarism", it -> it.setComparisonAlgorithm(SUFFIX_ARRAY));
+
+        assertEquals(10, result.getComparisons().size());
+        assertEquals(24.6f, getSelectedPercent(result, "A", "B"), DELTA);
+        assertEquals(99.7f, getSelectedPercent(result, "A", "C"), DELTA);
+        assertEquals(77.9f, getSelectedPercent(result, "A", "D"), DELTA);
+        assertEquals(24.6f, getSelectedPercent(result, "B", "C"), DELTA);
+        assertEquals(28.3f, getSelectedPercent(result, "B", "D"), DELTA);
+        assertEquals(77.9f, getSelectedPercent(result, "C", "D"), DELTA);
+        assertEquals(0f, getSelectedPercent(result, "A", "E"), DELTA);
+    }
+
+    @Test
+    public void testBasecode() throws ExitException {
+        JPlagResult result = runJPlag("basecode", it -> {
+            it.setBaseCodeSubmissionName("base");
+            it.setComparisonAlgorithm(SUFFIX_ARRAY);
+        });
+
+        assertEquals(1, result.getComparisons().size());
+        assertEquals(85f, result.getComparisons().get(0).similarity(), DELTA);
+    }
+
+    /**
+     * Tiles two sequences with both algorithms and checks that each tile of the suffix array tiling was the longest
+     * unmarked tile when it was taken, and that both algorithms find the same tiles.
+     */
+    private void assertSameTilingAsGreedyStringTiling(int[] first, int[] second, int minimumTokenMatch) {
+        JPlagOptions options = new JPlagOptions(List.of(), List.of(), LanguageOption.JAVA);
+        options.setMinimumTokenMatch(minimumTokenMatch);
+        TokenSequence firstSequence = createSequence(options, first);
+        TokenSequence secondSequence = createSequence(options, second);
+        JPlagComparison expected = tile(new GreedyStringTiling(options), firstSequence, secondSequence);
+        JPlagComparison actual = tile(new SuffixArrayTiling(options), firstSequence, secondSequence);
+
+        String pair = Arrays.toString(first) + " and " + Arrays.toString(second) + " with " + minimumTokenMatch;
+        boolean[] firstMarks = new boolean[first.length];
+        boolean[] secondMarks = new boolean[second.length];
+        for (Match match : actual.getMatches()) {
+            assertEquals(longestUnmarkedTile(first, firstMarks, second, secondMarks), match.getLength(), pair + ": " + describe(match));
+            for (int i = 0; i < match.getLength(); i++) {
+                assertEquals(first[match.getStartOfFirst() + i], second[match.getStartOfSecond() + i], pair + ": " + describe(match));
+                firstMarks[match.getStartOfFirst() + i] = true;
+                secondMarks[match.getStartOfSecond() + i] = true;
+            }
+        }
+        assertTrue(longestUnmarkedTile(first, firstMarks, second, secondMarks) < minimumTokenMatch, pair);
+        assertEquals(expected.getNumberOfMatchedTokens(), actual.getNumberOfMatchedTokens(), pair);
+        assertEquals(describeSorted(expected), describeSorted(actual), pair); // ties are resolved in the same order
+    }
+
+    private static int longestUnmarkedTile(int[] first, boolean[] firstMarks, int[] second, boolean[] secondMarks) {
+        int longest = 0;
+        for (int x = 0; x < first.length; x++) {
+            for (int y = 0; y < second.length; y++) {
+                int length = 0;
+                while (x + length < first.length && y + length < second.length && !firstMarks[x + length] && !secondMarks[y + length]
+                        && first[x + length] == second[y + length]) {
+                    length++;
+                }
+                longest = Math.max(longest, length);
+            }
+        }
+        return longest;
+    }
+
+    private static List<String> describeSorted(JPlagComparison comparison) {
+        return comparison.getMatches().stream().map(SuffixArrayTilingTest::describe).sorted().toList();
+    }
+
+    private static String describe(Match match) {
+        return match.getStartOfFirst() + "/" + match.getStartOfSecond() + "/" + match.getLength();
+    }
+
+    private static int[] randomTypes(Random random, int length, int alphabetSize) {
+        int[] types = new int[length];
+        for (int i = 0; i < length; i++) {
+            types[i] = 2 + random.nextInt(alphabetSize); // above the file end and separator types
+        }
+        return types;
+    }
+}
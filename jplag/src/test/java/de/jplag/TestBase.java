@@ -3,9 +3,11 @@ package de.jplag;
 import java.io.File;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Optional;
 import java.util.function.Consumer;
 
 import de.jplag.exceptions.ExitException;
+import de.jplag.java.JavaToken;
 import de.jplag.options.JPlagOptions;
 import de.jplag.options.LanguageOption;
 import de.jplag.options.Verbosity;
@@ -52,4 +54,49 @@ public abstract class TestBase {
         JPlag jplag = new JPlag(options);
         return jplag.run();
     }
+
+    // TODO SH: Methods like this should be moved to the API and also should accept wildcards
+    protected float getSelectedPercent(JPlagResult result, String nameA, String nameB) {
+        return getSelectedComparison(result, nameA, nameB).map(JPlagComparison::similarity).orElse(-1f);
+    }
+
+    protected Optional<JPlagComparison> getSelectedComparison(JPlagResult result, String nameA, String nameB) {
+        return result.getComparisons().stream().filter(
+                comparison -> comparison.getFirstSubmission().getName().equals(nameA) && comparison.getSecondSubmission().getName().equals(nameB)
+                        || comparison.getFirstSubmission().getName().equals(nameB) && comparison.getSecondSubmission().getName().equals(nameA))
+                .findFirst();
+    }
+
+    /**
+     * Creates the token sequence of a single file with the given token types, which is followed by a file end like the
+     * tokens of a submission.
+     */
+    protected static TokenSequence createSequence(JPlagOptions options, int... types) {
+        TokenList tokens = new TokenList(JavaToken::new);
+        for (int type : types) {
+            tokens.addToken(type, "File.java", 1, 1, 1);
+        }
+        tokens.addToken(TokenConstants.FILE_END, "File.java", 1, 1, 1);
+        return new TokenSequence(tokens, options.getMinimumTokenMatch());
+    }
+
+    /**
+     * Tiles two token sequences directly, without submissions.
+     * @param first is the smaller sequence.
+     * @param second is the larger sequence.
+     * @return the comparison with the matches in the order they were found.
+     */
+    protected static JPlagComparison tile(AbstractTilingAlgorithm algorithm, TokenSequence first, TokenSequence second) {
+        JPlagComparison comparison = new JPlagComparison(null, null);
+        algorithm.tile(first, first.initialMarks(), second, second.initialMarks(), comparison, false);
+        return comparison;
+    }
+
+    protected List<String> describeSimilarities(JPlagResult result) {
+        return result.getComparisons().stream().map(this::describeSimilarity).toList();
+    }
+
+    protected String describeSimilarity(JPlagComparison comparison) {
+        return comparison + " " + comparison.similarity();
+    }
 }
@@ -0,0 +1,116 @@
+package de.jplag;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.JPlagOptions;
+import de.jplag.options.LanguageOption;
+
+public class TokenCacheTest extends TestBase {
+    private static final String SAMPLE_NAME = "PartialPlagiarism";
+
+    @TempDir
+    Path cacheDirectory;
+
+    @Test
+    public void testCachedTokensEqualParsedTokens() {
+        File submission = new File(getBasePath(SAMPLE_NAME, "A"));
+        String[] files = submission.list();
+        Arrays.sort(files);
+        TokenList expected = createLanguage().parse(submission, files);
+
+        TokenCache cache = createCache(1024);
+        TokenList firstRun = cache.wrap(createLanguage()).parse(submission, files);
+        String[] someFiles = Arrays.copyOf(files, 3);
+        cache.wrap(createLanguage()).parse(submission, someFiles);
+        TokenList secondRun = cache.wrap(createLanguage()).parse(submission, files);
+
+        assertEquals(describe(expected), describe(firstRun));
+        assertEquals(describe(expected), describe(secondRun));
+        assertEquals(files.length + someFiles.length, cache.getHits());
+        assertEquals(files.length, cache.getMisses());
+    }
+
+    @Test
+    public void testSameResultsWithCache() throws ExitException {
+        JPlagResult uncached = runJPlagWithDefaultOptions(SAMPLE_NAME);
+        runJPlag(SAMPLE_NAME, it -> it.setTokenCacheDirectory(cacheDirectory.toString()));
+        JPlagResult cached = runJPlag(SAMPLE_NAME, it -> it.setTokenCacheDirectory(cacheDirectory.toString()));
+
+        assertEquals(uncached.getComparisons().size(), cached.getComparisons().size());
+        for (int i = 0; i < uncached.getComparisons().size(); i++) {
+            assertEquals(uncached.getComparisons().get(i).toString(), cached.getComparisons().get(i).toString());
+            assertEquals(uncached.getComparisons().get(i).similarity(), cached.getComparisons().get(i).similarity(), DELTA);
+        }
+    }
+
+    @Test
+    public void testEvictionEnforcesSizeLimit() throws IOException {
+        File submission = new File(getBasePath(SAMPLE_NAME, "A"));
+        TokenCache cache = createCache(1024);
+        cache.wrap(createLanguage()).parse(submission, submission.list());
+        assertFalse(listEntries().isEmpty());
+
+        cache.evict();
+        assertEquals(submission.list().length, listEntries().size());
+
+        createCache(0).evict();
+        assertTrue(listEntries().isEmpty());
+    }
+
+    @Test
+    public void testEntriesOfOtherVersionsAreIgnored() throws IOException {
+        String version = CacheDirectory.versionOf(createLanguage());
+        assertTrue(version.startsWith("jplag="));
+        assertFalse(version.contains("${") || version.contains("unknown"), version); // the version resource is filtered
+
+        File submission = new File(getBasePath(SAMPLE_NAME, "A"));
+        TokenCache cache = createCache(1024);
+        cache.wrap(createLanguage()).parse(submission, submission.list());
+        for (Path entry : listEntries()) {
+            byte[] bytes = Files.readAllBytes(entry);
+            bytes[2 * Integer.BYTES + Short.BYTES] ^= 1; // first character of the version in the header
+            Files.write(entry, bytes);
+        }
+        cache.wrap(createLanguage()).parse(submission, submission.list());
+        assertEquals(0, cache.getHits());
+    }
+
+    private TokenCache createCache(int maximumSizeInMegabytes) {
+        return new TokenCache(cacheDirectory.toFile(), maximumSizeInMegabytes, 0, new FrontendOptions());
+    }
+
+    private static Language createLanguage() {
+        JPlagOptions options = new JPlagOptions(List.of(), List.of(), LanguageOption.JAVA);
+        return new de.jplag.java.Language(new ErrorCollector(options));
+    }
+
+    private List<Path> listEntries() throws IOException {
+        try (Stream<Path> files = Files.walk(cacheDirectory)) {
+            return files.filter(Files::isRegularFile).toList();
+        }
+    }
+
+    private static List<String> describe(TokenList tokenList) {
+        List<String> tokens = new ArrayList<>();
+        for (Token token : tokenList.allTokens()) {
+            tokens.add(token + "@" + token.getFile() + ":" + token.getLine() + ":" + token.getColumn() + ":" + token.getLength() + ":"
+                    + token.getType());
+        }
+        return tokens;
+    }
+}
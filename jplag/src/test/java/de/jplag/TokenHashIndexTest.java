@@ -0,0 +1,57 @@
+package de.jplag;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class TokenHashIndexTest {
+
+    @Test
+    public void testAllPositionsOfHashAreFoundInAscendingOrder() {
+        long[] hashes = {7, 3, -1, 7, 42, 7, -1, 3};
+        TokenHashIndex index = new TokenHashIndex(hashes, hashes.length);
+
+        assertEquals(6, index.size());
+        assertContainsInOrder(List.of(0, 3, 5), candidatesOf(index, 7));
+        assertContainsInOrder(List.of(1, 7), candidatesOf(index, 3));
+        assertContainsInOrder(List.of(4), candidatesOf(index, 42));
+    }
+
+    @Test
+    public void testPositionsBeyondLengthAreIgnored() {
+        long[] hashes = {5, 5, 5, 5};
+        TokenHashIndex index = new TokenHashIndex(hashes, 2);
+
+        assertEquals(List.of(0, 1), candidatesOf(index, 5));
+    }
+
+    @Test
+    public void testEmptyIndex() {
+        TokenHashIndex index = new TokenHashIndex(new long[] {-1, -1}, 2);
+
+        assertEquals(0, index.size());
+        assertTrue(candidatesOf(index, 1).isEmpty());
+    }
+
+    private List<Integer> candidatesOf(TokenHashIndex index, long hash) {
+        List<Integer> candidates = new ArrayList<>();
+        int bucket = index.bucketOf(hash);
+        for (int candidate = index.bucketStart(bucket); candidate < index.bucketEnd(bucket); candidate++) {
+            candidates.add(index.getPosition(candidate));
+        }
+        return candidates;
+    }
+
+    /**
+     * Buckets may contain positions of other hashes, thus only the relative order of the expected positions is checked.
+     */
+    private void assertContainsInOrder(List<Integer> expected, List<Integer> candidates) {
+        List<Integer> filtered = new ArrayList<>(candidates);
+        filtered.retainAll(expected);
+        assertEquals(expected, filtered);
+    }
+}
@@ -0,0 +1,58 @@
+package de.jplag;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.jplag.exceptions.ExitException;
+
+/**
+ * Tests the file dictionary of token lists.
+ */
+public class TokenListTest extends TestBase {
+
+    @Test
+    public void testFileDictionary() throws ExitException {
+        Submission submission = parseFirstSubmission();
+        TokenList tokens = submission.getTokenList();
+
+        List<String> expected = submission.getFiles().stream().map(File::getName).sorted().toList();
+        assertEquals(expected, tokens.getFileNames().stream().sorted().toList());
+        for (int index = 0; index < tokens.size(); index++) {
+            String file = tokens.getFileNames().get(tokens.getFileIndex(index));
+            assertEquals(file, tokens.getFile(index));
+            assertSame(file, tokens.getToken(index).getFile());
+        }
+    }
+
+    @Test
+    public void testColumnarCopyKeepsDictionary() throws ExitException {
+        TokenList tokens = parseFirstSubmission().getTokenList();
+        TokenList columnar = tokens.toColumnar();
+
+        assertEquals(tokens.getFileNames(), columnar.getFileNames());
+        for (int index = 0; index < tokens.size(); index++) {
+            assertEquals(tokens.getFileIndex(index), columnar.getFileIndex(index));
+        }
+    }
+
+    @Test
+    public void testAnnotatedSourceCodeResolvesFiles() throws ExitException {
+        Submission submission = parseFirstSubmission();
+        String annotated = submission.getTokenAnnotatedSourcCode();
+
+        for (String file : submission.getTokenList().getFileNames()) {
+            assertTrue(annotated.contains(file));
+        }
+    }
+
+    private Submission parseFirstSubmission() throws ExitException {
+        JPlagResult result = runJPlagWithDefaultOptions("PartialPlagiarism");
+        return result.getSubmissions().getSubmissions().stream().filter(it -> it.getName().equals("A")).findFirst().orElseThrow();
+    }
+}
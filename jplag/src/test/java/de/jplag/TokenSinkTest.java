@@ -0,0 +1,86 @@
+package de.jplag;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.jplag.cpp.BasicTokenFilter;
+import de.jplag.cpp.CPPToken;
+import de.jplag.java.JavaToken;
+import de.jplag.options.JPlagOptions;
+import de.jplag.options.LanguageOption;
+
+/**
+ * Tests token lists that are filled through a {@link TokenSink}.
+ */
+public class TokenSinkTest extends TestBase {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testSameTokensAsObjects() {
+        TokenList sink = new TokenList(JavaToken::new);
+        TokenList objects = new TokenList();
+        int[][] values = {{3, 2, 1, 4}, {5, 0, 7, 2}, {7, 5, 3, 0}, {TokenConstants.FILE_END, -1, -1, -1}};
+        for (String file : List.of("A.java", "B.java")) {
+            for (int[] value : values) {
+                sink.addToken(value[0], file, value[1], value[2], value[3]);
+                objects.addToken(new JavaToken(value[0], file, value[1], value[2], value[3]));
+            }
+        }
+
+        assertTrue(sink.isColumnar());
+        assertEquals(describe(objects), describe(sink));
+        assertEquals(objects.toString(), sink.toString());
+        assertEquals(List.of(2, 2, 5, 5), List.of(sink.getLine(0), sink.getLine(1), sink.getLine(2), sink.getLine(3)));
+    }
+
+    @Test
+    public void testObjectListRejectsValues() {
+        TokenList objects = new TokenList();
+        assertThrows(IllegalStateException.class, () -> objects.addToken(TokenConstants.FILE_END, "A.java", 1, 0, 0));
+    }
+
+    @Test
+    public void testCppFilterWhileScanning() throws IOException {
+        Files.writeString(directory.resolve("dead.cpp"), "int f(int x) {\n  if (x) {\n    return 1;\n    x = f(x);\n  }\n  return 0;\n}\n");
+        String[] files = {"dead.cpp"};
+        JPlagOptions options = new JPlagOptions(List.of(), List.of(), LanguageOption.C_CPP);
+        ErrorCollector errorCollector = new ErrorCollector(options);
+        TokenList unfiltered = new de.jplag.cpp.Language(errorCollector).parse(directory.toFile(), files);
+
+        FrontendOptions frontendOptions = new FrontendOptions();
+        frontendOptions.setBasicFilteringEnabled(true);
+        TokenList filtered = new de.jplag.cpp.Language(errorCollector, frontendOptions).parse(directory.toFile(), files);
+
+        List<CPPToken> expected = new ArrayList<>();
+        for (Token token : unfiltered.allTokens()) {
+            expected.add(new CPPToken(token.getType(), token.getFile(), token.getLine(), token.getColumn(), token.getLength()));
+        }
+        BasicTokenFilter.applyTo(expected);
+        TokenList expectedList = new TokenList();
+        expected.forEach(expectedList::addToken);
+
+        assertTrue(filtered.size() < unfiltered.size());
+        assertEquals(describe(expectedList), describe(filtered));
+    }
+
+    private static List<String> describe(TokenList tokens) {
+        List<String> descriptions = new ArrayList<>();
+        for (int index = 0; index < tokens.size(); index++) {
+            descriptions.add(tokens.getType(index) + " " + tokens.getFile(index) + " " + tokens.getLine(index) + ":" + tokens.getColumn(index) + "+"
+                    + tokens.getLength(index));
+        }
+        return descriptions;
+    }
+}
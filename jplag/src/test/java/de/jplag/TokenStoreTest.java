@@ -0,0 +1,116 @@
+package de.jplag;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.jplag.exceptions.ExitException;
+import de.jplag.exceptions.TokenStoreException;
+import de.jplag.options.JPlagOptions;
+import de.jplag.options.LanguageOption;
+
+public class TokenStoreTest extends TestBase {
+    private static final String SAMPLE = "PartialPlagiarism";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testSameResultsAsParsing() throws ExitException {
+        String storeFile = directory.resolve("tokens.store").toString();
+        JPlagResult parsed = runJPlag(SAMPLE, it -> it.setTokenStoreFile(storeFile));
+        assertTrue(Files.exists(Path.of(storeFile)));
+
+        JPlagResult loaded = runJPlag(SAMPLE, it -> it.setTokenStoreFile(storeFile));
+        List<Submission> submissions = loaded.getSubmissions().getSubmissions();
+        assertTrue(submissions.stream().allMatch(it -> it.getTokenList().isOffHeap()));
+        assertEquals(describe(parsed), describe(loaded));
+        for (int i = 0; i < submissions.size(); i++) {
+            Submission original = parsed.getSubmissions().getSubmissions().get(i);
+            assertEquals(original.getTokenList().toString(), submissions.get(i).getTokenList().toString());
+            assertEquals(original.getTokenList().getFileNames(), submissions.get(i).getTokenList().getFileNames());
+        }
+    }
+
+    @Test
+    public void testChangedSubmissionIsParsed() throws ExitException, IOException {
+        Path samples = copySample();
+        String storeFile = directory.resolve("tokens.store").toString();
+        runJPlag(List.of(samples.toString()), it -> it.setTokenStoreFile(storeFile));
+
+        try (Stream<Path> files = Files.list(samples.resolve("A"))) {
+            Path changed = files.findFirst().orElseThrow();
+            Files.writeString(changed, "\nclass Added {}\n", StandardOpenOption.APPEND);
+        }
+        JPlagResult result = runJPlag(List.of(samples.toString()), it -> it.setTokenStoreFile(storeFile));
+
+        for (Submission submission : result.getSubmissions().getSubmissions()) {
+            assertEquals(!submission.getName().equals("A"), submission.getTokenList().isOffHeap(), submission.getName());
+        }
+    }
+
+    @Test
+    public void testStoreOfOtherLanguage() throws ExitException {
+        String storeFile = directory.resolve("tokens.store").toString();
+        runJPlag(SAMPLE, it -> it.setTokenStoreFile(storeFile));
+        assertThrows(TokenStoreException.class, () -> runJPlag(SAMPLE, it -> {
+            it.setLanguageOption(LanguageOption.PYTHON_3);
+            it.setTokenStoreFile(storeFile);
+        }));
+    }
+
+    @Test
+    public void testInvalidStore() throws IOException {
+        Path storeFile = Files.writeString(directory.resolve("tokens.store"), "no token store");
+        assertThrows(TokenStoreException.class, () -> runJPlag(SAMPLE, it -> it.setTokenStoreFile(storeFile.toString())));
+        assertFalse(Files.readString(storeFile).isEmpty());
+    }
+
+    @Test
+    public void testExistingStoreIsNotReplaced() throws ExitException, IOException {
+        Path storeFile = directory.resolve("tokens.store");
+        JPlagResult result = runJPlag(SAMPLE, it -> it.setTokenStoreFile(storeFile.toString()));
+        byte[] content = Files.readAllBytes(storeFile);
+
+        TokenStore tokenStore = new TokenStore(storeFile.toFile(), result.getOptions().getLanguage(), result.getOptions().getFrontendOptions());
+        assertTrue(tokenStore.write(result.getSubmissions().getSubmissions().subList(0, 1)).isEmpty()); // e.g. written by another run
+        assertArrayEquals(content, Files.readAllBytes(storeFile));
+    }
+
+    @Test
+    public void testUnstableTokenTypesAreRejectedBeforeParsing() {
+        Path storeFile = directory.resolve("tokens.store");
+        JPlagOptions options = new JPlagOptions(List.of(getBasePath(SAMPLE)), List.of(), LanguageOption.TEXT);
+        options.setTokenStoreFile(storeFile.toString());
+        assertThrows(TokenStoreException.class, () -> new JPlag(options).run());
+        assertFalse(Files.exists(storeFile));
+    }
+
+    private Path copySample() throws IOException {
+        Path source = Path.of(getBasePath(SAMPLE));
+        Path target = directory.resolve(SAMPLE);
+        try (Stream<Path> paths = Files.walk(source)) {
+            for (Path path : paths.toList()) {
+                Files.copy(path, target.resolve(source.relativize(path).toString()));
+            }
+        }
+        return target;
+    }
+
+    private static List<String> describe(JPlagResult result) {
+        return result.getComparisons().stream().map(it -> it + " " + it.similarity() + " " + it.getMatches().stream().map(Match::getLength).toList())
+                .toList();
+    }
+}
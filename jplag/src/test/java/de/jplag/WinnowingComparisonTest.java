@@ -0,0 +1,57 @@
+package de.jplag;
+
+import static de.jplag.strategy.ComparisonMode.WINNOWING;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.jplag.exceptions.ExitException;
+import de.jplag.strategy.WinnowingComparisonStrategy;
+
+/**
+ * Tests the {@link WinnowingComparisonStrategy}, which only compares pairs that share winnowing fingerprints.
+ */
+public class WinnowingComparisonTest extends TestBase {
+
+    @Test
+    public void testLongMatchesAreFound() throws ExitException {
+        JPlagResult exhaustive = runJPlagWithDefaultOptions("PartialPlagiarism");
+        JPlagResult candidates = runJPlag("PartialPlagiarism", it -> it.setComparisonMode(WINNOWING));
+
+        int guaranteedLength = exhaustive.getOptions().getMinimumTokenMatch() + exhaustive.getOptions().getWinnowingWindow() - 1;
+        List<String> expected = exhaustive.getComparisons().stream()
+                .filter(it -> it.getMatches().stream().anyMatch(match -> match.getLength() >= guaranteedLength)).map(this::describeSimilarity)
+                .toList();
+        assertFalse(expected.isEmpty());
+        assertTrue(describeSimilarities(candidates).containsAll(expected));
+    }
+
+    @Test
+    public void testWindowOfOneFindsAllMatches() throws ExitException {
+        JPlagResult exhaustive = runJPlagWithDefaultOptions("PartialPlagiarism");
+        JPlagResult candidates = runJPlag("PartialPlagiarism", it -> {
+            it.setComparisonMode(WINNOWING);
+            it.setWinnowingWindow(1); // every hash is a fingerprint
+        });
+
+        List<String> expected = exhaustive.getComparisons().stream().filter(it -> !it.getMatches().isEmpty()).map(this::describeSimilarity).toList();
+        assertEquals(expected.stream().sorted().toList(), describeSimilarities(candidates).stream().sorted().toList());
+    }
+
+    @Test
+    public void testFingerprintsOfEqualSubmissions() throws ExitException {
+        JPlagResult result = runJPlagWithDefaultOptions("PartialPlagiarism");
+        Submission submission = result.getSubmissions().getSubmissions().get(0);
+        int minimumTokenMatch = result.getOptions().getMinimumTokenMatch();
+
+        long[] fingerprints = Winnowing.fingerprints(submission, minimumTokenMatch, 4);
+        long[] allHashes = Winnowing.fingerprints(submission, minimumTokenMatch, 1);
+        assertArrayEquals(fingerprints, Winnowing.fingerprints(submission, minimumTokenMatch, 4));
+        assertTrue(fingerprints.length > 0 && fingerprints.length < allHashes.length);
+    }
+}
@@ -0,0 +1,85 @@
+package de.jplag.strategy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.jplag.Submission;
+import de.jplag.TokenList;
+
+public class SubmissionTuplesTest {
+
+    @Test
+    public void testAllTuplesOfNewSubmissions() {
+        List<Submission> submissions = createSubmissions("NNNNNNN");
+        assertTuples(expectedTuples(submissions), new SubmissionTuples(submissions));
+    }
+
+    @Test
+    public void testTuplesOfOldSubmissionsAreSkipped() {
+        List<Submission> submissions = createSubmissions("ONONNOOON");
+        assertTuples(expectedTuples(submissions), new SubmissionTuples(submissions));
+    }
+
+    @Test
+    public void testSubmissionsWithoutTokensAreSkipped() {
+        List<Submission> submissions = createSubmissions("NN-NO-N");
+        assertTuples(expectedTuples(submissions), new SubmissionTuples(submissions));
+    }
+
+    @Test
+    public void testNoTuples() {
+        assertEquals(0, new SubmissionTuples(createSubmissions("OOO")).size());
+        assertEquals(0, new SubmissionTuples(createSubmissions("N")).size());
+        assertThrows(IndexOutOfBoundsException.class, () -> new SubmissionTuples(createSubmissions("N")).get(0));
+    }
+
+    private void assertTuples(List<String> expected, SubmissionTuples tuples) {
+        assertEquals(expected.size(), tuples.size());
+        List<String> byIndex = new ArrayList<>();
+        for (long index = 0; index < tuples.size(); index++) {
+            byIndex.add(tuples.get(index).toString());
+        }
+        List<String> inRanges = new ArrayList<>();
+        for (long start = 0; start < tuples.size(); start += 4) {
+            tuples.forEach(start, Math.min(start + 4, tuples.size()), tuple -> inRanges.add(tuple.toString()));
+        }
+        assertEquals(byIndex, inRanges);
+        assertEquals(expected, byIndex.stream().sorted().toList());
+    }
+
+    /**
+     * Creates submissions from a pattern, where N is a new submission, O is an old submission and - is a submission without
+     * tokens.
+     */
+    private List<Submission> createSubmissions(String pattern) {
+        List<Submission> submissions = new ArrayList<>();
+        for (int index = 0; index < pattern.length(); index++) {
+            char type = pattern.charAt(index);
+            Submission submission = new Submission(type + Integer.toString(index), null, type != 'O', List.of(), null, null);
+            if (type != '-') {
+                submission.setTokenList(new TokenList());
+            }
+            submissions.add(submission);
+        }
+        return submissions;
+    }
+
+    private List<String> expectedTuples(List<Submission> submissions) {
+        List<String> tuples = new ArrayList<>();
+        for (int i = 0; i < submissions.size(); i++) {
+            for (int j = i + 1; j < submissions.size(); j++) {
+                Submission first = submissions.get(i);
+                Submission second = submissions.get(j);
+                if (first.getTokenList() != null && second.getTokenList() != null && (first.isNew() || second.isNew())) {
+                    tuples.add(new SubmissionTuple(first, second).toString());
+                }
+            }
+        }
+        return tuples.stream().sorted().toList();
+    }
+}
@@ -0,0 +1,66 @@
+package de.jplag.strategy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.jplag.JPlagComparison;
+import de.jplag.JPlagResult;
+import de.jplag.TestBase;
+import de.jplag.exceptions.ExitException;
+import de.jplag.options.SimilarityMetric;
+
+public class TopComparisonCollectorTest extends TestBase {
+    private static final int CAPACITY = 3;
+
+    @Test
+    public void testOnlyTopComparisonsRetainMatches() throws ExitException {
+        List<JPlagComparison> comparisons = runJPlag("PartialPlagiarism", it -> it.setMaximumNumberOfComparisons(-1)).getComparisons();
+
+        TopComparisonCollector collector = new TopComparisonCollector(CAPACITY, SimilarityMetric.MAX);
+        comparisons.parallelStream().forEach(collector::accept);
+
+        List<JPlagComparison> collected = collector.getComparisons();
+        assertEquals(comparisons.size(), collected.size());
+        List<JPlagComparison> top = collected.stream().filter(it -> !it.getMatches().isEmpty()).toList();
+        assertEquals(CAPACITY, top.size());
+        List<String> expectedTop = comparisons.stream().sorted(Comparator.comparing(SimilarityMetric.MAX).reversed()).limit(CAPACITY)
+                .map(JPlagComparison::toString).sorted().toList();
+        assertEquals(expectedTop, top.stream().map(JPlagComparison::toString).sorted().toList());
+    }
+
+    @Test
+    public void testEquallyRankedComparisonsAreKept() throws ExitException {
+        List<JPlagComparison> comparisons = runJPlag("PartialPlagiarism", it -> it.setMaximumNumberOfComparisons(-1)).getComparisons();
+
+        TopComparisonCollector collector = new TopComparisonCollector(CAPACITY, SimilarityMetric.MAX);
+        comparisons.parallelStream().forEach(collector::accept);
+        comparisons.parallelStream().forEach(collector::accept); // same scores and submission names
+
+        List<JPlagComparison> collected = collector.getComparisons();
+        assertEquals(2 * comparisons.size(), collected.size());
+        assertEquals(CAPACITY, collected.stream().filter(it -> !it.getMatches().isEmpty()).count());
+    }
+
+    @Test
+    public void testLightweightComparisonsKeepSimilarities() throws ExitException {
+        JPlagResult complete = runJPlag("PartialPlagiarism", it -> it.setMaximumNumberOfComparisons(-1));
+        JPlagResult bounded = runJPlag("PartialPlagiarism", it -> it.setMaximumNumberOfComparisons(CAPACITY));
+
+        assertEquals(complete.getComparisons().size(), bounded.getComparisons().size());
+        for (int i = 0; i < complete.getComparisons().size(); i++) {
+            JPlagComparison expected = complete.getComparisons().get(i);
+            JPlagComparison actual = bounded.getComparisons().get(i);
+            assertEquals(expected.similarity(), actual.similarity(), DELTA);
+            assertEquals(expected.maximalSimilarity(), actual.maximalSimilarity(), DELTA);
+            assertEquals(i < CAPACITY || expected.getMatches().isEmpty(), actual.getMatches().size() == expected.getMatches().size());
+        }
+        assertTrue(bounded.getComparisons().stream().skip(CAPACITY).allMatch(it -> it.getMatches().isEmpty()));
+        assertFalse(bounded.getComparisons().get(0).getMatches().isEmpty());
+    }
+}